@@ -28,6 +28,8 @@ import lombok.Setter;
 import net.kyori.adventure.platform.AudienceProvider;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import net.william278.desertwell.util.Version;
+import net.william278.huskclaims.claim.ClaimLocalityCache;
+import net.william278.huskclaims.claim.ClaimTracker;
 import net.william278.huskclaims.claim.ClaimWorld;
 import net.william278.huskclaims.claim.TrustLevel;
 import net.william278.huskclaims.command.BukkitCommand;
@@ -38,17 +40,23 @@ import net.william278.huskclaims.config.Settings;
 import net.william278.huskclaims.config.TrustLevels;
 import net.william278.huskclaims.database.Database;
 import net.william278.huskclaims.group.UserGroup;
+import net.william278.huskclaims.highlighter.HighlightBlocks;
 import net.william278.huskclaims.highlighter.Highlighter;
 import net.william278.huskclaims.listener.BukkitListener;
 import net.william278.huskclaims.listener.ClaimsListener;
 import net.william278.huskclaims.network.Broker;
 import net.william278.huskclaims.network.PluginMessageBroker;
 import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.ServerWorld;
 import net.william278.huskclaims.position.World;
 import net.william278.huskclaims.user.*;
+import net.william278.huskclaims.util.BlockChanges;
+import net.william278.huskclaims.util.BlockDataBlock;
 import net.william278.huskclaims.util.BlockProvider;
 import net.william278.huskclaims.util.BukkitBlockProvider;
 import net.william278.huskclaims.util.BukkitTask;
+import net.william278.huskclaims.util.SurfaceCache;
+import net.william278.huskclaims.util.UserIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -76,18 +84,31 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
     @Getter
     private ConcurrentMap<String, List<User>> globalUserList = Maps.newConcurrentMap();
     @Getter
+    private final UserIndex userIndex = new UserIndex();
+    @Getter
+    private final SurfaceCache surfaceCache = new SurfaceCache();
+    @Getter
+    private final ClaimLocalityCache claimLocalityCache = new ClaimLocalityCache();
+    @Getter
     private ConcurrentMap<UUID, ClaimSelection> claimSelections = Maps.newConcurrentMap();
     @Getter
     private ConcurrentMap<UUID, SavedUser> userCache = Maps.newConcurrentMap();
     @Getter
+    private final OnlineUserRegistry<BukkitUser> onlineUserRegistry = new OnlineUserRegistry<>();
+    @Getter
     private HashMap<String, ClaimWorld> claimWorlds = Maps.newHashMap();
     @Getter
+    private ConcurrentMap<ServerWorld, ClaimWorld> replicatedClaimWorlds = Maps.newConcurrentMap();
+    @Getter
     private List<Command> commands = Lists.newArrayList();
     @Getter
     @Setter
     private Highlighter highlighter;
     @Getter
     @Setter
+    private ClaimTracker claimTracker;
+    @Getter
+    @Setter
     private Database database;
     @Nullable
     @Setter
@@ -95,6 +116,9 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
     @Getter
     @Setter
     private Settings settings;
+    @Getter
+    @Setter
+    private HighlightBlocks highlightBlocks;
     @Setter
     private TrustLevels trustLevels;
     @Getter
@@ -112,12 +136,22 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
     public void onEnable() {
         this.audiences = BukkitAudiences.create(this);
         this.morePaperLib = new MorePaperLib(this);
+        getServer().getOnlinePlayers().forEach(player -> onlineUserRegistry.register(BukkitUser.adapt(player, this)));
         this.initialize();
     }
 
     @Override
     public void onDisable() {
+        if (highlighter != null) {
+            highlighter.close();
+        }
+        if (claimTracker != null) {
+            claimTracker.close();
+        }
         this.shutdown();
+        onlineUserRegistry.clear();
+        userIndex.clear();
+        surfaceCache.clear();
     }
 
     @Override
@@ -132,11 +166,25 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
         return Version.fromString(getDescription().getVersion());
     }
 
+    @NotNull
+    @Override
+    public Collection<BukkitUser> getOnlineUsers() {
+        return onlineUserRegistry.getAll();
+    }
+
     @Override
-    public List<? extends OnlineUser> getOnlineUsers() {
-        return getServer().getOnlinePlayers().stream()
-                .map(player -> BukkitUser.adapt(player, this))
-                .toList();
+    public Optional<BukkitUser> getOnlineUser(@NotNull UUID uuid) {
+        return onlineUserRegistry.get(uuid);
+    }
+
+    @Override
+    public Optional<BukkitUser> getOnlineUser(@NotNull String name) {
+        return onlineUserRegistry.get(name);
+    }
+
+    @Override
+    public Optional<BukkitUser> findAnyOnlineUser() {
+        return onlineUserRegistry.findAny();
     }
 
     @NotNull
@@ -235,25 +283,12 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
 
     @Override
     public void sendBlockUpdates(@NotNull OnlineUser user, @NotNull Map<Position, MaterialBlock> blocks) {
-        final Player player = ((BukkitUser) user).getBukkitPlayer();
-        blocks.forEach((position, materialBlock) -> player.sendBlockChange(
-                Adapter.adapt(position),
-                Objects.requireNonNull(Material.matchMaterial(materialBlock.getMaterialKey()),
-                        "Invalid material: " + materialBlock.getMaterialKey()
-                ).createBlockData()
-        ));
+        BlockChanges.send(((BukkitUser) user).getBukkitPlayer(), Adapter.adapt(blocks));
     }
 
     @Override
     public void sendBlockUpdates(@NotNull OnlineUser user, @NotNull List<Position> positions) {
-        final Player player = ((BukkitUser) user).getBukkitPlayer();
-        positions.forEach(position -> {
-            Location location = Adapter.adapt(position);
-            player.sendBlockChange(
-                    location,
-                    Objects.requireNonNull(location.getWorld()).getBlockAt(location).getBlockData()
-            );
-        });
+        BlockChanges.restore(((BukkitUser) user).getBukkitPlayer(), positions);
     }
 
     public static class Adapter {
@@ -290,14 +325,20 @@ public class BukkitHuskClaims extends JavaPlugin implements HuskClaims, BukkitTa
         @NotNull
         public static Map<Location, BlockData> adapt(@NotNull Map<Position, BlockProvider.MaterialBlock> blocks) {
             final Map<Location, BlockData> blockData = Maps.newHashMap();
-            blocks.forEach((position, materialBlock) -> blockData.put(
-                    adapt(position),
-                    Objects.requireNonNull(Material.matchMaterial(materialBlock.getMaterialKey()),
-                            "Invalid material: " + materialBlock.getMaterialKey()
-                    ).createBlockData()
-            ));
+            blocks.forEach((position, materialBlock) -> blockData.put(adapt(position), adapt(materialBlock)));
             return blockData;
         }
+
+        // Blocks from the block provider already hold resolved BlockData, so only parse other blocks' material keys
+        @NotNull
+        public static BlockData adapt(@NotNull BlockProvider.MaterialBlock materialBlock) {
+            if (materialBlock instanceof BlockDataBlock block) {
+                return block.getData();
+            }
+            return Objects.requireNonNull(Material.matchMaterial(materialBlock.getMaterialKey()),
+                    "Invalid material: " + materialBlock.getMaterialKey()
+            ).createBlockData();
+        }
     }
 
 }
@@ -30,6 +30,7 @@ import org.bukkit.Material;
 import org.bukkit.Statistic;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerItemHeldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
@@ -50,16 +51,23 @@ public class BukkitListener extends BukkitOperationListener implements ClaimsLis
     public void register() {
         ClaimsListener.super.register();
         plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getServer().getPluginManager().registerEvents(
+                new BukkitSurfaceCacheListener(plugin.getSurfaceCache()), plugin
+        );
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerJoin(@NotNull PlayerJoinEvent e) {
-        this.onUserJoin(BukkitUser.adapt(e.getPlayer(), plugin));
+        final BukkitUser user = BukkitUser.adapt(e.getPlayer(), plugin);
+        plugin.getOnlineUserRegistry().register(user);
+        this.onUserJoin(user);
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(@NotNull PlayerQuitEvent e) {
-        this.onUserQuit(BukkitUser.adapt(e.getPlayer(), plugin));
+        final BukkitUser user = BukkitUser.adapt(e.getPlayer(), plugin);
+        this.onUserQuit(user);
+        plugin.getOnlineUserRegistry().unregister(user.getUuid());
     }
 
     @EventHandler
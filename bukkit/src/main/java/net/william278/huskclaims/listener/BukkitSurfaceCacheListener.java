@@ -0,0 +1,158 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.listener;
+
+import net.william278.huskclaims.util.SurfaceCache;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.*;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Invalidates {@link SurfaceCache} columns when blocks in them change, and drops cached chunks when they unload
+ */
+public class BukkitSurfaceCacheListener implements Listener {
+
+    private final SurfaceCache cache;
+
+    public BukkitSurfaceCacheListener(@NotNull SurfaceCache cache) {
+        this.cache = cache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(@NotNull BlockBreakEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(@NotNull BlockPlaceEvent e) {
+        if (e instanceof BlockMultiPlaceEvent multiPlace) {
+            multiPlace.getReplacedBlockStates().forEach(this::invalidate);
+            return;
+        }
+        invalidate(e.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(@NotNull BlockBurnEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(@NotNull BlockFadeEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    // Also covers BlockSpreadEvent
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(@NotNull BlockFormEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(@NotNull BlockGrowEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(@NotNull LeavesDecayEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidFlow(@NotNull BlockFromToEvent e) {
+        invalidate(e.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(@NotNull BlockExplodeEvent e) {
+        invalidate(e.getBlock());
+        invalidateAll(e.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(@NotNull EntityExplodeEvent e) {
+        invalidateAll(e.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(@NotNull EntityChangeBlockEvent e) {
+        invalidate(e.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(@NotNull BlockPistonExtendEvent e) {
+        invalidatePushed(e.getBlock(), e.getBlocks(), e.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(@NotNull BlockPistonRetractEvent e) {
+        invalidatePushed(e.getBlock(), e.getBlocks(), e.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(@NotNull StructureGrowEvent e) {
+        e.getBlocks().forEach(this::invalidate);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull ChunkUnloadEvent e) {
+        cache.invalidateChunk(e.getWorld(), e.getChunk().getX(), e.getChunk().getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(@NotNull WorldUnloadEvent e) {
+        cache.invalidateWorld(e.getWorld());
+    }
+
+    // Invalidate the piston, and the columns blocks are moved out of and into
+    private void invalidatePushed(@NotNull Block piston, @NotNull List<Block> blocks, @NotNull BlockFace direction) {
+        invalidate(piston);
+        invalidate(piston.getRelative(direction));
+        for (Block block : blocks) {
+            invalidate(block);
+            invalidate(block.getRelative(direction));
+        }
+    }
+
+    private void invalidateAll(@NotNull List<Block> blocks) {
+        blocks.forEach(this::invalidate);
+    }
+
+    private void invalidate(@NotNull Block block) {
+        cache.invalidate(block.getWorld(), block.getX(), block.getZ());
+    }
+
+    private void invalidate(@NotNull BlockState state) {
+        cache.invalidate(state.getWorld(), state.getX(), state.getZ());
+    }
+
+}
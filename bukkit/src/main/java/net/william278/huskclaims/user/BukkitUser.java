@@ -39,9 +39,18 @@ public class BukkitUser extends OnlineUser {
         this.bukkitPlayer = bukkitPlayer;
     }
 
+    /**
+     * Adapt a player to a {@link BukkitUser}, returning the registered instance if the player is online
+     *
+     * @param player the player
+     * @param plugin the plugin instance
+     * @return the adapted user
+     */
     @NotNull
     public static BukkitUser adapt(@NotNull Player player, @NotNull HuskClaims plugin) {
-        return new BukkitUser(player, plugin);
+        return ((BukkitHuskClaims) plugin).getOnlineUserRegistry().get(player.getUniqueId())
+                .filter(user -> user.bukkitPlayer == player)
+                .orElseGet(() -> new BukkitUser(player, plugin));
     }
 
     @NotNull
@@ -60,6 +69,11 @@ public class BukkitUser extends OnlineUser {
         return bukkitPlayer.hasPermission(permission);
     }
 
+    @Override
+    public boolean isSneaking() {
+        return bukkitPlayer.isSneaking();
+    }
+
     @Override
     public Optional<Long> getNumericalPermission(@NotNull String prefix) {
         return bukkitPlayer.getEffectivePermissions().stream()
@@ -0,0 +1,181 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.BukkitHuskClaims.Adapter;
+import net.william278.huskclaims.position.Position;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Utility for sending batches of fake block changes to a player.
+ * <p>
+ * Where the server supports {@code Player#sendBlockChanges} (1.19.3+, taking a light update flag until 1.19.4), a batch
+ * is {@link ChunkSections#group(Collection, java.util.function.ToLongFunction) grouped by chunk section} and sent as
+ * one multi-block change packet per section, rather than one block change packet per block. Blocks in unloaded chunks
+ * are skipped, as the player can't see them and looking them up would load the chunk.
+ *
+ * @since 1.0
+ */
+public final class BlockChanges {
+
+    @Nullable
+    private static final MethodHandle SEND_BLOCK_CHANGES = findSendBlockChanges();
+
+    private BlockChanges() {
+    }
+
+    /**
+     * Send a batch of block changes to a player
+     *
+     * @param player the player
+     * @param blocks the block data to show at each location
+     * @since 1.0
+     */
+    public static void send(@NotNull Player player, @NotNull Map<Location, BlockData> blocks) {
+        if (SEND_BLOCK_CHANGES == null) {
+            blocks.forEach((location, data) -> {
+                if (isLoaded(location)) {
+                    player.sendBlockChange(location, data);
+                }
+            });
+            return;
+        }
+
+        final List<BlockState> states = Lists.newArrayListWithCapacity(blocks.size());
+        blocks.forEach((location, data) -> {
+            if (isLoaded(location)) {
+                final BlockState state = location.getBlock().getState();
+                state.setBlockData(data);
+                states.add(state);
+            }
+        });
+        sendStates(player, states);
+    }
+
+    /**
+     * Send the real blocks at a list of positions to a player, to restore them after sending fake block changes
+     *
+     * @param player    the player
+     * @param positions the positions to restore
+     * @since 1.0
+     */
+    public static void restore(@NotNull Player player, @NotNull List<Position> positions) {
+        if (SEND_BLOCK_CHANGES == null) {
+            getCurrentBlocks(positions).forEach(player::sendBlockChange);
+            return;
+        }
+
+        final List<BlockState> states = Lists.newArrayListWithCapacity(positions.size());
+        forEachLoadedBlock(positions, block -> states.add(block.getState()));
+        sendStates(player, states);
+    }
+
+    /**
+     * Get the real block data at a list of positions, skipping positions in unloaded chunks
+     *
+     * @param positions the positions
+     * @return the block data at each loaded position
+     * @since 1.0
+     */
+    @NotNull
+    public static Map<Location, BlockData> getCurrentBlocks(@NotNull List<Position> positions) {
+        final Map<Location, BlockData> blocks = Maps.newHashMapWithExpectedSize(positions.size());
+        forEachLoadedBlock(positions, block -> blocks.put(block.getLocation(), block.getBlockData()));
+        return blocks;
+    }
+
+    private static void forEachLoadedBlock(@NotNull List<Position> positions,
+                                           @NotNull Consumer<Block> consumer) {
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        // Positions sent together are almost always in the same world, so only adapt the world once
+        net.william278.huskclaims.position.World lastWorld = null;
+        World world = null;
+        for (Position position : positions) {
+            if (!position.getWorld().equals(lastWorld)) {
+                lastWorld = position.getWorld();
+                world = Adapter.adapt(lastWorld);
+            }
+            final int x = position.getBlockX();
+            final int z = position.getBlockZ();
+            if (world.isChunkLoaded(x >> 4, z >> 4)) {
+                consumer.accept(world.getBlockAt(x, (int) Math.floor(position.getY()), z));
+            }
+        }
+    }
+
+    private static boolean isLoaded(@NotNull Location location) {
+        return Objects.requireNonNull(location.getWorld(), "Location world is null")
+                .isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static void sendStates(@NotNull Player player, @NotNull Collection<BlockState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        for (List<BlockState> section : ChunkSections.group(states,
+                state -> ChunkSections.getKey(state.getX(), state.getY(), state.getZ()))) {
+            try {
+                SEND_BLOCK_CHANGES.invoke(player, section);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to send block changes", e);
+            }
+        }
+    }
+
+    // Player#sendBlockChanges(Collection, boolean) was added in 1.19.3; 1.19.4 added an overload without the flag
+    @Nullable
+    private static MethodHandle findSendBlockChanges() {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            return lookup.findVirtual(Player.class, "sendBlockChanges",
+                    MethodType.methodType(void.class, Collection.class));
+        } catch (ReflectiveOperationException ignored) {
+        }
+        try {
+            return MethodHandles.insertArguments(lookup.findVirtual(Player.class, "sendBlockChanges",
+                    MethodType.methodType(void.class, Collection.class, boolean.class)), 2, false);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
@@ -24,15 +24,15 @@ import net.william278.huskclaims.BukkitHuskClaims.Adapter;
 import net.william278.huskclaims.position.BlockPosition;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.position.World;
-import org.bukkit.Location;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
-import org.bukkit.block.BlockFace;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 public interface BukkitBlockProvider extends BlockProvider {
 
@@ -45,42 +45,66 @@ public interface BukkitBlockProvider extends BlockProvider {
         ));
     }
 
+    @NotNull
+    SurfaceCache getSurfaceCache();
+
     @NotNull
     @Override
     default Map<Position, MaterialBlock> getSurfaceBlocksAt(@NotNull Collection<? extends BlockPosition> positions,
                                                             @NotNull World surfaceWorld, int yLevel) {
+        final org.bukkit.World world = Adapter.adapt(surfaceWorld);
+        final boolean inWorld = yLevel >= world.getMinHeight() && yLevel < world.getMaxHeight() - 1;
+        final Map<Long, ChunkSnapshot> snapshots = Maps.newHashMap();
         final Map<Position, MaterialBlock> blocks = Maps.newHashMap();
         for (BlockPosition pos : positions) {
-            final Location location = Adapter.adapt(Position.at(pos, yLevel, surfaceWorld));
-            final org.bukkit.World world = Objects.requireNonNull(location.getWorld(), "World is null");
-            if (location.getChunk().isLoaded()) {
-                final Block block = getSurfaceBlockAt(location.getBlock(), world.getMinHeight(), world.getMaxHeight());
-                blocks.put(Adapter.adapt(block.getLocation()), new BlockDataBlock(block.getBlockData()));
+            final int x = pos.getBlockX();
+            final int z = pos.getBlockZ();
+            if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+
+            // Outside the world's height range, there is nothing to scan
+            if (!inWorld) {
+                blocks.put(Position.at(x, yLevel, z, surfaceWorld),
+                        new BlockDataBlock(world.getBlockAt(x, yLevel, z).getBlockData()));
+                continue;
+            }
+
+            // Scan up or down relative to where the player is standing to find a good surface block
+            final SurfaceCache.Surface surface = getSurfaceCache().getSurface(world, x, yLevel, z, snapshots);
+            if (surface != null) {
+                blocks.put(Position.at(x, surface.y(), z, surfaceWorld), new BlockDataBlock(surface.data()));
             }
         }
         return blocks;
     }
 
-    // Scans up or down relative to where the player is standing to find a good surface block
     @NotNull
-    private Block getSurfaceBlockAt(@NotNull Block block, int minHeight, int maxHeight) {
-        final BlockFace direction = !isOccluding(block) ? BlockFace.DOWN : BlockFace.UP;
-        while (isObscured(block, minHeight, maxHeight)) {
-            block = block.getRelative(direction);
+    @Override
+    default Supplier<Map<Position, MaterialBlock>> captureSurfaceBlocksAt(
+            @NotNull Collection<? extends BlockPosition> positions, @NotNull World surfaceWorld, int yLevel) {
+        final org.bukkit.World world = Adapter.adapt(surfaceWorld);
+        if (yLevel < world.getMinHeight() || yLevel >= world.getMaxHeight() - 1) {
+            final Map<Position, MaterialBlock> blocks = getSurfaceBlocksAt(positions, surfaceWorld, yLevel);
+            return () -> blocks;
         }
-        return block;
-    }
 
-    // Returns if a block would be obscured by the block above it (and that it's within the world boundaries)
-    private boolean isObscured(@NotNull Block block, int minHeight, int maxHeight) {
-        return (isOccluding(block.getRelative(BlockFace.UP)) || !isOccluding(block)) &&
-                block.getY() >= minHeight && (block.getY() < maxHeight - 1);
-    }
-
-    // Returns if a block occludes vision/light
-    private boolean isOccluding(@NotNull Block block) {
-        return (block.isLiquid() && block.getType() == Material.LAVA)
-                || block.getType().isSolid() && block.getType().isOccluding();
+        // Snapshot the chunks of uncached columns now, so that the columns can be scanned off the main thread
+        final SurfaceCache cache = getSurfaceCache();
+        final Map<Long, SurfaceCache.CapturedChunk> captured = cache.captureSnapshots(world, positions);
+        final List<BlockPosition> columns = List.copyOf(positions);
+        return () -> {
+            final Map<Position, MaterialBlock> blocks = Maps.newHashMapWithExpectedSize(columns.size());
+            for (BlockPosition pos : columns) {
+                final int x = pos.getBlockX();
+                final int z = pos.getBlockZ();
+                final SurfaceCache.Surface surface = cache.getCapturedSurface(world, x, yLevel, z, captured);
+                if (surface != null) {
+                    blocks.put(Position.at(x, surface.y(), z, surfaceWorld), new BlockDataBlock(surface.data()));
+                }
+            }
+            return blocks;
+        };
     }
 
 }
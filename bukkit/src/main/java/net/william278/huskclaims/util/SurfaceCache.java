@@ -0,0 +1,322 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.util;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.position.BlockPosition;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-world cache of the surfaces in each block column, used to find highlight surface blocks without scanning.
+ * <p>
+ * Columns are computed from a {@link ChunkSnapshot} and stored per chunk, keyed by packed chunk coordinates. Each
+ * column records its runs of occluding blocks; the top of each run is a surface, so a surface lookup from any starting
+ * height is a search of the runs. Columns are invalidated when blocks in them change, chunks are dropped when they
+ * unload, and chunks are recomputed after {@link #MAX_AGE_MILLIS} to bound staleness from changes made without events.
+ * <p>
+ * Each chunk has an invalidation generation, recorded when its snapshot is captured for an off-thread lookup. Columns
+ * computed from a captured snapshot are only cached if no column in the chunk has been invalidated since, so that a
+ * lookup racing a block change cannot cache the column as it was before the change.
+ *
+ * @since 1.0
+ */
+public class SurfaceCache {
+
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private final ConcurrentMap<UUID, ConcurrentMap<Long, ChunkSurfaces>> worlds = Maps.newConcurrentMap();
+
+    /**
+     * Get the surface block found by scanning up or down a column from a starting height
+     *
+     * @param world     the world
+     * @param x         the column x coordinate
+     * @param y         the starting y coordinate, within the world height
+     * @param z         the column z coordinate
+     * @param snapshots snapshots taken during this lookup, by packed chunk coordinates, to reuse across columns
+     * @return the surface block, or {@code null} if the column's chunk could not be snapshotted
+     * @since 1.0
+     */
+    @Nullable
+    public Surface getSurface(@NotNull World world, int x, int y, int z, @NotNull Map<Long, ChunkSnapshot> snapshots) {
+        return getSurface(world, x, y, z, key -> snapshots.computeIfAbsent(
+                key, k -> world.getChunkAt(x >> 4, z >> 4).getChunkSnapshot(true, false, false)
+        ));
+    }
+
+    /**
+     * Capture snapshots of the chunks needed to look up the surfaces of a set of columns, for looking them up off the
+     * main thread with {@link #getCapturedSurface(World, int, int, int, Map)}. Must be called on the main thread.
+     * <p>
+     * Chunks whose columns are all cached, and chunks that are not loaded, are not captured.
+     *
+     * @param world   the world
+     * @param columns the block positions of the columns
+     * @return the captured chunks, by packed chunk coordinates
+     * @since 1.0
+     */
+    @NotNull
+    public Map<Long, CapturedChunk> captureSnapshots(@NotNull World world,
+                                                     @NotNull Collection<? extends BlockPosition> columns) {
+        final Map<Long, CapturedChunk> captured = Maps.newHashMap();
+        final long now = System.currentTimeMillis();
+        for (BlockPosition column : columns) {
+            final int chunkX = column.getBlockX() >> 4;
+            final int chunkZ = column.getBlockZ() >> 4;
+            final long key = getChunkKey(chunkX, chunkZ);
+            if (captured.containsKey(key) || !world.isChunkLoaded(chunkX, chunkZ)) {
+                continue;
+            }
+            final ChunkSurfaces chunk = getChunk(world, key, now);
+            if (chunk.columns[getColumnIndex(column.getBlockX(), column.getBlockZ())] == null) {
+                final ChunkSnapshot snapshot = world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(true, false, false);
+                synchronized (chunk) {
+                    captured.put(key, new CapturedChunk(chunk, chunk.generation, snapshot));
+                }
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * Get the surface block found by scanning up or down a column, using only cached columns and snapshots captured
+     * by {@link #captureSnapshots(World, Collection)}. Safe to call off the main thread.
+     *
+     * @param world     the world
+     * @param x         the column x coordinate
+     * @param y         the starting y coordinate, within the world height
+     * @param z         the column z coordinate
+     * @param captured  the captured chunks, by packed chunk coordinates
+     * @return the surface block, or {@code null} if the column was not cached and its chunk was not captured
+     * @since 1.0
+     */
+    @Nullable
+    public Surface getCapturedSurface(@NotNull World world, int x, int y, int z,
+                                      @NotNull Map<Long, CapturedChunk> captured) {
+        final long chunkKey = getChunkKey(x >> 4, z >> 4);
+        final int index = getColumnIndex(x, z);
+        final Column cached = getChunk(world, chunkKey, System.currentTimeMillis()).columns[index];
+        if (cached != null) {
+            return cached.getSurface(y);
+        }
+        final CapturedChunk capture = captured.get(chunkKey);
+        if (capture == null) {
+            return null;
+        }
+        final Column column = Column.compute(
+                capture.snapshot, x & 15, z & 15, world.getMinHeight(), world.getMaxHeight()
+        );
+        capture.store(index, column);
+        return column.getSurface(y);
+    }
+
+    @Nullable
+    private Surface getSurface(@NotNull World world, int x, int y, int z,
+                               @NotNull Function<Long, ChunkSnapshot> snapshots) {
+        final long chunkKey = getChunkKey(x >> 4, z >> 4);
+        final ChunkSurfaces chunk = getChunk(world, chunkKey, System.currentTimeMillis());
+
+        final int index = getColumnIndex(x, z);
+        Column column = chunk.columns[index];
+        if (column == null) {
+            final ChunkSnapshot snapshot = snapshots.apply(chunkKey);
+            if (snapshot == null) {
+                return null;
+            }
+            column = Column.compute(snapshot, x & 15, z & 15, world.getMinHeight(), world.getMaxHeight());
+            chunk.columns[index] = column;
+        }
+        return column.getSurface(y);
+    }
+
+    // Get the cached columns of a chunk, replacing them if they have expired
+    @NotNull
+    private ChunkSurfaces getChunk(@NotNull World world, long chunkKey, long now) {
+        return worlds.computeIfAbsent(world.getUID(), uuid -> Maps.newConcurrentMap())
+                .compute(chunkKey, (key, existing) -> existing == null || now - existing.created > MAX_AGE_MILLIS
+                        ? new ChunkSurfaces(now) : existing);
+    }
+
+    /**
+     * Invalidate the column at a block position
+     *
+     * @param world the world
+     * @param x     the block x coordinate
+     * @param z     the block z coordinate
+     * @since 1.0
+     */
+    public void invalidate(@NotNull World world, int x, int z) {
+        final Map<Long, ChunkSurfaces> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return;
+        }
+        final ChunkSurfaces chunk = chunks.get(getChunkKey(x >> 4, z >> 4));
+        if (chunk != null) {
+            synchronized (chunk) {
+                chunk.generation++;
+                chunk.columns[getColumnIndex(x, z)] = null;
+            }
+        }
+    }
+
+    public void invalidateChunk(@NotNull World world, int chunkX, int chunkZ) {
+        final Map<Long, ChunkSurfaces> chunks = worlds.get(world.getUID());
+        if (chunks != null) {
+            chunks.remove(getChunkKey(chunkX, chunkZ));
+        }
+    }
+
+    public void invalidateWorld(@NotNull World world) {
+        worlds.remove(world.getUID());
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int getColumnIndex(int x, int z) {
+        return ((z & 15) << 4) | (x & 15);
+    }
+
+    // Returns if a block material occludes vision/light
+    static boolean isOccluding(@NotNull Material material) {
+        return material == Material.LAVA || material.isSolid() && material.isOccluding();
+    }
+
+    /**
+     * A surface block: the top of a run of occluding blocks
+     *
+     * @param y    the y coordinate of the block
+     * @param data the block's data
+     * @since 1.0
+     */
+    public record Surface(int y, @NotNull BlockData data) {
+    }
+
+    /**
+     * A snapshot of a chunk captured on the main thread, with the invalidation generation of its cached columns at the
+     * time
+     *
+     * @since 1.0
+     */
+    public static final class CapturedChunk {
+        private final ChunkSurfaces chunk;
+        private final int generation;
+        private final ChunkSnapshot snapshot;
+
+        private CapturedChunk(@NotNull ChunkSurfaces chunk, int generation, @NotNull ChunkSnapshot snapshot) {
+            this.chunk = chunk;
+            this.generation = generation;
+            this.snapshot = snapshot;
+        }
+
+        // Cache a column computed from the snapshot, unless a column in the chunk has been invalidated since
+        private void store(int index, @NotNull Column column) {
+            synchronized (chunk) {
+                if (chunk.generation == generation) {
+                    chunk.columns[index] = column;
+                }
+            }
+        }
+    }
+
+    // The cached columns of a chunk, and the number of times a column in it has been invalidated
+    private static final class ChunkSurfaces {
+        private final Column[] columns = new Column[256];
+        private final long created;
+        private int generation;
+
+        private ChunkSurfaces(long created) {
+            this.created = created;
+        }
+    }
+
+    // The runs of occluding blocks in a column, in ascending order, and the block at the bottom of the world
+    private record Column(int[] bottoms, int[] tops, BlockData[] surfaces, int floorY, BlockData floor) {
+
+        @NotNull
+        private static Column compute(@NotNull ChunkSnapshot snapshot, int x, int z, int minHeight, int maxHeight) {
+            final int top = Math.min(snapshot.getHighestBlockYAt(x, z) + 1, maxHeight - 1);
+            int[] bottoms = new int[4];
+            int[] tops = new int[4];
+            int runs = 0;
+            int runStart = Integer.MIN_VALUE;
+            for (int y = minHeight; y <= top; y++) {
+                final boolean occluding = isOccluding(snapshot.getBlockType(x, y, z));
+                if (occluding && runStart == Integer.MIN_VALUE) {
+                    runStart = y;
+                } else if (!occluding && runStart != Integer.MIN_VALUE) {
+                    if (runs == bottoms.length) {
+                        bottoms = Arrays.copyOf(bottoms, runs * 2);
+                        tops = Arrays.copyOf(tops, runs * 2);
+                    }
+                    bottoms[runs] = runStart;
+                    tops[runs++] = y - 1;
+                    runStart = Integer.MIN_VALUE;
+                }
+            }
+            if (runStart != Integer.MIN_VALUE) {
+                if (runs == bottoms.length) {
+                    bottoms = Arrays.copyOf(bottoms, runs + 1);
+                    tops = Arrays.copyOf(tops, runs + 1);
+                }
+                bottoms[runs] = runStart;
+                tops[runs++] = top;
+            }
+
+            final BlockData[] surfaces = new BlockData[runs];
+            for (int i = 0; i < runs; i++) {
+                surfaces[i] = snapshot.getBlockData(x, tops[i], z);
+            }
+            return new Column(Arrays.copyOf(bottoms, runs), Arrays.copyOf(tops, runs), surfaces,
+                    minHeight, snapshot.getBlockData(x, minHeight, z));
+        }
+
+        // Scan up to the top of the run containing y if y is occluding, otherwise down to the top of the run below y,
+        // stopping at the bottom of the world if there is no run below y
+        @NotNull
+        private Surface getSurface(int y) {
+            for (int i = tops.length - 1; i >= 0; i--) {
+                if (bottoms[i] <= y) {
+                    return new Surface(tops[i], surfaces[i]);
+                }
+            }
+            return new Surface(floorY, floor);
+        }
+
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.claim;
+
+import net.william278.cloplib.operation.Operation;
+import net.william278.cloplib.operation.OperationType;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.config.TrustLevels;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the per-operation claim checks, which run for every block break, place and interaction in a claim world.
+ * <p>
+ * The world is a grid of claims, each with a child claim, owned by one user with another user trusted to build in
+ * each. Run with {@code ./gradlew :common:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimWorldBenchmark {
+
+    private static final OperationType TYPE = OperationType.BLOCK_BREAK;
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+    private static final int GRID_WIDTH = 32;
+    private static final int SPACING = 200;
+    private static final int SIZE = 100;
+
+    @Param({"OWNER", "TRUSTED", "WILDERNESS", "CHILD"})
+    public Case scenario;
+
+    @Param({"1024"})
+    public int claims;
+
+    private HuskClaims plugin;
+    private ClaimWorld world;
+    private Position position;
+    private Operation operation;
+
+    @Setup
+    public void setup() {
+        final StubPlugin stub = StubPlugin.create("benchmark");
+        final TrustLevels trustLevels = create(TrustLevels.class);
+        stub.stub("getTrustLevels", args -> trustLevels.getTrustLevels());
+        plugin = stub.getPlugin();
+
+        final BenchmarkUser owner = new BenchmarkUser("Owner", plugin);
+        final BenchmarkUser trusted = new BenchmarkUser("Trusted", plugin);
+        final TrustLevel build = plugin.getTrustLevel("build")
+                .orElseThrow(() -> new IllegalStateException("No build trust level"));
+        world = ClaimWorld.create(plugin);
+        for (int index = 0; index < claims; index++) {
+            final int x = (index % GRID_WIDTH) * SPACING;
+            final int z = (index / GRID_WIDTH) * SPACING;
+            final Claim claim = Claim.create(owner, region(x, z, x + SIZE, z + SIZE), plugin);
+            claim.setUserTrustLevel(trusted.getUuid(), build);
+            claim.getDefaultFlags().remove(TYPE);
+            world.addClaim(claim);
+            claim.createAndAddChild(region(x + 10, z + 10, x + 40, z + 40), world, plugin)
+                    .getDefaultFlags().remove(TYPE);
+        }
+
+        // Check in the middle of the grid, in the parent claim, the wilderness beside it, or its child claim
+        final int x = (claims / 2 % GRID_WIDTH) * SPACING;
+        final int z = (claims / 2 / GRID_WIDTH) * SPACING;
+        position = switch (scenario) {
+            case OWNER, TRUSTED -> Position.at(x + 70, 64, z + 70, WORLD);
+            case WILDERNESS -> Position.at(x + SIZE + 50, 64, z + SIZE + 50, WORLD);
+            case CHILD -> Position.at(x + 20, 64, z + 20, WORLD);
+        };
+        operation = Operation.of(scenario == Case.OWNER ? owner : trusted, TYPE, position);
+        if (!world.isOperationAllowed(operation, plugin)) {
+            throw new IllegalStateException("Operation should be allowed in the " + scenario + " case");
+        }
+    }
+
+    @Benchmark
+    public boolean isOperationAllowed() {
+        return world.isOperationAllowed(operation, plugin);
+    }
+
+    @Benchmark
+    public Claim findClaimAt() {
+        return world.findClaimAt(position);
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+    @NotNull
+    private static <T> T create(@NotNull Class<T> type) {
+        try {
+            final Constructor<T> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + type.getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Where the checked operation takes place, and by whom
+     */
+    public enum Case {
+        /**
+         * The claim owner, in their claim
+         */
+        OWNER,
+        /**
+         * A user trusted in the claim
+         */
+        TRUSTED,
+        /**
+         * A user in the wilderness between claims
+         */
+        WILDERNESS,
+        /**
+         * A user trusted in the parent claim, in its child claim, so the trust is inherited
+         */
+        CHILD
+    }
+
+    private static final class BenchmarkUser extends OnlineUser {
+
+        private BenchmarkUser(@NotNull String username, @NotNull HuskClaims plugin) {
+            super(username, UUID.randomUUID(), plugin);
+        }
+
+        @NotNull
+        @Override
+        public Position getPosition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendPluginMessage(@NotNull String channel, byte[] message) {
+        }
+
+        @Override
+        public boolean hasPermission(@NotNull String permission) {
+            return false;
+        }
+
+        @Override
+        public boolean isSneaking() {
+            return false;
+        }
+
+        @Override
+        public Optional<Long> getNumericalPermission(@NotNull String prefix) {
+            return Optional.empty();
+        }
+
+    }
+
+}
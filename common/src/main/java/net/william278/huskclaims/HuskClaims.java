@@ -35,7 +35,9 @@ import net.william278.huskclaims.util.*;
 import org.intellij.lang.annotations.Subst;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.logging.Level;
 
 /**
@@ -62,10 +64,14 @@ public interface HuskClaims extends Task.Supplier, ConfigProvider, DatabaseProvi
             loadDatabase();
             loadClaimWorlds();
             loadClaimHighlighter();
+            loadClaimTracker();
             loadUserGroups();
             loadBroker();
+            loadReplicatedClaimWorlds();
             loadCommands();
+            loadUserList();
             loadListeners();
+            pruneInactiveClaims();
         } catch (Throwable e) {
             log(Level.SEVERE, "An error occurred whilst initializing HuskClaims", e);
             disablePlugin();
@@ -107,12 +113,39 @@ public interface HuskClaims extends Task.Supplier, ConfigProvider, DatabaseProvi
     Version getPluginVersion();
 
     /**
-     * Get a list of all {@link OnlineUser online users} on this server
+     * Get all {@link OnlineUser online users} on this server
      *
-     * @return A list of {@link OnlineUser}s
+     * @return A live view of the {@link OnlineUser}s on this server
      * @since 1.0
      */
-    List<? extends OnlineUser> getOnlineUsers();
+    @NotNull
+    Collection<? extends OnlineUser> getOnlineUsers();
+
+    /**
+     * Get an {@link OnlineUser online user} on this server by UUID
+     *
+     * @param uuid The UUID of the user
+     * @return The user, if they are online
+     * @since 1.0
+     */
+    Optional<? extends OnlineUser> getOnlineUser(@NotNull UUID uuid);
+
+    /**
+     * Get an {@link OnlineUser online user} on this server by name, case-insensitively
+     *
+     * @param name The name of the user
+     * @return The user, if they are online
+     * @since 1.0
+     */
+    Optional<? extends OnlineUser> getOnlineUser(@NotNull String name);
+
+    /**
+     * Get any {@link OnlineUser online user} on this server, for example to send a plugin message through
+     *
+     * @return An online user, if any are online
+     * @since 1.0
+     */
+    Optional<? extends OnlineUser> findAnyOnlineUser();
 
     /**
      * Log a message to the console.
@@ -31,6 +31,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import net.william278.cloplib.operation.Operation;
 import net.william278.cloplib.operation.OperationType;
+import net.william278.cloplib.operation.OperationUser;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.group.UserGroup;
 import net.william278.huskclaims.highlighter.Highlightable;
@@ -288,30 +289,95 @@ public class Claim implements Highlightable {
      */
     public boolean isOperationAllowed(@NotNull Operation operation, @NotNull ClaimWorld world,
                                       @NotNull HuskClaims plugin) {
+        // This is called for every claimed operation, so avoids Optional chains, lambdas and streams
         // If the operation is explicitly allowed, return it
-        return defaultFlags.contains(operation.getType())
-
-                // Or, if the user is the owner, return true
-                || (owner != null && operation.getUser()
-                .map(user -> owner.equals(user.getUuid()))
-                .orElse(false))
-
-                // Or, if there's a user involved in this operation, check their rights
-                || (operation.getUser()
-                .flatMap(user -> getTrustLevel(user.getUuid(), plugin)
-                        .map(level -> level.getFlags().contains(operation.getType())))
-                .orElse(false))
-
-                // Or, if the user doesn't have a trust level here, try getting it from the parent
-                || (inheritParent && getParent(world)
-                .map(parent -> parent.isOperationAllowed(operation, world, plugin))
-                .orElse(false));
+        final OperationType type = operation.getType();
+        if (defaultFlags.contains(type)) {
+            return true;
+        }
+
+        final OperationUser user = operation.getUser().orElse(null);
+        if (user != null) {
+            // Or, if the user is the owner, return true
+            final UUID uuid = user.getUuid();
+            if (owner != null && owner.equals(uuid)) {
+                return true;
+            }
+
+            // Or, check the user's rights
+            final TrustLevel level = findTrustLevel(uuid, plugin);
+            if (level != null && level.getFlags().contains(type)) {
+                return true;
+            }
+        }
+
+        // Or, try getting it from the parent
+        if (inheritParent) {
+            final Claim parent = findParent(world);
+            return parent != null && parent.isOperationAllowed(operation, world, plugin);
+        }
+        return false;
+    }
+
+    /**
+     * Get if an operation without a user, such as an explosion or fluid flow, is allowed in this claim
+     *
+     * @param type  the operation type
+     * @param world the world the claim is in
+     * @return if the operation is allowed
+     * @since 1.0
+     */
+    public boolean isOperationAllowed(@NotNull OperationType type, @NotNull ClaimWorld world) {
+        if (defaultFlags.contains(type)) {
+            return true;
+        }
+        if (inheritParent) {
+            final Claim parent = findParent(world);
+            return parent != null && parent.isOperationAllowed(type, world);
+        }
+        return false;
+    }
+
+    // Get the user's explicit trust level, without allocating in the common case of no trusted groups
+    @Nullable
+    private TrustLevel findTrustLevel(@NotNull UUID user, @NotNull HuskClaims plugin) {
+        final String userLevel = trustedUsers.get(user);
+        if (userLevel != null) {
+            return findTrustLevel(userLevel, plugin);
+        }
+        if (owner == null || trustedGroups.isEmpty()) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : trustedGroups.entrySet()) {
+            final Optional<UserGroup> group = plugin.getUserGroup(owner, entry.getKey());
+            if (group.isPresent() && group.get().isMember(user)) {
+                return findTrustLevel(entry.getValue(), plugin);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static TrustLevel findTrustLevel(@NotNull String id, @NotNull HuskClaims plugin) {
+        final List<TrustLevel> levels = plugin.getTrustLevels();
+        for (int i = 0; i < levels.size(); i++) {
+            final TrustLevel level = levels.get(i);
+            if (level.getId().equalsIgnoreCase(id)) {
+                return level;
+            }
+        }
+        return null;
     }
 
     public Optional<Claim> getParent(@NotNull ClaimWorld world) {
-        return world.getClaims().stream()
-                .filter(claim -> claim.getChildren().contains(this))
-                .findFirst();
+        return Optional.ofNullable(findParent(world));
+    }
+
+    // A child claim's parent is the top-level claim containing it, so look it up in the world's claim index
+    @Nullable
+    Claim findParent(@NotNull ClaimWorld world) {
+        final Claim candidate = world.getIndex().findClaimAt(region.getNearCorner());
+        return candidate != null && candidate != this && candidate.children.contains(this) ? candidate : null;
     }
 
     public boolean isChildClaim(@NotNull ClaimWorld world) {
@@ -382,12 +448,20 @@ public class Claim implements Highlightable {
     @Override
     @NotNull
     public Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap) {
+        return getHighlightPoints(world, showOverlap, null);
+    }
+
+    @Override
+    @NotNull
+    public Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap,
+                                                               @Nullable Region within) {
         final Optional<Claim> parent = getParent(world);
         return region.getHighlightPoints(
                 showOverlap,
                 parent.isPresent(),
                 parent.map(claim -> claim.getOwner().isEmpty())
-                        .orElse(getOwner().isEmpty())
+                        .orElse(getOwner().isEmpty()),
+                within
         );
     }
 
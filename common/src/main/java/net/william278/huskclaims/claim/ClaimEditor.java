@@ -441,8 +441,15 @@ public interface ClaimEditor {
         @Override
         @NotNull
         public Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap) {
+            return getHighlightPoints(world, showOverlap, null);
+        }
+
+        @Override
+        @NotNull
+        public Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap,
+                                                                   @Nullable Region within) {
             return isResizeSelection() && claimBeingResized != null
-                    ? claimBeingResized.getHighlightPoints(world, showOverlap)
+                    ? claimBeingResized.getHighlightPoints(world, showOverlap, within)
                     : Map.of(Region.Point.wrap(selectedPosition), HighlightType.SELECTION);
         }
     }
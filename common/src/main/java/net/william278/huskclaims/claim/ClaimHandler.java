@@ -27,6 +27,7 @@ import net.william278.cloplib.operation.OperationWorld;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.OnlineUser;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Optional;
@@ -40,15 +41,39 @@ public interface ClaimHandler extends Handler {
 
     @Override
     default boolean cancelOperation(@NotNull Operation operation) {
-        return getClaimWorld((World) operation.getOperationPosition().getWorld())
-                .map(world -> !world.isOperationAllowed(operation, getPlugin()))
-                .orElse(false);
+        // Most operations are made in the claim the user is in, so check their cached claim first
+        final Position position = (Position) operation.getOperationPosition();
+        final OperationUser user = operation.getUser().orElse(null);
+        final ClaimLocalityCache localities = getPlugin().getClaimLocalityCache();
+        if (user != null) {
+            final ClaimLocalityCache.Locality locality = localities.get(user.getUuid(), position);
+            if (locality != null) {
+                return !locality.world().isOperationAllowed(operation, locality.claim(), getPlugin());
+            }
+        }
+
+        // Otherwise, look up the claim world and claim, caching it for the user
+        final Optional<ClaimWorld> optionalWorld = getClaimWorld(position.getWorld());
+        if (optionalWorld.isEmpty()) {
+            return false;
+        }
+        final ClaimWorld world = optionalWorld.get();
+        final Claim claim = world.findClaimAt(position);
+        if (user != null) {
+            localities.put(user.getUuid(), position, world, claim);
+        }
+        return !world.isOperationAllowed(operation, claim, getPlugin());
     }
 
     @Override
     default boolean cancelMovement(@NotNull OperationUser user,
                                    @NotNull OperationPosition from, @NotNull OperationPosition to) {
-        // We don't care, just yet. Future todo: enter claim event
+        // Track the claim the user is in, then stream in highlights near them
+        final Position position = (Position) to;
+        getPlugin().getClaimTracker().onUserMove(
+                (OnlineUser) user, position, getClaimWorld(position.getWorld()).orElse(null)
+        );
+        getPlugin().getHighlighter().onUserMove((OnlineUser) user, position);
         return false;
     }
 
@@ -0,0 +1,348 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.position.BlockPosition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Grid index of the top-level claims in a {@link ClaimWorld}, for looking up claims at or near a position without
+ * scanning every claim in the world.
+ * <p>
+ * Each claim is indexed in every {@code 128x128} cell its region overlaps; claims covering more cells than
+ * {@link #MAX_CELLS_PER_CLAIM} are instead kept in a list checked by every query.
+ * <p>
+ * Reads are lock-free and allocation-free: they probe an immutable open-addressed table of cells keyed by primitive
+ * longs, which is rebuilt from the cells on each write. Writes (claims being created, resized or deleted) are rare
+ * next to lookups, which happen for every operation in a claim world.
+ *
+ * @since 1.0
+ */
+public class ClaimIndex {
+
+    private static final int CELL_SHIFT = 7;
+    private static final int MAX_CELLS_PER_CLAIM = 1024;
+    private static final Claim[] EMPTY = new Claim[0];
+
+    private final Map<Long, Claim[]> cells = Maps.newHashMap();
+    private final Map<Claim, Region> indexed = new IdentityHashMap<>();
+    private volatile CellTable table = CellTable.EMPTY;
+    private volatile Claim[] large = EMPTY;
+
+    /**
+     * Create an index of a collection of claims
+     *
+     * @param claims the top-level claims to index
+     * @return the index
+     * @since 1.0
+     */
+    @NotNull
+    public static ClaimIndex of(@NotNull Collection<Claim> claims) {
+        final ClaimIndex index = new ClaimIndex();
+        synchronized (index) {
+            claims.forEach(index::insert);
+            index.table = CellTable.of(index.cells);
+        }
+        return index;
+    }
+
+    /**
+     * Add a claim to the index
+     *
+     * @param claim the claim
+     * @since 1.0
+     */
+    public synchronized void add(@NotNull Claim claim) {
+        if (insert(claim)) {
+            table = CellTable.of(cells);
+        }
+    }
+
+    // Insert a claim into the cells, returning if the cell table needs rebuilding
+    private boolean insert(@NotNull Claim claim) {
+        final Region region = claim.getRegion();
+        if (indexed.putIfAbsent(claim, region) != null) {
+            return false;
+        }
+        if (isLarge(region)) {
+            large = append(large, claim);
+            return false;
+        }
+        forEachCell(region, key -> cells.merge(key, new Claim[]{claim}, (cell, add) -> append(cell, claim)));
+        return true;
+    }
+
+    /**
+     * Remove a claim from the index
+     *
+     * @param claim the claim
+     * @since 1.0
+     */
+    public synchronized void remove(@NotNull Claim claim) {
+        if (delete(claim)) {
+            table = CellTable.of(cells);
+        }
+    }
+
+    /**
+     * Remove claims from the index, rebuilding the cell table once
+     *
+     * @param claims the claims
+     * @since 1.0
+     */
+    public synchronized void removeAll(@NotNull Collection<Claim> claims) {
+        boolean rebuild = false;
+        for (Claim claim : claims) {
+            rebuild |= delete(claim);
+        }
+        if (rebuild) {
+            table = CellTable.of(cells);
+        }
+    }
+
+    // Delete a claim from the cells, returning if the cell table needs rebuilding
+    private boolean delete(@NotNull Claim claim) {
+        final Region region = indexed.remove(claim);
+        if (region == null) {
+            return false;
+        }
+        if (isLarge(region)) {
+            large = without(large, claim);
+            return false;
+        }
+        forEachCell(region, key -> cells.computeIfPresent(key, (k, cell) -> {
+            final Claim[] updated = without(cell, claim);
+            return updated.length == 0 ? null : updated;
+        }));
+        return true;
+    }
+
+    /**
+     * Re-index a claim after its region has changed, rebuilding the cell table once
+     *
+     * @param claim the claim
+     * @since 1.0
+     */
+    public synchronized void update(@NotNull Claim claim) {
+        final boolean deleted = delete(claim);
+        if (insert(claim) || deleted) {
+            table = CellTable.of(cells);
+        }
+    }
+
+    /**
+     * Get the claim whose region contains a position
+     *
+     * @param position the position
+     * @return the claim, if any
+     * @since 1.0
+     */
+    public Optional<Claim> getClaimAt(@NotNull BlockPosition position) {
+        return Optional.ofNullable(findClaimAt(position));
+    }
+
+    /**
+     * Get the claim whose region contains a position, without allocating
+     *
+     * @param position the position
+     * @return the claim, or {@code null} if there is none
+     * @since 1.0
+     */
+    @Nullable
+    public Claim findClaimAt(@NotNull BlockPosition position) {
+        final Claim[] cell = table.get(getKey(
+                position.getBlockX() >> CELL_SHIFT, position.getBlockZ() >> CELL_SHIFT
+        ));
+        if (cell != null) {
+            for (Claim claim : cell) {
+                if (claim.getRegion().contains(position)) {
+                    return claim;
+                }
+            }
+        }
+        for (Claim claim : large) {
+            if (claim.getRegion().contains(position)) {
+                return claim;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the claims whose regions overlap a region
+     * <p>
+     * If the region covers more cells than are populated, the populated cells are scanned instead of probing each
+     * cell the region covers.
+     *
+     * @param region the region
+     * @return the overlapping claims
+     * @since 1.0
+     */
+    @NotNull
+    public List<Claim> getClaimsWithin(@NotNull Region region) {
+        final List<Claim> claims = Lists.newArrayList();
+        final Set<Claim> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final CellTable table = this.table;
+        if (getCellCount(region) > table.size) {
+            for (Claim[] cell : table.values) {
+                if (cell != null) {
+                    addOverlapping(cell, region, seen, claims);
+                }
+            }
+        } else {
+            forEachCell(region, key -> {
+                final Claim[] cell = table.get(key);
+                if (cell != null) {
+                    addOverlapping(cell, region, seen, claims);
+                }
+            });
+        }
+        for (Claim claim : large) {
+            if (claim.getRegion().overlaps(region)) {
+                claims.add(claim);
+            }
+        }
+        return claims;
+    }
+
+    private static void addOverlapping(@NotNull Claim[] cell, @NotNull Region region, @NotNull Set<Claim> seen,
+                                       @NotNull List<Claim> claims) {
+        for (Claim claim : cell) {
+            if (claim.getRegion().overlaps(region) && seen.add(claim)) {
+                claims.add(claim);
+            }
+        }
+    }
+
+    private static boolean isLarge(@NotNull Region region) {
+        return getCellCount(region) > MAX_CELLS_PER_CLAIM;
+    }
+
+    private static long getCellCount(@NotNull Region region) {
+        final long width = (region.getFarCorner().getBlockX() >> CELL_SHIFT)
+                - (region.getNearCorner().getBlockX() >> CELL_SHIFT) + 1;
+        final long depth = (region.getFarCorner().getBlockZ() >> CELL_SHIFT)
+                - (region.getNearCorner().getBlockZ() >> CELL_SHIFT) + 1;
+        return width * depth;
+    }
+
+    private static void forEachCell(@NotNull Region region, @NotNull CellConsumer consumer) {
+        final int minX = region.getNearCorner().getBlockX() >> CELL_SHIFT;
+        final int maxX = region.getFarCorner().getBlockX() >> CELL_SHIFT;
+        final int minZ = region.getNearCorner().getBlockZ() >> CELL_SHIFT;
+        final int maxZ = region.getFarCorner().getBlockZ() >> CELL_SHIFT;
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                consumer.accept(getKey(x, z));
+            }
+        }
+    }
+
+    private static long getKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    @NotNull
+    private static Claim[] append(@NotNull Claim[] claims, @NotNull Claim claim) {
+        final Claim[] updated = Arrays.copyOf(claims, claims.length + 1);
+        updated[claims.length] = claim;
+        return updated;
+    }
+
+    @NotNull
+    private static Claim[] without(@NotNull Claim[] claims, @NotNull Claim claim) {
+        for (int i = 0; i < claims.length; i++) {
+            if (claims[i] == claim) {
+                final Claim[] updated = new Claim[claims.length - 1];
+                System.arraycopy(claims, 0, updated, 0, i);
+                System.arraycopy(claims, i + 1, updated, i, claims.length - i - 1);
+                return updated;
+            }
+        }
+        return claims;
+    }
+
+    // Immutable open-addressed hash table of cells, keyed by packed cell coordinates
+    private static final class CellTable {
+
+        private static final CellTable EMPTY = new CellTable(new long[1], new Claim[1][], 0);
+
+        private final long[] keys;
+        private final Claim[][] values;
+        private final int mask;
+        private final int size;
+
+        private CellTable(long[] keys, Claim[][] values, int size) {
+            this.keys = keys;
+            this.values = values;
+            this.mask = keys.length - 1;
+            this.size = size;
+        }
+
+        @NotNull
+        private static CellTable of(@NotNull Map<Long, Claim[]> cells) {
+            if (cells.isEmpty()) {
+                return EMPTY;
+            }
+            final int capacity = Integer.highestOneBit(Math.max(2, cells.size() * 2 - 1)) << 1;
+            final CellTable table = new CellTable(new long[capacity], new Claim[capacity][], cells.size());
+            cells.forEach((key, claims) -> {
+                int slot = hash(key) & table.mask;
+                while (table.values[slot] != null) {
+                    slot = (slot + 1) & table.mask;
+                }
+                table.keys[slot] = key;
+                table.values[slot] = claims;
+            });
+            return table;
+        }
+
+        @Nullable
+        private Claim[] get(long key) {
+            int slot = hash(key) & mask;
+            Claim[] claims;
+            while ((claims = values[slot]) != null) {
+                if (keys[slot] == key) {
+                    return claims;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static int hash(long key) {
+            final long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface CellConsumer {
+        void accept(long key);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.position.Position;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-user cache of the claim each user is in, so that the operations a user makes in the claim they are standing in
+ * can be checked without looking up the claim world and claim index.
+ * <p>
+ * Cached claims are validated with a bounds check against the claim's region, and invalidated when the claims in their
+ * {@link ClaimWorld} are {@link ClaimWorld#getVersion() modified}.
+ *
+ * @since 1.0
+ */
+public class ClaimLocalityCache {
+
+    private final ConcurrentMap<UUID, Locality> localities = Maps.newConcurrentMap();
+
+    /**
+     * Get the cached claim a user is in, if it contains a position
+     *
+     * @param user     the user's UUID
+     * @param position the position
+     * @return the cached locality, or {@code null} if the position is not in the user's cached claim
+     * @since 1.0
+     */
+    @Nullable
+    public Locality get(@NotNull UUID user, @NotNull Position position) {
+        final Locality locality = localities.get(user);
+        return locality != null && locality.contains(position) ? locality : null;
+    }
+
+    /**
+     * Cache the claim a user is in
+     *
+     * @param user     the user's UUID
+     * @param position the position the claim was looked up at
+     * @param world    the claim world the position is in
+     * @param claim    the claim at the position, or {@code null} if it is in the wilderness
+     * @since 1.0
+     */
+    public void put(@NotNull UUID user, @NotNull Position position, @NotNull ClaimWorld world, @Nullable Claim claim) {
+        if (claim == null) {
+            localities.remove(user);
+            return;
+        }
+        localities.put(user, new Locality(
+                position.getWorld().getName(), world, claim, claim.getRegion(), world.getVersion()
+        ));
+    }
+
+    /**
+     * Remove a user's cached claim
+     *
+     * @param user the user's UUID
+     * @since 1.0
+     */
+    public void invalidate(@NotNull UUID user) {
+        localities.remove(user);
+    }
+
+    public void clear() {
+        localities.clear();
+    }
+
+    /**
+     * A cached claim, with the region and claim world version it was cached at
+     *
+     * @param worldName the name of the world the claim is in
+     * @param world     the claim world the claim is in
+     * @param claim     the innermost claim the user is in
+     * @param region    the claim's region when it was cached
+     * @param version   the claim world version when the claim was cached
+     * @since 1.0
+     */
+    public record Locality(@NotNull String worldName, @NotNull ClaimWorld world, @NotNull Claim claim,
+                           @NotNull Region region, int version) {
+
+        private boolean contains(@NotNull Position position) {
+            if (version != world.getVersion() || !region.contains(position)
+                    || !worldName.equals(position.getWorld().getName())) {
+                return false;
+            }
+
+            // A cached parent claim does not cover positions in its children
+            for (Claim child : claim.getChildren()) {
+                if (child.getRegion().contains(position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
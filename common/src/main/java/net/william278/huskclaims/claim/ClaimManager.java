@@ -20,10 +20,19 @@
 package net.william278.huskclaims.claim;
 
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.william278.cloplib.operation.OperationType;
+import net.william278.huskclaims.config.Settings;
 import net.william278.huskclaims.database.Database;
 import net.william278.huskclaims.highlighter.BlockHighlighter;
 import net.william278.huskclaims.highlighter.Highlighter;
+import net.william278.huskclaims.network.Broker;
+import net.william278.huskclaims.network.ClaimDelta;
+import net.william278.huskclaims.network.ClaimDeltaVersions;
+import net.william278.huskclaims.network.Message;
+import net.william278.huskclaims.network.Payload;
 import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.ServerWorld;
 import net.william278.huskclaims.position.World;
 import net.william278.huskclaims.user.OnlineUser;
 import net.william278.huskclaims.user.User;
@@ -33,10 +42,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 /**
@@ -84,6 +91,28 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
         return getClaimWorld(position.getWorld()).flatMap(world -> world.getClaimAt(position));
     }
 
+    /**
+     * Check an operation without a user, such as an explosion or piston, at many positions in a world at once
+     *
+     * @param world     The world the positions are in
+     * @param type      The operation type
+     * @param positions The positions of the operation
+     * @return a bitset with the indexes of positions where the operation is allowed set
+     * @see ClaimWorld#getAllowedOperations(OperationType, List)
+     * @since 1.0
+     */
+    @NotNull
+    default BitSet getAllowedOperations(@NotNull World world, @NotNull OperationType type,
+                                        @NotNull List<? extends Position> positions) {
+        final Optional<ClaimWorld> claimWorld = getClaimWorld(world);
+        if (claimWorld.isEmpty()) {
+            final BitSet allowed = new BitSet(positions.size());
+            allowed.set(0, positions.size());
+            return allowed;
+        }
+        return claimWorld.get().getAllowedOperations(type, positions);
+    }
+
     /**
      * Create a claim and update the owner's claim block count
      *
@@ -109,8 +138,9 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
         final Claim claim = owner != null
                 ? Claim.create(owner, region, getPlugin())
                 : Claim.createAdminClaim(region, getPlugin());
-        world.getClaims().add(claim);
+        world.addClaim(claim);
         getDatabase().updateClaimWorld(world);
+        publishClaimDelta(Message.MessageType.CLAIM_CREATED, world, List.of(), List.of(claim));
 
         // Adjust the owner's claim block count
         if (owner != null) {
@@ -158,11 +188,13 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
         if (!claim.getChildren().stream().map(Claim::getRegion).allMatch(newRegion::fullyEncloses)) {
             throw new IllegalArgumentException("Region does not fully enclose its children");
         }
-        final int oldSurfaceArea = claim.getRegion().getSurfaceArea();
+        final Region oldRegion = claim.getRegion();
+        final int oldSurfaceArea = oldRegion.getSurfaceArea();
 
         // Update the claim
-        claim.setRegion(newRegion);
+        world.setClaimRegion(claim, newRegion);
         getDatabase().updateClaimWorld(world);
+        publishClaimDelta(Message.MessageType.CLAIM_RESIZED, world, List.of(oldRegion), List.of(claim));
 
         // Adjust the owner's claim block count
         claim.getOwner().flatMap(world::getUser).ifPresent(user -> getPlugin().editClaimBlocks(
@@ -178,8 +210,9 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
 
         // Delete the claim
         final long surfaceArea = claim.getRegion().getSurfaceArea();
-        claimWorld.getClaims().remove(claim);
+        claimWorld.removeClaim(claim);
         getDatabase().updateClaimWorld(claimWorld);
+        publishClaimDelta(Message.MessageType.CLAIM_DELETED, claimWorld, List.of(claim.getRegion()), List.of());
 
         // Adjust the owner's claim block count
         claim.getOwner().flatMap(claimWorld::getUser).ifPresent(user -> getPlugin().editClaimBlocks(
@@ -187,6 +220,39 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
         );
     }
 
+    /**
+     * Delete a batch of claims from a claim world, saving the world once.
+     * <p>
+     * Unlike {@link #deleteClaim(ClaimWorld, Claim)}, this does not refund claim blocks to claim owners.
+     *
+     * @param claimWorld The claim world the claims are in
+     * @param claims     The (top-level) claims to delete
+     * @since 1.0
+     */
+    @Blocking
+    default void deleteClaims(@NotNull ClaimWorld claimWorld, @NotNull Collection<Claim> claims) {
+        if (claims.isEmpty()) {
+            return;
+        }
+        claimWorld.removeClaims(claims);
+        getDatabase().updateClaimWorld(claimWorld);
+        publishClaimDelta(Message.MessageType.CLAIM_DELETED, claimWorld,
+                claims.stream().map(Claim::getRegion).toList(), List.of());
+    }
+
+    /**
+     * Start pruning the claims of inactive users, if enabled in the config
+     *
+     * @since 1.0
+     */
+    default void pruneInactiveClaims() {
+        final Settings.ClaimSettings.InactivityPruningSettings settings = getPlugin().getSettings()
+                .getClaims().getInactivityPruning();
+        if (settings.isEnabled()) {
+            new InactiveClaimPruner(getPlugin(), settings).start();
+        }
+    }
+
     /**
      * Create a child claim over a region
      *
@@ -207,7 +273,7 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
 
         // Create and add child claim
         final Claim child = parent.createAndAddChild(region, world, getPlugin());
-        getDatabase().updateClaimWorld(world);
+        updateClaim(world, parent);
         return child;
     }
 
@@ -216,7 +282,7 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
         if (!parent.getChildren().remove(child)) {
             throw new IllegalArgumentException("Parent does not contain child");
         }
-        getDatabase().updateClaimWorld(world);
+        updateClaim(world, parent);
     }
 
     @Blocking
@@ -240,7 +306,148 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
 
         // Update the claim
         claim.setRegion(newRegion);
+        updateClaim(world, parent);
+    }
+
+    /**
+     * Save a claim world after a claim's trustees, flags or children have been changed, and notify other servers
+     *
+     * @param world The claim world the claim is in
+     * @param claim The claim that was changed. If this is a child claim, its parent is sent to other servers
+     * @since 1.0
+     */
+    @Blocking
+    default void updateClaim(@NotNull ClaimWorld world, @NotNull Claim claim) {
+        final Claim parent = claim.getParent(world).orElse(claim);
+        world.markModified();
         getDatabase().updateClaimWorld(world);
+        publishClaimDelta(Message.MessageType.CLAIM_UPDATED, world, List.of(parent.getRegion()), List.of(parent));
+    }
+
+    /**
+     * Get the replicated claim worlds of other servers on the network, kept up-to-date by broker messages
+     *
+     * @return map of other servers' worlds to their claim worlds
+     * @since 1.0
+     */
+    @NotNull
+    ConcurrentMap<ServerWorld, ClaimWorld> getReplicatedClaimWorlds();
+
+    /**
+     * Get the claim worlds of this server and the replicated claim worlds of other servers
+     *
+     * @return map of server worlds to claim worlds
+     * @since 1.0
+     */
+    @NotNull
+    default Map<ServerWorld, ClaimWorld> getAllClaimWorlds() {
+        final Map<ServerWorld, ClaimWorld> worlds = Maps.newHashMap(getReplicatedClaimWorlds());
+        for (World world : getPlugin().getWorlds()) {
+            getClaimWorld(world).ifPresent(claimWorld -> worlds.put(
+                    new ServerWorld(getPlugin().getServerName(), world), claimWorld
+            ));
+        }
+        return worlds;
+    }
+
+    /**
+     * Load the claim worlds of other servers from the database, if cross-server mode is enabled.
+     * <p>
+     * After this initial load, the replicated claim worlds are updated by {@link ClaimDelta} messages.
+     *
+     * @since 1.0
+     */
+    @Blocking
+    default void loadReplicatedClaimWorlds() {
+        if (getPlugin().getBroker().isEmpty()) {
+            return;
+        }
+        getDatabase().getAllClaimWorlds().forEach((serverWorld, claimWorld) -> {
+            if (!serverWorld.server().equals(getPlugin().getServerName())) {
+                getReplicatedClaimWorlds().put(serverWorld, claimWorld);
+            }
+        });
+    }
+
+    /**
+     * Reload another server's claim world from the database, after replicating it has missed changes
+     *
+     * @param world the server world to reload
+     * @throws IllegalStateException if the claim world could not be loaded
+     * @since 1.0
+     */
+    @Blocking
+    default void loadReplicatedClaimWorld(@NotNull ServerWorld world) throws IllegalStateException {
+        getDatabase().getClaimWorlds(world.server()).entrySet().stream()
+                .filter(entry -> entry.getKey().getName().equals(world.world().getName()))
+                .map(Map.Entry::getValue).findFirst()
+                .ifPresentOrElse(
+                        claimWorld -> getReplicatedClaimWorlds().put(world, claimWorld),
+                        () -> getReplicatedClaimWorlds().remove(world)
+                );
+    }
+
+    /**
+     * Apply a change to another server's claims to the replicated claim worlds.
+     * <p>
+     * Applying a change is idempotent: claims being added replace any claim with the same region.
+     *
+     * @param server the name of the server the change was made on
+     * @param delta  the change
+     * @since 1.0
+     */
+    default void applyClaimDelta(@NotNull String server, @NotNull ClaimDelta delta) {
+        final ClaimWorld claimWorld = getReplicatedClaimWorlds().computeIfAbsent(
+                new ServerWorld(server, delta.world()), w -> ClaimWorld.create(getPlugin())
+        );
+        claimWorld.getUserCache().putAll(delta.users());
+        final List<Claim> added = delta.claims().stream().map(getPlugin()::getClaimFromJson).toList();
+        final Set<Region> removed = Sets.newHashSet(delta.removed());
+        added.forEach(claim -> removed.add(claim.getRegion()));
+        if (!removed.isEmpty()) {
+            claimWorld.removeClaimsIf(claim -> removed.contains(claim.getRegion()));
+        }
+        added.forEach(claimWorld::addClaim);
+    }
+
+    // Send a change to this server's claims to other servers
+    private void publishClaimDelta(@NotNull Message.MessageType type, @NotNull ClaimWorld claimWorld,
+                                   @NotNull List<Region> removed, @NotNull List<Claim> claims) {
+        final Optional<Broker> broker = getPlugin().getBroker();
+        if (broker.isEmpty()) {
+            return;
+        }
+
+        final Optional<World> world = getClaimWorlds().entrySet().stream()
+                .filter(entry -> entry.getValue() == claimWorld).map(Map.Entry::getKey).findFirst()
+                .flatMap(name -> getPlugin().getWorlds().stream().filter(w -> w.getName().equals(name)).findFirst());
+        if (world.isEmpty()) {
+            return;
+        }
+
+        final Map<UUID, String> users = Maps.newHashMap();
+        claims.forEach(claim -> addClaimUsers(claim, claimWorld, users));
+        final List<String> json = claims.stream().map(getPlugin().getGson()::toJson).toList();
+
+        // Version and send deltas together, so that they are sent in version order
+        final ClaimDeltaVersions versions = broker.get().getClaimDeltaVersions();
+        synchronized (versions) {
+            broker.get().sendFromServer(Message.builder()
+                    .type(type)
+                    .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+                    .payload(Payload.claimDelta(new ClaimDelta(
+                            world.get(), removed, json, users, versions.next(world.get().getName())
+                    )))
+                    .build());
+        }
+    }
+
+    // Add the names of a claim's owner and trusted users, and those of its children, to a map
+    private void addClaimUsers(@NotNull Claim claim, @NotNull ClaimWorld claimWorld, @NotNull Map<UUID, String> users) {
+        claim.getOwner().flatMap(claimWorld::getUser).ifPresent(user -> users.put(user.getUuid(), user.getName()));
+        claim.getTrustedUsers().keySet().forEach(uuid -> claimWorld.getUser(uuid)
+                .ifPresent(user -> users.put(uuid, user.getName())));
+        claim.getChildren().forEach(child -> addClaimUsers(child, claimWorld, users));
     }
 
 
@@ -269,6 +476,7 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
             }
         }
         setClaimWorlds(loadedWorlds);
+        getClaimLocalityCache().clear();
 
         final Collection<ClaimWorld> claimWorlds = getClaimWorlds().values();
         final int claimCount = claimWorlds.stream().mapToInt(ClaimWorld::getClaimCount).sum();
@@ -314,6 +522,41 @@ public interface ClaimManager extends ClaimHandler, ClaimEditor {
      */
     void setHighlighter(@NotNull Highlighter highlighter);
 
+    /**
+     * Load the claim tracker
+     *
+     * @since 1.0
+     */
+    default void loadClaimTracker() {
+        setClaimTracker(new ClaimTracker(getPlugin()));
+    }
+
+    /**
+     * Get the tracker of the claims users are in as they move
+     *
+     * @return the claim tracker
+     * @since 1.0
+     */
+    @NotNull
+    ClaimTracker getClaimTracker();
+
+    /**
+     * Set the tracker of the claims users are in as they move
+     *
+     * @param claimTracker The claim tracker to set
+     * @since 1.0
+     */
+    void setClaimTracker(@NotNull ClaimTracker claimTracker);
+
+    /**
+     * Get the cache of the claims users are in
+     *
+     * @return the claim locality cache
+     * @since 1.0
+     */
+    @NotNull
+    ClaimLocalityCache getClaimLocalityCache();
+
     @NotNull
     Database getDatabase();
 
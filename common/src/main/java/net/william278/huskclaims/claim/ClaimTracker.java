@@ -0,0 +1,404 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Tracks the claim each online user is in as they move, firing {@link Listener} callbacks when they cross a claim
+ * boundary.
+ * <p>
+ * Moves within the same block column are ignored, and moves within the bounds of the user's
+ * {@link ClaimLocalityCache cached claim} do not look up the claim, so most moves cost a couple of integer comparisons.
+ * When the claims in a user's claim world are modified, their claim is looked up again on the next tick, so users
+ * standing in a claim that is deleted or resized away from them are exited from it.
+ * <p>
+ * The time spent tracking moves is sampled every server tick, so that the cost with many users online can be
+ * monitored; a summary is logged on shutdown and every
+ * {@link net.william278.huskclaims.config.Settings.ClaimSettings#getTrackerMetricsLogMinutes() few minutes}.
+ *
+ * @since 1.0
+ */
+public class ClaimTracker {
+
+    private static final long TICKS_PER_MINUTE = 20 * 60;
+
+    private final HuskClaims plugin;
+    private final ConcurrentMap<UUID, Tracked> tracked = Maps.newConcurrentMap();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder tickMoves = new LongAdder();
+    private final LongAdder tickNanos = new LongAdder();
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong resolves = new AtomicLong();
+    private final AtomicLong crossings = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private volatile long lastTickMoves;
+    private volatile long lastTickNanos;
+    private volatile long peakTickNanos;
+    private final long logIntervalTicks;
+    private volatile boolean closed;
+
+    public ClaimTracker(@NotNull HuskClaims plugin) {
+        this.plugin = plugin;
+        this.logIntervalTicks = plugin.getSettings().getClaims().getTrackerMetricsLogMinutes() * TICKS_PER_MINUTE;
+        plugin.runSyncDelayed(this::tick, 1);
+    }
+
+    /**
+     * Register a listener for users entering and exiting claims
+     *
+     * @param listener the listener
+     * @since 1.0
+     */
+    public void addListener(@NotNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregister a listener for users entering and exiting claims
+     *
+     * @param listener the listener
+     * @since 1.0
+     */
+    public void removeListener(@NotNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the innermost claim a user is in, as of their last tracked move
+     *
+     * @param user the user's UUID
+     * @return the claim, or {@code null} if the user is in the wilderness or has not been tracked
+     * @since 1.0
+     */
+    @Nullable
+    public Claim getCurrentClaim(@NotNull UUID user) {
+        final Tracked state = tracked.get(user);
+        return state != null ? state.claim : null;
+    }
+
+    /**
+     * Track a user's move, firing enter and exit callbacks if they have crossed a claim boundary
+     *
+     * @param user     the user who moved
+     * @param position the position the user moved to
+     * @param world    the claim world the user is in, or {@code null} if the world is unclaimable
+     * @since 1.0
+     */
+    public void onUserMove(@NotNull OnlineUser user, @NotNull Position position, @Nullable ClaimWorld world) {
+        final long started = System.nanoTime();
+        moves.incrementAndGet();
+        tickMoves.increment();
+        try {
+            // Ignore moves within the same block column
+            final Tracked state = tracked.computeIfAbsent(user.getUuid(), uuid -> new Tracked());
+            final int x = position.getBlockX();
+            final int z = position.getBlockZ();
+            final String worldName = position.getWorld().getName();
+            if (state.x == x && state.z == z && worldName.equals(state.worldName)) {
+                return;
+            }
+            state.x = x;
+            state.z = z;
+            state.worldName = worldName;
+
+            // Re-resolve the claim only if the user has left the bounds of their cached claim
+            final ClaimLocalityCache localities = plugin.getClaimLocalityCache();
+            final Claim claim;
+            if (world == null) {
+                localities.invalidate(user.getUuid());
+                claim = null;
+            } else {
+                final ClaimLocalityCache.Locality locality = localities.get(user.getUuid(), position);
+                if (locality != null) {
+                    claim = locality.claim();
+                } else {
+                    resolves.incrementAndGet();
+                    claim = world.findClaimAt(position);
+                    localities.put(user.getUuid(), position, world, claim);
+                }
+            }
+            state.user = user;
+            state.position = position;
+            state.version = world != null ? world.getVersion() : 0;
+            move(user, state, world, claim);
+        } finally {
+            final long elapsed = System.nanoTime() - started;
+            totalNanos.addAndGet(elapsed);
+            tickNanos.add(elapsed);
+        }
+    }
+
+    /**
+     * Stop tracking a user, firing an exit callback if they were in a claim
+     *
+     * @param user the user to stop tracking
+     * @since 1.0
+     */
+    public void untrack(@NotNull OnlineUser user) {
+        final Tracked state = tracked.remove(user.getUuid());
+        if (state != null) {
+            move(user, state, state.world, null);
+        }
+    }
+
+    // Update a user's current claim, firing callbacks if it has changed
+    private void move(@NotNull OnlineUser user, @NotNull Tracked state, @Nullable ClaimWorld world,
+                      @Nullable Claim claim) {
+        final Claim previous = state.claim;
+        final ClaimWorld previousWorld = state.world;
+        state.world = world;
+        state.claim = claim;
+        if (isSameClaim(previous, claim)) {
+            return;
+        }
+        crossings.incrementAndGet();
+        for (Listener listener : listeners) {
+            try {
+                if (previous != null) {
+                    listener.onClaimExit(user, previousWorld, previous);
+                }
+                if (claim != null) {
+                    listener.onClaimEnter(user, world, claim);
+                }
+            } catch (Throwable e) {
+                plugin.log(Level.WARNING, "An error occurred in a claim enter/exit listener", e);
+            }
+        }
+    }
+
+    // Claims have no ID, so a claim is identified by its owner and region, as claim deltas do
+    private static boolean isSameClaim(@Nullable Claim a, @Nullable Claim b) {
+        if (a == b) {
+            return true;
+        }
+        return a != null && b != null && Objects.equals(a.getOwner(), b.getOwner())
+                && a.getRegion().equals(b.getRegion());
+    }
+
+    // Called every server tick, on the main thread
+    private void tick() {
+        if (closed) {
+            return;
+        }
+        recheckModified();
+
+        // Roll the per-tick metrics over
+        final long nanos = tickNanos.sumThenReset();
+        lastTickMoves = tickMoves.sumThenReset();
+        lastTickNanos = nanos;
+        if (nanos > peakTickNanos) {
+            peakTickNanos = nanos;
+        }
+        final long tick = ticks.incrementAndGet();
+        if (logIntervalTicks > 0 && tick % logIntervalTicks == 0) {
+            logMetrics();
+        }
+        plugin.runSyncDelayed(this::tick, 1);
+    }
+
+    // Look up the claim again for users whose claim world has been modified since they last moved
+    private void recheckModified() {
+        final ClaimLocalityCache localities = plugin.getClaimLocalityCache();
+        tracked.forEach((uuid, state) -> {
+            final ClaimWorld world = state.world;
+            if (world == null || state.user == null || state.position == null
+                    || state.version == world.getVersion()) {
+                return;
+            }
+            resolves.incrementAndGet();
+            state.version = world.getVersion();
+            final Claim claim = world.findClaimAt(state.position);
+            localities.put(uuid, state.position, world, claim);
+            move(state.user, state, world, claim);
+        });
+    }
+
+    /**
+     * Get a one-line summary of the tracking metrics
+     *
+     * @return the metrics summary
+     * @since 1.0
+     */
+    @NotNull
+    public String getMetricsSummary() {
+        return String.format("Claim tracking: %d moves (%d claim lookups, %d boundary crossings) over %d ticks; "
+                        + "%.3fms/tick average, %.3fms last tick, %.3fms peak",
+                getMoveCount(), getResolveCount(), getCrossingCount(), ticks.get(),
+                getAverageTickNanos() / 1e6, getLastTickNanos() / 1e6, getPeakTickNanos() / 1e6);
+    }
+
+    private void logMetrics() {
+        plugin.log(Level.INFO, getMetricsSummary());
+    }
+
+    /**
+     * Get the number of moves tracked since startup
+     *
+     * @return the move count
+     * @since 1.0
+     */
+    public long getMoveCount() {
+        return moves.get();
+    }
+
+    /**
+     * Get the number of tracked moves that required looking up the claim at the user's position
+     *
+     * @return the claim lookup count
+     * @since 1.0
+     */
+    public long getResolveCount() {
+        return resolves.get();
+    }
+
+    /**
+     * Get the number of times users have crossed a claim boundary
+     *
+     * @return the boundary crossing count
+     * @since 1.0
+     */
+    public long getCrossingCount() {
+        return crossings.get();
+    }
+
+    /**
+     * Get the number of moves tracked in the last tick
+     *
+     * @return the last tick's move count
+     * @since 1.0
+     */
+    public long getLastTickMoves() {
+        return lastTickMoves;
+    }
+
+    /**
+     * Get the time spent tracking moves in the last tick
+     *
+     * @return the last tick's tracking time, in nanoseconds
+     * @since 1.0
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Get the most time spent tracking moves in a single tick since startup
+     *
+     * @return the peak tick tracking time, in nanoseconds
+     * @since 1.0
+     */
+    public long getPeakTickNanos() {
+        return peakTickNanos;
+    }
+
+    /**
+     * Get the average time spent tracking moves per tick since startup
+     *
+     * @return the average tick tracking time, in nanoseconds
+     * @since 1.0
+     */
+    public double getAverageTickNanos() {
+        final long elapsed = ticks.get();
+        return elapsed == 0 ? 0 : (double) totalNanos.get() / elapsed;
+    }
+
+    /**
+     * Stop tracking all users and log the tracking metrics
+     *
+     * @since 1.0
+     */
+    public void close() {
+        closed = true;
+        logMetrics();
+        tracked.clear();
+        listeners.clear();
+    }
+
+    /**
+     * Listener for users entering and exiting claims.
+     * <p>
+     * Callbacks are fired when the innermost claim a user is in changes, so moving from a parent claim into one of
+     * its children exits the parent and enters the child. They are fired on the thread the user moved on, or on the
+     * main thread if the claims the user is in were modified.
+     *
+     * @since 1.0
+     */
+    public interface Listener {
+
+        /**
+         * Called when a user enters a claim
+         *
+         * @param user  the user
+         * @param world the claim world the claim is in
+         * @param claim the claim entered
+         * @since 1.0
+         */
+        default void onClaimEnter(@NotNull OnlineUser user, @NotNull ClaimWorld world, @NotNull Claim claim) {
+        }
+
+        /**
+         * Called when a user exits a claim, including when they quit while in it, or it is deleted or resized so
+         * they are no longer in it
+         *
+         * @param user  the user
+         * @param world the claim world the claim is in
+         * @param claim the claim exited
+         * @since 1.0
+         */
+        default void onClaimExit(@NotNull OnlineUser user, @NotNull ClaimWorld world, @NotNull Claim claim) {
+        }
+
+    }
+
+    // A tracked user's last position and claim, and the claim world version the claim was looked up at
+    private static final class Tracked {
+        @Nullable
+        private OnlineUser user;
+        @Nullable
+        private Position position;
+        private int version;
+        @Nullable
+        private String worldName;
+        private int x;
+        private int z;
+        @Nullable
+        private ClaimWorld world;
+        @Nullable
+        private Claim claim;
+    }
+
+}
@@ -29,20 +29,27 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import net.william278.cloplib.operation.Operation;
 import net.william278.cloplib.operation.OperationType;
+import net.william278.cloplib.operation.OperationUser;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.position.BlockPosition;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.user.OnlineUser;
-import net.william278.huskclaims.user.Preferences;
+import net.william278.huskclaims.user.SavedUser;
 import net.william278.huskclaims.user.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 @Getter
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -57,6 +64,10 @@ public class ClaimWorld {
     @Expose
     @SerializedName("wilderness_flags")
     private List<OperationType> wildernessFlags;
+    @Getter(AccessLevel.NONE)
+    private transient volatile ClaimIndex index;
+    @Getter(AccessLevel.NONE)
+    private final transient AtomicInteger version = new AtomicInteger();
 
     private ClaimWorld(@NotNull HuskClaims plugin) {
         this.id = 0;
@@ -81,24 +92,168 @@ public class ClaimWorld {
                 .orElse(uuid == null)).toList();
     }
 
+    /**
+     * Build an index of the claims in this world by owner, in a single pass over the claims.
+     * <p>
+     * Admin claims are not included in the index.
+     *
+     * @return map of owner UUIDs to the list of claims they own
+     * @since 1.0
+     */
+    @NotNull
+    public Map<UUID, List<Claim>> getClaimsByOwner() {
+        final Map<UUID, List<Claim>> owners = Maps.newHashMap();
+        for (Claim claim : claims) {
+            claim.getOwner().ifPresent(owner -> owners.computeIfAbsent(owner, o -> Lists.newArrayList()).add(claim));
+        }
+        return owners;
+    }
+
     @NotNull
     public List<Claim> getAdminClaims() {
         return getClaimsByUser(null);
     }
 
+    /**
+     * Get the spatial index of the top-level claims in this world, building it if needed
+     *
+     * @return the claim index
+     * @since 1.0
+     */
+    @NotNull
+    public ClaimIndex getIndex() {
+        ClaimIndex index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    this.index = index = ClaimIndex.of(claims);
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Get the modification version of the claims in this world, which changes whenever claims are added, removed,
+     * resized or have their children changed
+     *
+     * @return the claim world version
+     * @since 1.0
+     */
+    public int getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Mark the claims in this world as modified, invalidating {@link ClaimLocalityCache cached claim lookups}
+     *
+     * @since 1.0
+     */
+    public void markModified() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Add a top-level claim to this world
+     *
+     * @param claim the claim to add
+     * @since 1.0
+     */
+    public void addClaim(@NotNull Claim claim) {
+        claims.add(claim);
+        getIndex().add(claim);
+        markModified();
+    }
+
+    /**
+     * Remove top-level claims matching a filter from this world
+     *
+     * @param filter the filter
+     * @since 1.0
+     */
+    public void removeClaimsIf(@NotNull Predicate<Claim> filter) {
+        final List<Claim> removed = Lists.newArrayList();
+        if (claims.removeIf(claim -> {
+            if (filter.test(claim)) {
+                removed.add(claim);
+                return true;
+            }
+            return false;
+        })) {
+            getIndex().removeAll(removed);
+            markModified();
+        }
+    }
+
+    /**
+     * Remove a top-level claim from this world
+     *
+     * @param claim the claim to remove
+     * @since 1.0
+     */
+    public void removeClaim(@NotNull Claim claim) {
+        removeClaimsIf(claim::equals);
+    }
+
+    /**
+     * Remove top-level claims from this world
+     *
+     * @param claims the claims to remove
+     * @since 1.0
+     */
+    public void removeClaims(@NotNull Collection<Claim> claims) {
+        removeClaimsIf(claims::contains);
+    }
+
+    /**
+     * Set the region of a top-level claim in this world, re-indexing it
+     *
+     * @param claim  the claim to resize
+     * @param region the claim's new region
+     * @since 1.0
+     */
+    public void setClaimRegion(@NotNull Claim claim, @NotNull Region region) {
+        final ClaimIndex index = getIndex();
+        synchronized (index) {
+            claim.setRegion(region);
+            index.update(claim);
+        }
+        markModified();
+    }
+
     public Optional<Claim> getParentClaimAt(@NotNull BlockPosition position) {
-        return getClaims().stream().filter(claim -> claim.getRegion().contains(position)).findFirst();
+        return getIndex().getClaimAt(position);
     }
 
     public Optional<Claim> getClaimAt(@NotNull BlockPosition position) {
-        return getParentClaimAt(position).map(parent -> parent.getChildren().stream()
-                .filter(c -> c.getRegion().contains(position)).findFirst()
-                .orElse(parent));
+        return Optional.ofNullable(findClaimAt(position));
+    }
+
+    /**
+     * Get the innermost claim at a position without allocating
+     *
+     * @param position the position
+     * @return the claim, or {@code null} if the position is in the wilderness
+     * @since 1.0
+     */
+    @Nullable
+    public Claim findClaimAt(@NotNull BlockPosition position) {
+        final Claim parent = getIndex().findClaimAt(position);
+        if (parent == null || parent.getChildren().isEmpty()) {
+            return parent;
+        }
+        for (Claim child : parent.getChildren()) {
+            if (child.getRegion().contains(position)) {
+                return child;
+            }
+        }
+        return parent;
     }
 
     @NotNull
     public List<Claim> getParentClaimsWithin(@NotNull Region region) {
-        return getClaims().stream().filter(claim -> claim.getRegion().overlaps(region)).toList();
+        return getIndex().getClaimsWithin(region);
     }
 
     public void cacheUser(@NotNull User user) {
@@ -147,14 +302,95 @@ public class ClaimWorld {
     }
 
     public boolean isOperationAllowed(@NotNull Operation operation, @NotNull HuskClaims plugin) {
-        return getClaimAt((Position) operation.getOperationPosition())
-                .map(claim -> isOperationAllowedInClaim(operation, claim, plugin))
-                .orElse(isOperationAllowedInWilderness(operation, plugin));
+        return isOperationAllowed(operation, findClaimAt((Position) operation.getOperationPosition()), plugin);
+    }
+
+    /**
+     * Get if an operation is allowed, given the claim it takes place in
+     *
+     * @param operation the operation
+     * @param claim     the innermost claim at the operation position, or {@code null} if it is in the wilderness
+     * @param plugin    the plugin instance
+     * @return if the operation is allowed
+     * @since 1.0
+     */
+    public boolean isOperationAllowed(@NotNull Operation operation, @Nullable Claim claim,
+                                      @NotNull HuskClaims plugin) {
+        if (claim != null) {
+            return isOperationAllowedInClaim(operation, claim, plugin);
+        }
+        return isOperationAllowedInWilderness(operation, plugin);
+    }
+
+    /**
+     * Check an operation without a user, such as an explosion, piston or fluid flow, at many positions at once.
+     * <p>
+     * Positions are grouped by the claims overlapping their bounding box, so each claim's rules are evaluated once
+     * rather than once per position.
+     *
+     * @param type      the operation type
+     * @param positions the positions of the operation
+     * @return a bitset with the indexes of positions where the operation is allowed set
+     * @since 1.0
+     */
+    @NotNull
+    public BitSet getAllowedOperations(@NotNull OperationType type, @NotNull List<? extends BlockPosition> positions) {
+        final BitSet allowed = new BitSet(positions.size());
+        if (positions.isEmpty()) {
+            return allowed;
+        }
+
+        // Find the claims overlapping the bounding box of the positions
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (BlockPosition position : positions) {
+            minX = Math.min(minX, position.getBlockX());
+            minZ = Math.min(minZ, position.getBlockZ());
+            maxX = Math.max(maxX, position.getBlockX());
+            maxZ = Math.max(maxZ, position.getBlockZ());
+        }
+        final List<Claim> parents = getIndex().getClaimsWithin(
+                Region.from(Region.Point.at(minX, minZ), Region.Point.at(maxX, maxZ))
+        );
+        final boolean wilderness = wildernessFlags.contains(type);
+        if (parents.isEmpty()) {
+            if (wilderness) {
+                allowed.set(0, positions.size());
+            }
+            return allowed;
+        }
+
+        // Evaluate each claim once, then check which claim each position is in
+        final Map<Claim, Boolean> claimAllowed = new IdentityHashMap<>();
+        for (int i = 0; i < positions.size(); i++) {
+            final Claim claim = findClaimAt(parents, positions.get(i));
+            if (claim == null ? wilderness
+                    : claimAllowed.computeIfAbsent(claim, c -> c.isOperationAllowed(type, this))) {
+                allowed.set(i);
+            }
+        }
+        return allowed;
+    }
+
+    // Get the innermost of a set of parent claims at a position
+    @Nullable
+    private static Claim findClaimAt(@NotNull List<Claim> parents, @NotNull BlockPosition position) {
+        for (Claim parent : parents) {
+            if (!parent.getRegion().contains(position)) {
+                continue;
+            }
+            for (Claim child : parent.getChildren()) {
+                if (child.getRegion().contains(position)) {
+                    return child;
+                }
+            }
+            return parent;
+        }
+        return null;
     }
 
     private boolean isOperationAllowedInClaim(@NotNull Operation operation, @NotNull Claim claim,
                                               @NotNull HuskClaims plugin) {
-        if (isIgnoring(operation, plugin) || claim.isOperationAllowed(operation, this, plugin)) {
+        if (claim.isOperationAllowed(operation, this, plugin) || isIgnoring(operation, plugin)) {
             return true;
         }
         // Send user error message if verbose
@@ -180,9 +416,14 @@ public class ClaimWorld {
         return false;
     }
 
+    // Users ignoring claims are online, so their preferences are read from the cache rather than the database
     private boolean isIgnoring(@NotNull Operation operation, @NotNull HuskClaims plugin) {
-        return operation.getUser().flatMap(u -> plugin.getUserPreferences(u.getUuid()))
-                .map(Preferences::isIgnoringClaims).orElse(false);
+        final OperationUser user = operation.getUser().orElse(null);
+        if (user == null) {
+            return false;
+        }
+        final SavedUser saved = plugin.getUserCache().get(user.getUuid());
+        return saved != null && saved.getPreferences().isIgnoringClaims();
     }
 
     public int getClaimCount() {
@@ -0,0 +1,160 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.claim;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.config.Settings;
+import net.william278.huskclaims.network.Broker;
+import net.william278.huskclaims.user.AuditLog;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.util.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Job for deleting the claims of inactive users in throttled slices.
+ * <p>
+ * Claims are resolved through a per-world owner index built from the live claims at the start of each slice, and are
+ * deleted in one {@link net.william278.huskclaims.database.Database#updateClaimWorld(ClaimWorld) world update} per
+ * world per slice. Each user's last login is checked again when their slice is reached, so users who have logged in
+ * since the job started keep their claims. Claim blocks are not refunded.
+ *
+ * @since 1.0
+ */
+public class InactiveClaimPruner {
+
+    private final HuskClaims plugin;
+    private final Settings.ClaimSettings.InactivityPruningSettings settings;
+    private final AtomicBoolean processing = new AtomicBoolean(false);
+    private Iterator<SavedUser> users;
+    private Task.Repeating task;
+    private boolean finished;
+    private int prunedUsers;
+    private int prunedClaims;
+    private long startTime;
+
+    InactiveClaimPruner(@NotNull HuskClaims plugin,
+                        @NotNull Settings.ClaimSettings.InactivityPruningSettings settings) {
+        this.plugin = plugin;
+        this.settings = settings;
+    }
+
+    /**
+     * Fetch inactive users and begin pruning their claims
+     *
+     * @since 1.0
+     */
+    public void start() {
+        plugin.runAsync(() -> {
+            final List<SavedUser> inactive = plugin.getDatabase().getInactiveUsers(settings.getInactiveDays());
+            if (inactive.isEmpty()) {
+                return;
+            }
+            plugin.log(Level.INFO, String.format("Pruning claims of %s user(s) inactive for over %s days...",
+                    inactive.size(), settings.getInactiveDays()));
+
+            this.startTime = System.currentTimeMillis();
+            this.users = inactive.iterator();
+            this.task = plugin.getRepeatingTask(this::processSlice, Math.max(1, settings.getSliceIntervalTicks()));
+            this.task.run();
+        });
+    }
+
+    // Process up to the configured number of users, then write each touched world once
+    private void processSlice() {
+        if (finished || !processing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final Map<ClaimWorld, Map<UUID, List<Claim>>> owners = Maps.newIdentityHashMap();
+            plugin.getClaimWorlds().values().forEach(world -> owners.put(world, world.getClaimsByOwner()));
+
+            final Map<ClaimWorld, List<Claim>> toDelete = Maps.newIdentityHashMap();
+            final List<SavedUser> pruned = Lists.newArrayList();
+            for (int i = 0; i < settings.getUsersPerSlice() && users.hasNext(); i++) {
+                final UUID uuid = users.next().getUser().getUuid();
+                if (plugin.getOnlineUser(uuid).isPresent()) {
+                    continue;
+                }
+                final Optional<SavedUser> current = getCurrentData(uuid);
+                if (current.isEmpty() || !isInactive(current.get())) {
+                    continue;
+                }
+
+                boolean hadClaims = false;
+                for (Map.Entry<ClaimWorld, Map<UUID, List<Claim>>> entry : owners.entrySet()) {
+                    final List<Claim> claims = entry.getValue().get(uuid);
+                    if (claims != null && !claims.isEmpty()) {
+                        toDelete.computeIfAbsent(entry.getKey(), w -> Lists.newArrayList()).addAll(claims);
+                        prunedClaims += claims.size();
+                        hadClaims = true;
+                    }
+                }
+                if (hadClaims) {
+                    pruned.add(current.get());
+                }
+            }
+
+            toDelete.forEach(plugin::deleteClaims);
+            for (SavedUser user : pruned) {
+                user.getPreferences().getAuditLog().log(AuditLog.LogAction.PRUNE_INACTIVE_CLAIMS);
+                plugin.getDatabase().updateUser(user);
+                plugin.invalidateUserCache(user.getUser().getUuid());
+                plugin.getBroker().flatMap(Broker::getSharedUserCache)
+                        .ifPresent(cache -> cache.invalidate(user.getUser().getUuid()));
+            }
+            prunedUsers += pruned.size();
+
+            if (!users.hasNext()) {
+                finish();
+            }
+        } catch (Throwable e) {
+            plugin.log(Level.SEVERE, "An error occurred pruning inactive claims", e);
+            finish();
+        } finally {
+            processing.set(false);
+        }
+    }
+
+    // Get a user's latest data, as the last login recorded when the job started may have since been updated
+    @NotNull
+    private Optional<SavedUser> getCurrentData(@NotNull UUID uuid) {
+        return Optional.ofNullable(plugin.getUserCache().get(uuid))
+                .or(() -> plugin.getDatabase().getUser(uuid));
+    }
+
+    private boolean isInactive(@NotNull SavedUser user) {
+        return user.getLastLogin().isBefore(OffsetDateTime.now().minusDays(settings.getInactiveDays()));
+    }
+
+    private void finish() {
+        finished = true;
+        task.cancel();
+        plugin.log(Level.INFO, String.format("Pruned %s claim(s) from %s inactive user(s) in %s seconds",
+                prunedClaims, prunedUsers, (System.currentTimeMillis() - startTime) / 1000d));
+    }
+
+}
@@ -29,6 +29,7 @@ import lombok.NoArgsConstructor;
 import net.william278.huskclaims.highlighter.Highlightable;
 import net.william278.huskclaims.position.BlockPosition;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Map;
@@ -230,46 +231,89 @@ public class Region {
         return false;
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * nearCorner.hashCode() + farCorner.hashCode();
+    }
+
     @NotNull
     public Map<Point, Highlightable.HighlightType> getHighlightPoints(boolean overlap, boolean isChild, boolean isAdmin) {
+        return getHighlightPoints(overlap, isChild, isAdmin, null);
+    }
+
+    /**
+     * Get the points to highlight the outline of this region with, optionally only those within another region
+     *
+     * @param overlap whether the region overlaps another
+     * @param isChild whether the region is of a child claim
+     * @param isAdmin whether the region is of an admin claim
+     * @param within  the region to get points within, or {@code null} to get all points
+     * @return a map of points to their highlight type
+     * @since 1.0
+     */
+    @NotNull
+    public Map<Point, Highlightable.HighlightType> getHighlightPoints(boolean overlap, boolean isChild, boolean isAdmin,
+                                                                      @Nullable Region within) {
         final Map<Point, Highlightable.HighlightType> positions = Maps.newHashMap();
 
         // X boundaries
         final Highlightable.HighlightType edge = getClaimType(overlap, isChild, isAdmin, false);
-        addEdgePoints(positions, edge);
+        addEdgePoints(positions, edge, within);
 
         // Add corners
         final Highlightable.HighlightType corner = getClaimType(overlap, isChild, isAdmin, true);
-        getCorners().forEach((c) -> positions.put(c, corner));
+        getCorners().forEach((c) -> addPoint(positions, c, corner, within));
 
         return positions;
     }
 
+    // Only the steps of each edge that fall within the bounds are visited, so cost scales with the bounds' size
     private void addEdgePoints(@NotNull Map<Point, Highlightable.HighlightType> positions,
-                               @NotNull Highlightable.HighlightType type) {
+                               @NotNull Highlightable.HighlightType type, @Nullable Region within) {
         // X boundaries
-        for (int x = nearCorner.getBlockX() + STEP; x < farCorner.getBlockX(); x += STEP) {
-            positions.put(Point.at(x, nearCorner.getBlockZ()), type);
-            positions.put(Point.at(x, farCorner.getBlockZ()), type);
+        final int maxX = within == null ? farCorner.getBlockX()
+                : Math.min(farCorner.getBlockX(), within.farCorner.getBlockX() + 1);
+        for (int x = getFirstStep(nearCorner.getBlockX(), within == null ? null : within.nearCorner.getBlockX());
+             x < maxX; x += STEP) {
+            addPoint(positions, Point.at(x, nearCorner.getBlockZ()), type, within);
+            addPoint(positions, Point.at(x, farCorner.getBlockZ()), type, within);
         }
         // Z boundaries
-        for (int z = nearCorner.getBlockZ() + STEP; z < farCorner.getBlockZ(); z += STEP) {
-            positions.put(Point.at(nearCorner.getBlockX(), z), type);
-            positions.put(Point.at(farCorner.getBlockX(), z), type);
+        final int maxZ = within == null ? farCorner.getBlockZ()
+                : Math.min(farCorner.getBlockZ(), within.farCorner.getBlockZ() + 1);
+        for (int z = getFirstStep(nearCorner.getBlockZ(), within == null ? null : within.nearCorner.getBlockZ());
+             z < maxZ; z += STEP) {
+            addPoint(positions, Point.at(nearCorner.getBlockX(), z), type, within);
+            addPoint(positions, Point.at(farCorner.getBlockX(), z), type, within);
         }
 
         // L-shaped corners (Z/X axis)
         if (Math.abs(farCorner.getBlockZ() - nearCorner.getBlockZ()) > 2) {
-            positions.put(Point.at(nearCorner.getBlockX(), nearCorner.getBlockZ() + 1), type);
-            positions.put(Point.at(farCorner.getBlockX(), nearCorner.getBlockZ() + 1), type);
-            positions.put(Point.at(nearCorner.getBlockX(), farCorner.getBlockZ() - 1), type);
-            positions.put(Point.at(farCorner.getBlockX(), farCorner.getBlockZ() - 1), type);
+            addPoint(positions, Point.at(nearCorner.getBlockX(), nearCorner.getBlockZ() + 1), type, within);
+            addPoint(positions, Point.at(farCorner.getBlockX(), nearCorner.getBlockZ() + 1), type, within);
+            addPoint(positions, Point.at(nearCorner.getBlockX(), farCorner.getBlockZ() - 1), type, within);
+            addPoint(positions, Point.at(farCorner.getBlockX(), farCorner.getBlockZ() - 1), type, within);
         }
         if (Math.abs(farCorner.getBlockX() - nearCorner.getBlockX()) > 2) {
-            positions.put(Point.at(nearCorner.getBlockX() + 1, nearCorner.getBlockZ()), type);
-            positions.put(Point.at(farCorner.getBlockX() - 1, nearCorner.getBlockZ()), type);
-            positions.put(Point.at(nearCorner.getBlockX() + 1, farCorner.getBlockZ()), type);
-            positions.put(Point.at(farCorner.getBlockX() - 1, farCorner.getBlockZ()), type);
+            addPoint(positions, Point.at(nearCorner.getBlockX() + 1, nearCorner.getBlockZ()), type, within);
+            addPoint(positions, Point.at(farCorner.getBlockX() - 1, nearCorner.getBlockZ()), type, within);
+            addPoint(positions, Point.at(nearCorner.getBlockX() + 1, farCorner.getBlockZ()), type, within);
+            addPoint(positions, Point.at(farCorner.getBlockX() - 1, farCorner.getBlockZ()), type, within);
+        }
+    }
+
+    // Get the first edge step after the near corner, at or after a lower bound
+    private static int getFirstStep(int near, @Nullable Integer lowerBound) {
+        if (lowerBound == null || lowerBound <= near + STEP) {
+            return near + STEP;
+        }
+        return near + Math.floorDiv(lowerBound - near + STEP - 1, STEP) * STEP;
+    }
+
+    private static void addPoint(@NotNull Map<Point, Highlightable.HighlightType> positions, @NotNull Point point,
+                                 @NotNull Highlightable.HighlightType type, @Nullable Region within) {
+        if (within == null || within.contains(point)) {
+            positions.put(point, type);
         }
     }
 
@@ -345,5 +389,10 @@ public class Region {
             }
             return false;
         }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + z;
+        }
     }
 }
@@ -124,7 +124,7 @@ public class ClaimsListCommand extends Command implements UserListTabCompletable
 
     @NotNull
     private List<ServerWorldClaim> getUserClaims(@NotNull User user) {
-        return plugin.getDatabase().getAllClaimWorlds().entrySet().stream()
+        return plugin.getAllClaimWorlds().entrySet().stream()
                 .flatMap(e -> e.getValue().getClaims().stream()
                         .filter(c -> user.getUuid().equals(c.getOwner().orElse(null)))
                         .map(c -> new ServerWorldClaim(e.getKey(), c)))
@@ -54,7 +54,7 @@ public class OperationGroupCommand extends InClaimCommand {
                     .ifPresent(executor::sendMessage);
         }
 
-        plugin.getDatabase().updateClaimWorld(world);
+        plugin.updateClaim(world, claim);
     }
 
     private boolean isOperationGroupSet(@NotNull Claim claim) {
@@ -54,7 +54,7 @@ public class RestrictClaimCommand extends InClaimCommand {
             return;
         }
         claim.setInheritParent(!claim.isInheritParent());
-        plugin.getDatabase().updateClaimWorld(world);
+        plugin.updateClaim(world, claim);
         plugin.getLocales().getLocale(claim.isInheritParent() ? "child_claims_inherit" : "child_claims_do_not_inherit")
                 .ifPresent(user::sendMessage);
     }
@@ -64,7 +64,7 @@ public class TrustCommand extends InClaimCommand implements TrustableTabCompleta
     private void setTrustLevel(@NotNull OnlineUser executor, @NotNull Trustable trustable,
                                @NotNull ClaimWorld world, @NotNull Claim claim) {
         claim.setTrustLevel(trustable, world, level);
-        plugin.getDatabase().updateClaimWorld(world);
+        plugin.updateClaim(world, claim);
         plugin.getLocales().getLocale("trust_level_set",
                         trustable.getTrustIdentifier(plugin), level.getDisplayName())
                 .ifPresent(executor::sendMessage);
@@ -91,7 +91,7 @@ public class UnTrustCommand extends InClaimCommand implements TabCompletable {
         }
         plugin.getLocales().getLocale("trust_level_removed", toUntrust.getTrustIdentifier(plugin))
                 .ifPresent(executor::sendMessage);
-        plugin.getDatabase().updateClaimWorld(world);
+        plugin.updateClaim(world, claim);
     }
 
     @Nullable
@@ -200,7 +200,8 @@ public class UserGroupsCommand extends OnlineUserCommand implements TabCompletab
             case 4 -> args[0].equals("edit")
                     ? user instanceof OnlineUser online ? (args[2].equals("remove")
                     ? plugin.getUserGroup(online.getUuid(), args[1]).map(UserGroup::members).orElse(List.of())
-                    : plugin.getUserList()).stream().map(User::getName).toList() : null
+                    .stream().map(User::getName).toList()
+                    : plugin.getUserNames(args[3].trim(), UserListTabCompletable.MAX_USER_SUGGESTIONS)) : null
                     : null;
             default -> null;
         };
@@ -21,7 +21,6 @@ package net.william278.huskclaims.command;
 
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.user.CommandUser;
-import net.william278.huskclaims.user.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -29,10 +28,14 @@ import java.util.List;
 
 public interface UserListTabCompletable extends TabCompletable {
 
+    int MAX_USER_SUGGESTIONS = 100;
+
     @Override
     @Nullable
     default List<String> suggest(@NotNull CommandUser user, @NotNull String[] args) {
-        return args.length < 2 ? getPlugin().getUserList().stream().map(User::getName).toList() : null;
+        return args.length < 2
+                ? getPlugin().getUserNames(args.length == 0 ? "" : args[0].trim(), MAX_USER_SUGGESTIONS)
+                : null;
     }
 
     @NotNull
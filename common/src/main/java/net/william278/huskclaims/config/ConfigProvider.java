@@ -25,6 +25,7 @@ import de.exlll.configlib.YamlConfigurationStore;
 import de.exlll.configlib.YamlConfigurations;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.claim.TrustLevel;
+import net.william278.huskclaims.highlighter.HighlightBlocks;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.InputStream;
@@ -61,6 +62,23 @@ public interface ConfigProvider {
      */
     void setSettings(@NotNull Settings settings);
 
+    /**
+     * Get the blocks to highlight each type of point with, resolved from the settings when they are loaded
+     *
+     * @return the highlight blocks
+     * @since 1.0
+     */
+    @NotNull
+    HighlightBlocks getHighlightBlocks();
+
+    /**
+     * Set the resolved highlight blocks
+     *
+     * @param highlightBlocks The highlight blocks to set
+     * @since 1.0
+     */
+    void setHighlightBlocks(@NotNull HighlightBlocks highlightBlocks);
+
     /**
      * Load the plugin settings from the config file
      *
@@ -72,6 +90,7 @@ public interface ConfigProvider {
                 Settings.class,
                 YAML_CONFIGURATION_PROPERTIES.header(Settings.CONFIG_HEADER).build()
         ));
+        setHighlightBlocks(new HighlightBlocks(getPlugin()));
     }
 
     /**
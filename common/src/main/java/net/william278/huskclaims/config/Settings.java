@@ -127,6 +127,11 @@ public final class Settings {
         @Comment("Type of network message broker to ues for data synchronization (PLUGIN_MESSAGE or REDIS)")
         private Broker.Type brokerType = Broker.Type.PLUGIN_MESSAGE;
 
+        @Comment({"How long (in milliseconds) to coalesce repeated user data and group invalidations received",
+                "from other servers for. The first is handled immediately, and the newest when the window ends.",
+                "Set to 0 to handle every invalidation immediately."})
+        private long invalidationCoalesceMillis = 50;
+
         @Comment("Settings for if you're using REDIS as your message broker")
         private RedisSettings redis = new RedisSettings();
 
@@ -140,6 +145,19 @@ public final class Settings {
             private String password = "";
             private boolean useSSL = false;
 
+            @Comment("Max number of outbound messages to buffer before dropping messages")
+            private int publishQueueSize = 4096;
+
+            @Comment("How long (in milliseconds) to wait to batch outbound messages into a single pipeline")
+            private long publishFlushMillis = 5;
+
+            @Comment({"Whether to cache user data in Redis, so that it isn't reloaded from the database",
+                    "when users switch servers"})
+            private boolean sharedUserCache = true;
+
+            @Comment("How long (in seconds) to keep user data in the Redis cache after it was last written")
+            private long sharedUserCacheTtlSeconds = 1800;
+
             @Comment({"Settings for if you're using Redis Sentinels.",
                     "If you're not sure what this is, please ignore this section."})
             private SentinelSettings sentinel = new SentinelSettings();
@@ -212,6 +230,58 @@ public final class Settings {
         @Comment("Max range of inspector tools")
         private int inspectionDistance = 40;
 
+        @Comment("Settings for highlighting all nearby claims when sneaking while using the inspection tool")
+        private NearbyInspectionSettings nearbyInspection = new NearbyInspectionSettings();
+
+        @Getter
+        @Configuration
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class NearbyInspectionSettings {
+            @Comment("Whether to highlight all nearby claims when sneaking while using the inspection tool")
+            private boolean enabled = true;
+
+            @Comment("Radius (in blocks) around the inspected position to find claims within")
+            private int radius = 64;
+
+            @Comment("Max number of claims to highlight per inspection. The nearest claims are highlighted first.")
+            private int maxClaims = 25;
+
+            @Comment("Max number of outline points to highlight per inspection, across all claims")
+            private int maxPoints = 1000;
+        }
+
+        @Comment("Settings for automatically deleting the claims of inactive users")
+        private InactivityPruningSettings inactivityPruning = new InactivityPruningSettings();
+
+        @Getter
+        @Configuration
+        @NoArgsConstructor(access = AccessLevel.PRIVATE)
+        public static class InactivityPruningSettings {
+            @Comment("Whether to delete the claims of inactive users on startup. Claim blocks are not refunded.")
+            private boolean enabled = false;
+
+            @Comment("Number of days since a user last logged in before their claims are deleted")
+            private long inactiveDays = 60;
+
+            @Comment("Max number of inactive users to process per pruning slice")
+            private int usersPerSlice = 250;
+
+            @Comment("Interval (in ticks) between pruning slices. Raise this if pruning affects TPS.")
+            private long sliceIntervalTicks = 20;
+        }
+
+        @Comment({"Radius (in blocks) around the player to highlight claim outlines within. Outlines are streamed in as "
+                + "the player moves, so large claims cost the same to highlight as small ones. Set to 0 to always "
+                + "highlight whole outlines."})
+        private int highlightViewRadius = 48;
+
+        @Comment("Seconds after which highlights are cleared if they haven't been updated. Set to 0 to disable.")
+        private int highlightExpirySeconds = 60;
+
+        @Comment({"Minutes between logging how many player moves were tracked for claim entry/exit and the time spent "
+                + "tracking them. A summary is always logged on shutdown. Set to 0 to disable periodic logging."})
+        private int trackerMetricsLogMinutes = 0;
+
         @Comment("Blocks to use for the block highlighter")
         private Map<Highlightable.HighlightType, String> blockHighlighterTypes = new TreeMap<>(Map.of(
                 Highlightable.HighlightType.EDGE, "minecraft:gold_block",
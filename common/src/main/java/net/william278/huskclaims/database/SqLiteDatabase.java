@@ -305,13 +305,14 @@ public class SqLiteDatabase extends Database {
     public void updateUser(@NotNull SavedUser user) {
         try (PreparedStatement statement = getConnection().prepareStatement(format("""
                 UPDATE `%user_data%`
-                SET `claim_blocks` = ?, `hours_played` = ?, `preferences` = ?
+                SET `claim_blocks` = ?, `hours_played` = ?, `last_login` = ?, `preferences` = ?
                 WHERE `uuid` = ?"""))) {
             statement.setLong(1, user.getClaimBlocks());
             statement.setInt(2, user.getHoursPlayed());
-            statement.setBytes(3, plugin.getGson().toJson(user.getPreferences())
+            statement.setTimestamp(3, Timestamp.valueOf(user.getLastLogin().toLocalDateTime()));
+            statement.setBytes(4, plugin.getGson().toJson(user.getPreferences())
                     .getBytes(StandardCharsets.UTF_8));
-            statement.setString(4, user.getUser().getUuid().toString());
+            statement.setString(5, user.getUser().getUuid().toString());
             statement.executeUpdate();
         } catch (SQLException e) {
             plugin.log(Level.SEVERE, "Failed to update Saved User data in table", e);
@@ -150,7 +150,9 @@ public interface GroupManager {
     private void publishGroupChange(@NotNull OnlineUser user) {
         getPlugin().getBroker().ifPresent(broker -> Message.builder()
                 .type(Message.MessageType.INVALIDATE_USER_GROUPS)
-                .payload(Payload.uuid(user.getUuid()))
+                .payload(Payload.userGroups(
+                        user.getUuid(), getUserGroups(user.getUuid()), broker.getGroupVersions().next(user.getUuid())
+                ))
                 .target(Message.TARGET_ALL, Message.TargetType.SERVER)
                 .build().send(broker, user));
     }
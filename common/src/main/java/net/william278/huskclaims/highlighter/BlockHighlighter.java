@@ -23,14 +23,17 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.claim.Region;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.position.World;
 import net.william278.huskclaims.user.OnlineUser;
 import net.william278.huskclaims.util.BlockProvider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /**
  * Highlighter that uses ghost blocks - used to highlight {@link Highlightable}s to a user in-game
@@ -38,77 +41,134 @@ import java.util.concurrent.ConcurrentMap;
 public class BlockHighlighter implements Highlighter {
 
     private final HuskClaims plugin;
-    private final ConcurrentMap<UUID, List<HighlightedBlock>> activeHighlights;
+    private final ConcurrentMap<UUID, Map<Position, HighlightedBlock>> activeHighlights;
+    private final HighlightViews views;
 
     public BlockHighlighter(@NotNull HuskClaims plugin) {
         this.plugin = plugin;
         this.activeHighlights = Maps.newConcurrentMap();
+        this.views = new HighlightViews(plugin, this::stopExpired);
     }
 
     @Override
     public void startHighlighting(@NotNull OnlineUser user, @NotNull World world,
                                   @NotNull Collection<? extends Highlightable> toHighlight, boolean showOverlap) {
         plugin.runSync(() -> {
-            stopHighlighting(user);
-
             final Optional<ClaimWorld> optionalClaimWorld = plugin.getClaimWorld(world);
             if (optionalClaimWorld.isEmpty()) {
+                stopHighlighting(user);
                 return;
             }
 
+            // Capture the points and chunk data to highlight on the main thread...
             final ClaimWorld claimWorld = optionalClaimWorld.get();
-            final List<HighlightedBlock> activeBlocks = Lists.newArrayList();
-            final List<HighlightedBlock> highlightBlocks = Lists.newArrayList();
             final int userY = (int) user.getPosition().getY();
+            final HighlightViews.View view = views.start(user, world, toHighlight, showOverlap);
+            final Region bounds = views.getBounds(view);
+            final List<CapturedPoints> captured = Lists.newArrayListWithCapacity(toHighlight.size());
             for (Highlightable highlight : toHighlight) {
-                plugin.getSurfaceBlocksAt(highlight.getHighlightPoints(claimWorld, showOverlap).keySet(), world, userY)
-                        .forEach((pos, material) -> {
-                            activeBlocks.add(new HighlightedBlock(
-                                    pos, material
-                            ));
-                            highlightBlocks.add(new HighlightedBlock(
-                                    pos, highlight.getBlockFor(claimWorld, pos, plugin, showOverlap)
-                            ));
-                        });
+                final Map<Region.Point, Highlightable.HighlightType> points = highlight
+                        .getHighlightPoints(claimWorld, showOverlap, bounds);
+                captured.add(new CapturedPoints(points, plugin.captureSurfaceBlocksAt(points.keySet(), world, userY)));
             }
 
-            activeHighlights.put(user.getUuid(), activeBlocks);
-            plugin.sendBlockUpdates(user, HighlightedBlock.getMap(highlightBlocks));
+            // ...find the surface blocks to highlight off it...
+            plugin.runAsync(() -> {
+                final Map<Position, HighlightedBlock> highlighted = Maps.newHashMap();
+                final HighlightBlocks blocks = plugin.getHighlightBlocks();
+                for (CapturedPoints points : captured) {
+                    points.surfaces().get().forEach((pos, material) -> highlighted.put(pos, new HighlightedBlock(
+                            material, blocks.get(Highlightable.getTypeAt(points.points(), pos))
+                    )));
+                }
+
+                // ...and send them on it, unless the view has since been replaced or stopped
+                plugin.runSync(() -> {
+                    if (!views.isCurrent(user, view)) {
+                        return;
+                    }
+                    final Map<Position, HighlightedBlock> previous = activeHighlights.put(user.getUuid(), highlighted);
+                    final Map<Position, BlockProvider.MaterialBlock> updates = getUpdates(previous, highlighted);
+                    if (!updates.isEmpty()) {
+                        plugin.sendBlockUpdates(user, updates);
+                    }
+                });
+            });
         });
     }
 
+    // Revert points no longer highlighted, and send points that are new or highlighted with a different block
+    @NotNull
+    static Map<Position, BlockProvider.MaterialBlock> getUpdates(
+            @Nullable Map<Position, HighlightedBlock> previous, @NotNull Map<Position, HighlightedBlock> current) {
+        final Map<Position, BlockProvider.MaterialBlock> updates = Maps.newHashMap();
+        if (previous != null) {
+            previous.forEach((pos, block) -> {
+                if (!current.containsKey(pos)) {
+                    updates.put(pos, block.original());
+                }
+            });
+        }
+        current.forEach((pos, block) -> {
+            final HighlightedBlock shown = previous != null ? previous.get(pos) : null;
+            if (shown == null || !shown.highlight().equals(block.highlight())) {
+                updates.put(pos, block.highlight());
+            }
+        });
+        return updates;
+    }
+
     @Override
     public void stopHighlighting(@NotNull OnlineUser user) {
-        final List<HighlightedBlock> blocks = activeHighlights.remove(user.getUuid());
-        if (blocks != null) {
-            plugin.sendBlockUpdates(user, HighlightedBlock.getMap(blocks));
+        views.stop(user.getUuid());
+        final Map<Position, HighlightedBlock> blocks = activeHighlights.remove(user.getUuid());
+        if (blocks != null && !blocks.isEmpty()) {
+            final Map<Position, BlockProvider.MaterialBlock> originals = Maps.newHashMap();
+            blocks.forEach((pos, block) -> originals.put(pos, block.original()));
+            plugin.sendBlockUpdates(user, originals);
         }
     }
 
+    // Stop an expired view, dropping the highlights of a user who has since gone offline
+    private void stopExpired(@NotNull UUID uuid) {
+        plugin.getOnlineUser(uuid).ifPresentOrElse(this::stopHighlighting, () -> {
+            views.stop(uuid);
+            activeHighlights.remove(uuid);
+        });
+    }
+
+    @Override
+    public void close() {
+        views.close();
+    }
+
+    @Override
+    public void onUserMove(@NotNull OnlineUser user, @NotNull Position position) {
+        views.getMovedView(user, position).ifPresent(view -> startHighlighting(
+                user, view.world(), view.highlightables(), view.showOverlap()
+        ));
+    }
 
     /**
-     * Represents a highlighted block
+     * The points of a highlightable, and a lookup of their surface blocks captured on the main thread
      *
-     * @param position The position of the block
-     * @param block    The Material/BlockData to highlight the block with
+     * @param points   The highlight points
+     * @param surfaces Supplier of the surface blocks at the points, safe to call off the main thread
      * @since 1.0
      */
-    private record HighlightedBlock(@NotNull Position position, @NotNull BlockProvider.MaterialBlock block) {
-
-        @NotNull
-        private Map.Entry<Position, BlockProvider.MaterialBlock> toEntry() {
-            return Map.entry(position, block);
-        }
-
-        @NotNull
-        private static Map<Position, BlockProvider.MaterialBlock> getMap(@NotNull Collection<HighlightedBlock> blocks) {
-            return blocks.stream().map(HighlightedBlock::toEntry).collect(
-                    Maps::newHashMap,
-                    (m, v) -> m.put(v.getKey(), v.getValue()),
-                    Map::putAll
-            );
-        }
+    private record CapturedPoints(@NotNull Map<Region.Point, Highlightable.HighlightType> points,
+                                  @NotNull Supplier<Map<Position, BlockProvider.MaterialBlock>> surfaces) {
+    }
 
+    /**
+     * Represents a highlighted block
+     *
+     * @param original  The Material/BlockData of the real block, to revert to
+     * @param highlight The Material/BlockData to highlight the block with
+     * @since 1.0
+     */
+    record HighlightedBlock(@NotNull BlockProvider.MaterialBlock original,
+                            @NotNull BlockProvider.MaterialBlock highlight) {
     }
 
 }
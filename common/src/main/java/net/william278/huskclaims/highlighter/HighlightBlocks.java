@@ -0,0 +1,65 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.highlighter;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.util.BlockProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable lookup of the {@link BlockProvider.MaterialBlock} to highlight each {@link Highlightable.HighlightType}
+ * with, resolved from the settings once when they are loaded, so that sending highlights does no material parsing
+ *
+ * @since 1.0
+ */
+public class HighlightBlocks {
+
+    static final String DEFAULT_BLOCK = "minecraft:yellow_concrete";
+
+    private final Map<Highlightable.HighlightType, BlockProvider.MaterialBlock> blocks;
+
+    public HighlightBlocks(@NotNull HuskClaims plugin) {
+        final Map<Highlightable.HighlightType, String> types = plugin.getSettings().getClaims()
+                .getBlockHighlighterTypes();
+        final Map<Highlightable.HighlightType, BlockProvider.MaterialBlock> blocks =
+                new EnumMap<>(Highlightable.HighlightType.class);
+        for (Highlightable.HighlightType type : Highlightable.HighlightType.values()) {
+            blocks.put(type, plugin.getBlockFor(types.getOrDefault(type, DEFAULT_BLOCK)));
+        }
+        this.blocks = Maps.immutableEnumMap(blocks);
+    }
+
+    /**
+     * Get the block to highlight a type of point with
+     *
+     * @param type the highlight type
+     * @return the block
+     * @since 1.0
+     */
+    @NotNull
+    public BlockProvider.MaterialBlock get(@NotNull Highlightable.HighlightType type) {
+        return blocks.get(type);
+    }
+
+}
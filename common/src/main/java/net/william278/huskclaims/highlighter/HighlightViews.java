@@ -0,0 +1,244 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.highlighter;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.position.BlockPosition;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.util.Task;
+import net.william278.huskclaims.util.TimingWheel;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Tracks what each user is having highlighted and where, so that a {@link Highlighter} only has to send the points
+ * within the configured view radius of the user, and can stream in new points as they move.
+ * <p>
+ * Each started view has a generation, so a highlighter computing a view off the main thread can tell whether it has
+ * since been superseded or stopped before sending it. Views that aren't restarted within the configured expiry time
+ * are stopped in batches by a single task, driving a {@link TimingWheel} of view generations.
+ *
+ * @since 1.0
+ */
+public class HighlightViews {
+
+    private static final int EXPIRY_WHEEL_SIZE = 64;
+    private static final long EXPIRY_TICK_INTERVAL = 20;
+
+    private final HuskClaims plugin;
+    private final int radius;
+    private final int refreshDistance;
+    private final long expirySeconds;
+    private final ConcurrentMap<UUID, View> views = Maps.newConcurrentMap();
+    private final AtomicLong generations = new AtomicLong();
+    private final TimingWheel<Expiry> expiries = new TimingWheel<>(EXPIRY_WHEEL_SIZE);
+    private final Consumer<UUID> onExpire;
+    @Nullable
+    private final Task.Repeating expiryTask;
+
+    /**
+     * Create a view tracker
+     *
+     * @param plugin   the plugin instance
+     * @param onExpire called on the main thread with the UUID of a user whose view has expired, to stop highlighting
+     *                 for them; the user may have since gone offline
+     * @since 1.0
+     */
+    public HighlightViews(@NotNull HuskClaims plugin, @NotNull Consumer<UUID> onExpire) {
+        this.plugin = plugin;
+        this.radius = Math.max(0, plugin.getSettings().getClaims().getHighlightViewRadius());
+        this.refreshDistance = Math.max(1, radius / 4);
+        this.expirySeconds = Math.max(0, plugin.getSettings().getClaims().getHighlightExpirySeconds());
+        this.onExpire = onExpire;
+        this.expiryTask = expirySeconds > 0 ? plugin.getRepeatingTask(this::expire, EXPIRY_TICK_INTERVAL) : null;
+        if (expiryTask != null) {
+            expiryTask.run();
+        }
+    }
+
+    /**
+     * Start tracking a user's view, centered on their current position
+     *
+     * @param user           the user
+     * @param world          the world being highlighted
+     * @param highlightables the things being highlighted
+     * @param showOverlap    whether overlapping claims are being shown
+     * @return the started view
+     * @since 1.0
+     */
+    @NotNull
+    public View start(@NotNull OnlineUser user, @NotNull World world,
+                      @NotNull Collection<? extends Highlightable> highlightables, boolean showOverlap) {
+        final Position position = user.getPosition();
+        final View view = new View(
+                world, highlightables, showOverlap, position.getBlockX(), position.getBlockZ(),
+                generations.incrementAndGet()
+        );
+        views.put(user.getUuid(), view);
+        if (expiryTask != null) {
+            expiries.schedule(new Expiry(user.getUuid(), view.generation()), expirySeconds);
+        }
+        return view;
+    }
+
+    /**
+     * Get the bounds to highlight the points of a view within
+     *
+     * @param view the view
+     * @return the bounds, or {@code null} if views are not limited by radius
+     * @since 1.0
+     */
+    @Nullable
+    public Region getBounds(@NotNull View view) {
+        return radius > 0 ? Region.around(Region.Point.at(view.centerX(), view.centerZ()), radius) : null;
+    }
+
+    /**
+     * Get the bounds a view centered on a position would highlight points within, to predict what a highlighter will
+     * show before starting a view
+     *
+     * @param plugin   the plugin instance
+     * @param position the position the view would be centered on
+     * @return the bounds, or {@code null} if views are not limited by radius
+     * @since 1.0
+     */
+    @Nullable
+    public static Region getBounds(@NotNull HuskClaims plugin, @NotNull BlockPosition position) {
+        final int radius = Math.max(0, plugin.getSettings().getClaims().getHighlightViewRadius());
+        return radius > 0 ? Region.around(position, radius) : null;
+    }
+
+    /**
+     * Get whether a view is still the user's current view, and has not been superseded or stopped
+     *
+     * @param user the user
+     * @param view the view
+     * @return whether the view is current
+     * @since 1.0
+     */
+    public boolean isCurrent(@NotNull OnlineUser user, @NotNull View view) {
+        final View current = views.get(user.getUuid());
+        return current != null && current.generation() == view.generation();
+    }
+
+    /**
+     * Stop tracking a user's view
+     *
+     * @param user the UUID of the user
+     * @since 1.0
+     */
+    public void stop(@NotNull UUID user) {
+        views.remove(user);
+    }
+
+    /**
+     * Get a user's view if they have moved far enough from its center that it should be re-highlighted.
+     * <p>
+     * This is called on every player move, so returns early when the user has no view.
+     *
+     * @param user     the user
+     * @param position the user's new position
+     * @return the view to re-highlight, if any
+     * @since 1.0
+     */
+    public Optional<View> getMovedView(@NotNull OnlineUser user, @NotNull Position position) {
+        if (radius <= 0 || views.isEmpty()) {
+            return Optional.empty();
+        }
+        final View view = views.get(user.getUuid());
+        if (view == null || !view.world().equals(position.getWorld())
+                || (Math.abs(position.getBlockX() - view.centerX()) < refreshDistance
+                && Math.abs(position.getBlockZ() - view.centerZ()) < refreshDistance)) {
+            return Optional.empty();
+        }
+
+        // Re-center now, so further moves before the view is re-highlighted don't trigger it again
+        views.replace(user.getUuid(), view, new View(
+                view.world(), view.highlightables(), view.showOverlap(), position.getBlockX(), position.getBlockZ(),
+                view.generation()
+        ));
+        return Optional.of(view);
+    }
+
+    // Stop the views that expired this tick in one batch, skipping any that have been restarted since
+    private void expire() {
+        final List<Expiry> expired = expiries.advance();
+        expired.removeIf(expiry -> !isCurrent(expiry));
+        if (expired.isEmpty()) {
+            return;
+        }
+        plugin.runSync(() -> expired.forEach(expiry -> {
+            if (isCurrent(expiry)) {
+                onExpire.accept(expiry.user());
+            }
+        }));
+    }
+
+    private boolean isCurrent(@NotNull Expiry expiry) {
+        final View current = views.get(expiry.user());
+        return current != null && current.generation() == expiry.generation();
+    }
+
+    /**
+     * Stop tracking all views and cancel the expiry task, for when the highlighter is closed
+     *
+     * @since 1.0
+     */
+    public void close() {
+        if (expiryTask != null) {
+            expiryTask.cancel();
+        }
+        expiries.clear();
+        views.clear();
+    }
+
+    // A scheduled expiry of a user's view, ignored if the view has since been restarted or stopped
+    private record Expiry(@NotNull UUID user, long generation) {
+    }
+
+    /**
+     * A user's highlight view
+     *
+     * @param world          the world being highlighted
+     * @param highlightables the things being highlighted
+     * @param showOverlap    whether overlapping claims are being shown
+     * @param centerX        the x coordinate the view was last highlighted around
+     * @param centerZ        the z coordinate the view was last highlighted around
+     * @param generation     the generation of the view, unique to each time a view is started
+     * @since 1.0
+     */
+    public record View(@NotNull World world, @NotNull Collection<? extends Highlightable> highlightables,
+                       boolean showOverlap, int centerX, int centerZ, long generation) {
+    }
+
+}
@@ -19,6 +19,7 @@
 
 package net.william278.huskclaims.highlighter;
 
+import com.google.common.collect.Maps;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.claim.ClaimWorld;
 import net.william278.huskclaims.claim.Region;
@@ -26,6 +27,7 @@ import net.william278.huskclaims.position.BlockPosition;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.util.BlockProvider;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Map;
@@ -44,17 +46,59 @@ public interface Highlightable {
     @NotNull
     Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap);
 
+    /**
+     * Get the positions to be highlighted within a region
+     *
+     * @param world       the claim world
+     * @param showOverlap whether overlapping claims are being shown
+     * @param within      the region to get points within, or {@code null} to get all points
+     * @return the highlight points within the region
+     * @since 1.0
+     */
+    @NotNull
+    default Map<Region.Point, HighlightType> getHighlightPoints(@NotNull ClaimWorld world, boolean showOverlap,
+                                                                @Nullable Region within) {
+        final Map<Region.Point, HighlightType> points = getHighlightPoints(world, showOverlap);
+        if (within == null) {
+            return points;
+        }
+        final Map<Region.Point, HighlightType> filtered = Maps.newHashMap();
+        points.forEach((point, type) -> {
+            if (within.contains(point)) {
+                filtered.put(point, type);
+            }
+        });
+        return filtered;
+    }
+
+    /**
+     * Get the highlight type of a position in a map of highlight points
+     *
+     * @param points   the highlight points, from {@link #getHighlightPoints(ClaimWorld, boolean)}
+     * @param position the position
+     * @return the position's highlight type, or {@link HighlightType#SELECTION} if it isn't a highlight point
+     * @since 1.0
+     */
+    @NotNull
+    static HighlightType getTypeAt(@NotNull Map<Region.Point, HighlightType> points, @NotNull Position position) {
+        return points.getOrDefault(Region.Point.wrap(position), HighlightType.SELECTION);
+    }
+
+    /**
+     * Get the block to highlight a position with. Highlighters should compute the highlight points once and use
+     * {@link #getTypeAt(Map, Position)} with the plugin's {@link HighlightBlocks} instead of calling this per position.
+     *
+     * @param world       the claim world
+     * @param position    the position
+     * @param plugin      the plugin instance
+     * @param showOverlap whether overlapping claims are being shown
+     * @return the block to highlight the position with
+     * @since 1.0
+     */
     @NotNull
     default BlockProvider.MaterialBlock getBlockFor(@NotNull ClaimWorld world, @NotNull Position position,
                                                     @NotNull HuskClaims plugin, boolean showOverlap) {
-        return plugin.getBlockFor(plugin.getSettings()
-                .getClaims().getBlockHighlighterTypes()
-                .getOrDefault(
-                        getHighlightPoints(world, showOverlap).entrySet().stream()
-                                .filter(e -> e.getKey().equals(Region.Point.wrap(position))).map(Map.Entry::getValue)
-                                .findFirst().orElse(HighlightType.SELECTION),
-                        "minecraft:yellow_concrete"
-                ));
+        return plugin.getHighlightBlocks().get(getTypeAt(getHighlightPoints(world, showOverlap), position));
     }
 
     enum HighlightType {
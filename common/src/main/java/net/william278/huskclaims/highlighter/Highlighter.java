@@ -20,6 +20,7 @@
 package net.william278.huskclaims.highlighter;
 
 import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.position.World;
 import net.william278.huskclaims.user.OnlineUser;
 import org.jetbrains.annotations.NotNull;
@@ -55,6 +56,25 @@ public interface Highlighter {
      */
     void stopHighlighting(@NotNull OnlineUser user);
 
+    /**
+     * Called when a user moves, so highlighters that only show points near the user can stream in new points.
+     * Called on every player move; implementations must return quickly if there is nothing to update.
+     *
+     * @param user     The user who moved
+     * @param position The user's new position
+     * @since 1.0
+     */
+    default void onUserMove(@NotNull OnlineUser user, @NotNull Position position) {
+    }
+
+    /**
+     * Clean up the highlighter, for when the plugin is disabled
+     *
+     * @since 1.0
+     */
+    default void close() {
+    }
+
     /**
      * Highlight something for a user
      *
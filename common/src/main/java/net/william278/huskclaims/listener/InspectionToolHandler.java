@@ -25,10 +25,14 @@ import net.william278.cloplib.operation.OperationUser;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.claim.Claim;
 import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.config.Settings;
+import net.william278.huskclaims.highlighter.HighlightViews;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.user.OnlineUser;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,8 +55,15 @@ public interface InspectionToolHandler {
         }
         final ClaimWorld claimWorld = optionalWorld.get();
 
+        // Highlight all nearby claims if the user is sneaking
+        final Settings.ClaimSettings.NearbyInspectionSettings nearby = getPlugin().getSettings().getClaims()
+                .getNearbyInspection();
+        if (nearby.isEnabled() && user.isSneaking()) {
+            getPlugin().runAsync(() -> highlightNearbyClaims(user, position, claimWorld, nearby));
+            return;
+        }
+
         // Check if there is a claim at the position
-        //todo - future: highlight ALL nearby claims if the user is sneaking.
         final Optional<Claim> optionalClaim = claimWorld.getClaimAt(position);
         if (optionalClaim.isEmpty()) {
             getPlugin().getLocales().getLocale("land_not_claimed")
@@ -71,6 +82,58 @@ public interface InspectionToolHandler {
                 .ifPresent(user::sendMessage);
     }
 
+    // Highlight the claims nearest a position, within the claim and outline point budgets
+    private void highlightNearbyClaims(@NotNull OnlineUser user, @NotNull Position position,
+                                       @NotNull ClaimWorld world,
+                                       @NotNull Settings.ClaimSettings.NearbyInspectionSettings settings) {
+        final Region area = Region.around(position, settings.getRadius());
+        final List<Claim> nearby = Lists.newArrayList(world.getParentClaimsWithin(area));
+        nearby.sort(Comparator.comparingLong(claim -> getDistanceSquared(claim.getRegion(), position)));
+
+        // Budget points within the bounds the highlighter will show, which are centered on the user
+        final Region view = HighlightViews.getBounds(getPlugin(), user.getPosition());
+        final List<Claim> claims = Lists.newArrayList();
+        int highlighted = 0;
+        int points = 0;
+        for (Claim claim : nearby) {
+            if (highlighted >= settings.getMaxClaims()) {
+                break;
+            }
+            int claimPoints = claim.getHighlightPoints(world, false, view).size();
+            for (Claim child : claim.getChildren()) {
+                claimPoints += child.getHighlightPoints(world, false, view).size();
+            }
+            if (claimPoints == 0) {
+                continue;
+            }
+            if (points + claimPoints > settings.getMaxPoints()) {
+                break;
+            }
+            points += claimPoints;
+            highlighted++;
+            claims.add(claim);
+            claims.addAll(claim.getChildren());
+        }
+
+        if (claims.isEmpty()) {
+            getPlugin().getLocales().getLocale("no_nearby_claims")
+                    .ifPresent(user::sendMessage);
+            return;
+        }
+        getPlugin().getHighlighter().startHighlighting(user, user.getWorld(), claims);
+        getPlugin().getLocales().getLocale("nearby_claims_highlighted", Integer.toString(highlighted))
+                .ifPresent(user::sendMessage);
+    }
+
+    // Get the squared horizontal distance from a position to the nearest point of a region
+    private static long getDistanceSquared(@NotNull Region region, @NotNull Position position) {
+        final long dx = Math.max(0, Math.max(region.getNearCorner().getBlockX() - position.getBlockX(),
+                position.getBlockX() - region.getFarCorner().getBlockX()));
+        final long dz = Math.max(0, Math.max(region.getNearCorner().getBlockZ() - position.getBlockZ(),
+                position.getBlockZ() - region.getFarCorner().getBlockZ()));
+        return dx * dx + dz * dz;
+    }
+
     @NotNull
     HuskClaims getPlugin();
 
@@ -28,10 +28,15 @@ public interface UserListener {
 
     default void onUserJoin(@NotNull OnlineUser user) {
         getPlugin().loadUserData(user);
+        getPlugin().addLocalUser(user);
+        getPlugin().getBroker().ifPresent(broker -> broker.onUserJoin(user));
     }
 
     default void onUserQuit(@NotNull OnlineUser user) {
-
+        getPlugin().getHighlighter().stopHighlighting(user);
+        getPlugin().removeLocalUser(user);
+        getPlugin().getClaimTracker().untrack(user);
+        getPlugin().getClaimLocalityCache().invalidate(user.getUuid());
     }
 
     default void onUserPlayOneHour(@NotNull OnlineUser user) {
@@ -19,27 +19,52 @@
 
 package net.william278.huskclaims.network;
 
+import com.google.common.collect.Queues;
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.user.OnlineUser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 /**
  * A broker for dispatching {@link Message}s across the proxy network
  */
 @Getter
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class Broker implements MessageHandler {
 
+    // Max number of messages queued while waiting for a user to send them through
+    private static final int MAX_PENDING_MESSAGES = 1000;
+    // Delay after a user joins before sending queued messages, so that their plugin channels are registered
+    private static final long PENDING_MESSAGE_FLUSH_DELAY_TICKS = 20;
+
     protected final HuskClaims plugin;
+    private final VersionTracker<UUID> userVersions = new VersionTracker<>();
+    private final VersionTracker<UUID> groupVersions = new VersionTracker<>();
+    private final MessageSequencer sequencer = new MessageSequencer();
+    private final MessageCoalescer coalescer;
+    private final ClaimDeltaVersions claimDeltaVersions = new ClaimDeltaVersions();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    @Getter(AccessLevel.NONE)
+    private final Queue<Message> pendingMessages = Queues.newConcurrentLinkedQueue();
+
+    protected Broker(@NotNull HuskClaims plugin) {
+        this.plugin = plugin;
+        this.coalescer = new MessageCoalescer(plugin);
+    }
 
     /**
      * Handle an inbound {@link Message}
+     * <p>
+     * Duplicate messages are dropped. Of the invalidations for the same key arriving within the
+     * {@link net.william278.huskclaims.config.Settings.CrossServerSettings#getInvalidationCoalesceMillis()
+     * coalescing window}, only the first and the newest are handled.
      *
      * @param receiver The user who received the message if a receiver exists
      * @param message  The message
@@ -48,11 +73,30 @@ public abstract class Broker implements MessageHandler {
         if (message.getSourceServer().equals(getServer())) {
             return;
         }
+        if (!sequencer.accept(message)) {
+            duplicateCount.incrementAndGet();
+            return;
+        }
+        if (isCoalesced(message.getType()) && coalescer.offer(receiver, message,
+                plugin.getSettings().getCrossServer().getInvalidationCoalesceMillis(),
+                (kept, keptMessage) -> plugin.runAsync(() -> dispatch(kept, keptMessage)))) {
+            return;
+        }
+        dispatch(receiver, message);
+    }
+
+    private static boolean isCoalesced(@NotNull Message.MessageType type) {
+        return type == Message.MessageType.INVALIDATE_USER_CACHE || type == Message.MessageType.INVALIDATE_USER_GROUPS;
+    }
+
+    // Dispatch a message to its handler
+    private void dispatch(@Nullable OnlineUser receiver, @NotNull Message message) {
         switch (message.getType()) {
             case REQUEST_USER_LIST -> handleRequestUserList(message, receiver);
             case UPDATE_USER_LIST -> handleUpdateUserList(message);
             case INVALIDATE_USER_GROUPS -> handleInvalidateUserGroups(message);
             case INVALIDATE_USER_CACHE -> handleInvalidateUserCache(message);
+            case CLAIM_CREATED, CLAIM_RESIZED, CLAIM_DELETED, CLAIM_UPDATED -> handleClaimDelta(message);
             default -> plugin.log(Level.SEVERE, "Received unknown message type: " + message.getType());
         }
     }
@@ -72,6 +116,54 @@ public abstract class Broker implements MessageHandler {
      */
     protected abstract void send(@NotNull Message message, @NotNull OnlineUser sender);
 
+    /**
+     * Send a message on behalf of this server, rather than a user
+     * <p>
+     * Plugin messages can only be sent through an online user, so if nobody is online, the message is queued until
+     * a user joins. Messages are sent in the order they were queued.
+     *
+     * @param message the message to send
+     * @since 1.0
+     */
+    public void sendFromServer(@NotNull Message message) {
+        pendingMessages.add(message);
+        while (pendingMessages.size() > MAX_PENDING_MESSAGES && pendingMessages.poll() != null) {
+            plugin.log(Level.WARNING, "Too many messages are waiting for a user to join; dropped the oldest");
+        }
+        flushPendingMessages();
+    }
+
+    /**
+     * Send the messages queued by {@link #sendFromServer(Message)}, if a user is online to send them through
+     *
+     * @since 1.0
+     */
+    public synchronized void flushPendingMessages() {
+        if (pendingMessages.isEmpty()) {
+            return;
+        }
+        final Optional<? extends OnlineUser> sender = plugin.findAnyOnlineUser();
+        if (sender.isEmpty()) {
+            return;
+        }
+        Message message;
+        while ((message = pendingMessages.poll()) != null) {
+            message.send(this, sender.get());
+        }
+    }
+
+    /**
+     * Called when a user joins, to send messages queued while nobody was online once they are connected
+     *
+     * @param user the user who joined
+     * @since 1.0
+     */
+    public void onUserJoin(@NotNull OnlineUser user) {
+        if (!pendingMessages.isEmpty()) {
+            plugin.runSyncDelayed(this::flushPendingMessages, PENDING_MESSAGE_FLUSH_DELAY_TICKS);
+        }
+    }
+
     /**
      * Move an {@link OnlineUser} to a new server on the proxy network
      *
@@ -80,20 +172,49 @@ public abstract class Broker implements MessageHandler {
      */
     public abstract void changeServer(@NotNull OnlineUser user, @NotNull String server);
 
+    /**
+     * Get the cluster-level cache of user data shared by servers using this broker, if supported and enabled
+     *
+     * @return the shared user cache, if available
+     * @since 1.0
+     */
+    public Optional<SharedUserCache> getSharedUserCache() {
+        return Optional.empty();
+    }
+
+    /**
+     * Get the number of inbound messages suppressed, either as duplicates or by coalescing
+     *
+     * @return the suppressed message count
+     * @since 1.0
+     */
+    public long getSuppressedCount() {
+        return duplicateCount.get() + coalescer.getCoalescedCount();
+    }
+
     /**
      * Terminate the broker
      */
-    public abstract void close();
+    public void close() {
+        coalescer.close();
+        pendingMessages.clear();
+    }
 
     /**
      * Get the sub-channel ID for broker communications
+     * <p>
+     * This includes the {@link MessageCodec#PROTOCOL_VERSION}, so servers will only exchange messages with servers
+     * using the same message format.
      *
      * @return the sub-channel ID
      * @since 1.0
      */
     @NotNull
     protected String getSubChannelId() {
-        return plugin.getKey(plugin.getSettings().getCrossServer().getClusterId(), getFormattedVersion()).asString();
+        return plugin.getKey(
+                plugin.getSettings().getCrossServer().getClusterId(),
+                String.format("%s-p%s", getFormattedVersion(), MessageCodec.PROTOCOL_VERSION)
+        ).asString();
     }
 
     /**
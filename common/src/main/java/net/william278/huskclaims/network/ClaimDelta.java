@@ -0,0 +1,102 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.position.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A change to the top-level claims of a {@link net.william278.huskclaims.claim.ClaimWorld}, used to replicate claim
+ * state across servers.
+ * <p>
+ * Claims with a region in {@code removed} are removed, then the (JSON-serialized) {@code claims} are added.
+ *
+ * @param world   the world the claims are in
+ * @param removed regions of top-level claims to remove or replace
+ * @param claims  JSON of top-level claims to add, including their children
+ * @param users   names of users referenced by the claims, to add to the claim world user cache
+ * @param version the {@link ClaimDeltaVersions version} of this delta to the world
+ * @since 1.0
+ */
+public record ClaimDelta(@NotNull World world, @NotNull List<Region> removed,
+                         @NotNull List<String> claims, @NotNull Map<UUID, String> users, long version) {
+
+    @NotNull
+    static ClaimDelta read(@NotNull ByteArrayDataInput input) {
+        final World world = World.of(MessageCodec.readString(input), MessageCodec.readUuid(input));
+
+        final int removedCount = MessageCodec.readVarInt(input);
+        final List<Region> removed = Lists.newArrayListWithCapacity(removedCount);
+        for (int i = 0; i < removedCount; i++) {
+            removed.add(Region.from(
+                    Region.Point.at(MessageCodec.readSignedVarInt(input), MessageCodec.readSignedVarInt(input)),
+                    Region.Point.at(MessageCodec.readSignedVarInt(input), MessageCodec.readSignedVarInt(input))
+            ));
+        }
+
+        final int claimCount = MessageCodec.readVarInt(input);
+        final List<String> claims = Lists.newArrayListWithCapacity(claimCount);
+        for (int i = 0; i < claimCount; i++) {
+            claims.add(MessageCodec.readString(input));
+        }
+
+        final int userCount = MessageCodec.readVarInt(input);
+        final Map<UUID, String> users = Maps.newHashMapWithExpectedSize(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.put(MessageCodec.readUuid(input), MessageCodec.readString(input));
+        }
+        return new ClaimDelta(world, removed, claims, users, MessageCodec.readVarLong(input));
+    }
+
+    void write(@NotNull ByteArrayDataOutput output) {
+        MessageCodec.writeString(output, world.getName());
+        MessageCodec.writeUuid(output, world.getUuid());
+
+        MessageCodec.writeVarInt(output, removed.size());
+        for (Region region : removed) {
+            MessageCodec.writeSignedVarInt(output, region.getNearCorner().getBlockX());
+            MessageCodec.writeSignedVarInt(output, region.getNearCorner().getBlockZ());
+            MessageCodec.writeSignedVarInt(output, region.getFarCorner().getBlockX());
+            MessageCodec.writeSignedVarInt(output, region.getFarCorner().getBlockZ());
+        }
+
+        MessageCodec.writeVarInt(output, claims.size());
+        for (String claim : claims) {
+            MessageCodec.writeString(output, claim);
+        }
+
+        MessageCodec.writeVarInt(output, users.size());
+        for (Map.Entry<UUID, String> user : users.entrySet()) {
+            MessageCodec.writeUuid(output, user.getKey());
+            MessageCodec.writeString(output, user.getValue());
+        }
+        MessageCodec.writeVarLong(output, version);
+    }
+
+}
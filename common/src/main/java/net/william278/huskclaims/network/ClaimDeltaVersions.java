@@ -0,0 +1,161 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.position.ServerWorld;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions {@link ClaimDelta}s per world, so that servers replicating another server's claims can detect missed
+ * deltas.
+ * <p>
+ * Outbound deltas are numbered consecutively per world for each broker session. A replica that receives a delta which
+ * doesn't follow the last one it applied has missed a change, and must reload the world's claims from the database.
+ * Deltas received while the reload is in progress are buffered and applied once it has finished.
+ *
+ * @since 1.0
+ */
+public class ClaimDeltaVersions {
+
+    private final ConcurrentMap<String, AtomicLong> outbound = Maps.newConcurrentMap();
+    private final Map<ServerWorld, Replica> replicas = Maps.newHashMap();
+
+    /**
+     * Get the next version for a delta to a world on this server
+     *
+     * @param world the name of the world
+     * @return the next delta version, starting at 1
+     * @since 1.0
+     */
+    public long next(@NotNull String world) {
+        return outbound.computeIfAbsent(world, w -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Record an inbound delta, returning how it should be handled
+     *
+     * @param world   the world the delta is for, on its source server
+     * @param session the broker session of the source server
+     * @param delta   the delta
+     * @return how to handle the delta
+     * @since 1.0
+     */
+    @NotNull
+    public synchronized Result accept(@NotNull ServerWorld world, long session, @NotNull ClaimDelta delta) {
+        final long version = delta.version();
+        final Replica replica = replicas.get(world);
+        if (replica == null) {
+            // Claims were loaded from the database on startup, so only the first delta of a session follows them
+            replicas.put(world, new Replica(session, version));
+            return version == 1 ? Result.APPLY : startResync(replicas.get(world));
+        }
+        if (replica.resyncing) {
+            replica.buffered.add(delta);
+            replica.session = session;
+            replica.version = Math.max(replica.version, version);
+            return Result.BUFFERED;
+        }
+        if (replica.session != session) {
+            replica.session = session;
+            replica.version = version;
+            return version == 1 ? Result.APPLY : startResync(replica);
+        }
+        if (version <= replica.version) {
+            return Result.STALE;
+        }
+        final boolean gap = version != replica.version + 1;
+        replica.version = version;
+        return gap ? startResync(replica) : Result.APPLY;
+    }
+
+    @NotNull
+    private static Result startResync(@NotNull Replica replica) {
+        replica.resyncing = true;
+        return Result.RESYNC;
+    }
+
+    /**
+     * Take the deltas buffered while a world was being reloaded. Once this returns an empty list, the reload is
+     * complete and new deltas are applied as they arrive again.
+     *
+     * @param world the world being reloaded
+     * @return the buffered deltas to apply, in the order they were received
+     * @since 1.0
+     */
+    @NotNull
+    public synchronized List<ClaimDelta> drainResync(@NotNull ServerWorld world) {
+        final Replica replica = replicas.get(world);
+        if (replica == null || replica.buffered.isEmpty()) {
+            if (replica != null) {
+                replica.resyncing = false;
+            }
+            return List.of();
+        }
+        final List<ClaimDelta> buffered = List.copyOf(replica.buffered);
+        replica.buffered.clear();
+        return buffered;
+    }
+
+    /**
+     * How an inbound delta should be handled
+     *
+     * @since 1.0
+     */
+    public enum Result {
+        /**
+         * The delta follows the last one applied and should be applied
+         */
+        APPLY,
+        /**
+         * The delta is older than the last one applied and should be ignored
+         */
+        STALE,
+        /**
+         * Deltas have been missed; the world should be reloaded, then the buffered deltas applied
+         */
+        RESYNC,
+        /**
+         * The world is being reloaded; the delta has been buffered to be applied afterward
+         */
+        BUFFERED
+    }
+
+    // The last delta applied to a replicated world
+    private static final class Replica {
+        private final List<ClaimDelta> buffered = Lists.newArrayList();
+        private long session;
+        private long version;
+        private boolean resyncing;
+
+        private Replica(long session, long version) {
+            this.session = session;
+            this.version = version;
+        }
+    }
+
+}
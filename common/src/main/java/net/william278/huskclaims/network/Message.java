@@ -19,6 +19,8 @@
 
 package net.william278.huskclaims.network;
 
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import lombok.Getter;
@@ -56,6 +58,8 @@ public class Message {
     @Expose
     @SerializedName("source_server")
     private String sourceServer;
+    private long session;
+    private long sequence;
 
     private Message(@NotNull MessageType type, @NotNull String target, @NotNull TargetType targetType, @NotNull Payload payload) {
         this.type = type;
@@ -69,20 +73,54 @@ public class Message {
         return new Builder();
     }
 
+    // Read a message encoded by #write
+    @NotNull
+    static Message read(@NotNull ByteArrayDataInput input) {
+        final Message message = new Message();
+        message.type = MessageCodec.readEnum(input, MessageType.class);
+        message.targetType = MessageCodec.readEnum(input, TargetType.class);
+        message.target = MessageCodec.readString(input);
+        message.sender = MessageCodec.readString(input);
+        message.sourceServer = MessageCodec.readString(input);
+        message.session = input.readLong();
+        message.sequence = MessageCodec.readVarLong(input);
+        message.payload = Payload.read(input);
+        return message;
+    }
+
+    // Write this message in the MessageCodec binary format
+    void write(@NotNull ByteArrayDataOutput output) {
+        MessageCodec.writeVarInt(output, type.ordinal());
+        MessageCodec.writeVarInt(output, targetType.ordinal());
+        MessageCodec.writeString(output, target);
+        MessageCodec.writeString(output, sender);
+        MessageCodec.writeString(output, sourceServer);
+        output.writeLong(session);
+        MessageCodec.writeVarLong(output, sequence);
+        payload.write(output);
+    }
+
     public void send(@NotNull Broker broker, @NotNull OnlineUser sender) {
-        this.sender = sender.getName();
-        this.sourceServer = broker.getServer();
+        stamp(sender.getName(), broker.getServer(), broker.getSequencer());
         broker.send(this, sender);
     }
 
+    // Set the sender, source server and sequence of this message before it is sent
+    void stamp(@NotNull String sender, @NotNull String sourceServer, @NotNull MessageSequencer sequencer) {
+        this.sender = sender;
+        this.sourceServer = sourceServer;
+        this.session = sequencer.getSession();
+        this.sequence = sequencer.next();
+    }
+
     /**
      * Builder for {@link Message}s
      */
     public static class Builder {
         private MessageType type;
         private Payload payload = Payload.empty();
-        private TargetType targetType = TargetType.PLAYER;
-        private String target;
+        private TargetType targetType = TargetType.SERVER;
+        private String target = TARGET_ALL;
 
         private Builder() {
         }
@@ -147,7 +185,8 @@ public class Message {
      */
     public enum MessageType {
         /**
-         * Notify other servers of the need to update user groups for the user by payload.
+         * Notify other servers that the user groups owned by the user by payload have changed. Carries the owner's
+         * new groups and a version; the groups are only applied if the version is newer than the last seen.
          */
         INVALIDATE_USER_GROUPS,
         /**
@@ -159,8 +198,26 @@ public class Message {
          */
         UPDATE_USER_LIST,
         /**
-         * Invalidate the user cache for the user by payload.
+         * Notify other servers that the data of the user by payload has changed. Carries a {@link UserSnapshot} and
+         * a version; cached data is only replaced if the version is newer than the last seen.
+         */
+        INVALIDATE_USER_CACHE,
+        /**
+         * Notify other servers that a claim has been created, with a {@link ClaimDelta} payload.
+         */
+        CLAIM_CREATED,
+        /**
+         * Notify other servers that a claim has been resized, with a {@link ClaimDelta} payload.
+         */
+        CLAIM_RESIZED,
+        /**
+         * Notify other servers that claims have been deleted, with a {@link ClaimDelta} payload.
+         */
+        CLAIM_DELETED,
+        /**
+         * Notify other servers that a claim's trustees, flags or children have changed, with a {@link ClaimDelta}
+         * payload.
          */
-        INVALIDATE_USER_CACHE
+        CLAIM_UPDATED
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces inbound invalidation {@link Message}s for the same key that arrive within a short window, so that a
+ * burst of invalidations results in at most two actions.
+ * <p>
+ * The first message for a key is handled immediately and opens a window. Later messages for the key within the
+ * window replace the kept message if they carry newer state, and are otherwise suppressed. When the window closes,
+ * the kept message, if any, is handled and a new window opened. Windows are timed by the plugin's task scheduler,
+ * so are rounded up to whole ticks.
+ *
+ * @since 1.0
+ */
+public class MessageCoalescer {
+
+    private static final long MILLIS_PER_TICK = 50;
+
+    private final HuskClaims plugin;
+    private final ConcurrentMap<Key, Window> windows = Maps.newConcurrentMap();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private volatile boolean closed;
+
+    public MessageCoalescer(@NotNull HuskClaims plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Offer an inbound message to be coalesced
+     *
+     * @param receiver     the user who received the message, if any
+     * @param message      the message
+     * @param windowMillis the coalescing window, in milliseconds
+     * @param handler      handler for the message kept when the window closes, called on the main thread
+     * @return {@code false} if the message is not coalesced and should be handled immediately
+     * @since 1.0
+     */
+    public boolean offer(@Nullable OnlineUser receiver, @NotNull Message message, long windowMillis,
+                         @NotNull BiConsumer<OnlineUser, Message> handler) {
+        final UUID uuid = message.getPayload().getUuid().orElse(null);
+        if (closed || windowMillis <= 0 || uuid == null) {
+            return false;
+        }
+
+        final Key key = new Key(message.getType(), uuid);
+        final boolean[] leading = {false};
+        windows.compute(key, (k, window) -> {
+            if (window == null) {
+                leading[0] = true;
+                return Window.EMPTY;
+            }
+            if (window.kept() != null) {
+                coalescedCount.incrementAndGet();
+                if (!isNewer(message, window.kept().message())) {
+                    return window;
+                }
+            }
+            return new Window(new Pending(receiver, message));
+        });
+        if (leading[0]) {
+            scheduleClose(key, windowMillis, handler);
+            return false;
+        }
+        return true;
+    }
+
+    // Versioned messages replace the kept message only if newer; unversioned messages always do
+    private static boolean isNewer(@NotNull Message message, @NotNull Message kept) {
+        final long version = message.getPayload().getVersion().orElse(Long.MAX_VALUE);
+        return version >= kept.getPayload().getVersion().orElse(Long.MIN_VALUE);
+    }
+
+    private void scheduleClose(@NotNull Key key, long windowMillis, @NotNull BiConsumer<OnlineUser, Message> handler) {
+        final long ticks = Math.max(1, (windowMillis + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK);
+        plugin.runSyncDelayed(() -> closeWindow(key, windowMillis, handler), ticks);
+    }
+
+    // Handle the message kept in a closing window, opening a new window if there was one
+    private void closeWindow(@NotNull Key key, long windowMillis, @NotNull BiConsumer<OnlineUser, Message> handler) {
+        if (closed) {
+            return;
+        }
+        final Pending[] kept = {null};
+        windows.computeIfPresent(key, (k, window) -> {
+            kept[0] = window.kept();
+            return kept[0] == null ? null : Window.EMPTY;
+        });
+        if (kept[0] != null) {
+            scheduleClose(key, windowMillis, handler);
+            handler.accept(kept[0].receiver(), kept[0].message());
+        }
+    }
+
+    /**
+     * Get the number of messages suppressed by coalescing
+     *
+     * @return the coalesced message count
+     * @since 1.0
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Stop coalescing messages; open windows are discarded, and messages offered afterward are not coalesced
+     *
+     * @since 1.0
+     */
+    public void close() {
+        closed = true;
+        windows.clear();
+    }
+
+    private record Key(@NotNull Message.MessageType type, @NotNull UUID uuid) {
+    }
+
+    private record Window(@Nullable Pending kept) {
+        private static final Window EMPTY = new Window(null);
+    }
+
+    private record Pending(@Nullable OnlineUser receiver, @NotNull Message message) {
+    }
+
+}
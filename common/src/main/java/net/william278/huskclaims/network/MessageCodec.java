@@ -0,0 +1,164 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Compact binary codec for {@link Message}s sent by a {@link Broker}.
+ * <p>
+ * Strings are written as a varint byte length followed by UTF-8 bytes, UUIDs as two longs, and enums by ordinal.
+ * Changes to the wire format must bump {@link #PROTOCOL_VERSION}, which is part of the
+ * {@link Broker#getSubChannelId() broker sub-channel ID}, so servers on different formats ignore each other.
+ *
+ * @since 1.0
+ */
+public final class MessageCodec {
+
+    /**
+     * The current version of the binary message format
+     */
+    public static final int PROTOCOL_VERSION = 5;
+
+    private MessageCodec() {
+    }
+
+    /**
+     * Encode a message to bytes
+     *
+     * @param message the message to encode
+     * @return the encoded message
+     * @since 1.0
+     */
+    public static byte[] encode(@NotNull Message message) {
+        final ByteArrayDataOutput output = ByteStreams.newDataOutput(64);
+        message.write(output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Decode a message from bytes
+     *
+     * @param bytes the encoded message
+     * @return the decoded message
+     * @throws IllegalStateException if the message is malformed
+     * @since 1.0
+     */
+    @NotNull
+    public static Message decode(byte[] bytes) throws IllegalStateException {
+        return Message.read(ByteStreams.newDataInput(bytes));
+    }
+
+    static void writeVarInt(@NotNull ByteArrayDataOutput output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readVarInt(@NotNull ByteArrayDataInput input) {
+        int value = 0;
+        int shift = 0;
+        byte read;
+        do {
+            if (shift >= 35) {
+                throw new IllegalStateException("VarInt is too long");
+            }
+            read = input.readByte();
+            value |= (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+        return value;
+    }
+
+    static void writeVarLong(@NotNull ByteArrayDataOutput output, long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    static long readVarLong(@NotNull ByteArrayDataInput input) {
+        long value = 0;
+        int shift = 0;
+        byte read;
+        do {
+            if (shift >= 70) {
+                throw new IllegalStateException("VarLong is too long");
+            }
+            read = input.readByte();
+            value |= (long) (read & 0x7F) << shift;
+            shift += 7;
+        } while ((read & 0x80) != 0);
+        return value;
+    }
+
+    // Zig-zag encode signed ints so that small negative values stay small
+    static void writeSignedVarInt(@NotNull ByteArrayDataOutput output, int value) {
+        writeVarInt(output, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(@NotNull ByteArrayDataInput input) {
+        final int value = readVarInt(input);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeString(@NotNull ByteArrayDataOutput output, @NotNull String string) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    @NotNull
+    static String readString(@NotNull ByteArrayDataInput input) {
+        final byte[] bytes = new byte[readVarInt(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeUuid(@NotNull ByteArrayDataOutput output, @NotNull UUID uuid) {
+        output.writeLong(uuid.getMostSignificantBits());
+        output.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    @NotNull
+    static UUID readUuid(@NotNull ByteArrayDataInput input) {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    @NotNull
+    static <E extends Enum<E>> E readEnum(@NotNull ByteArrayDataInput input, @NotNull Class<E> type) {
+        final int ordinal = readVarInt(input);
+        final E[] values = type.getEnumConstants();
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalStateException("Invalid " + type.getSimpleName() + " ordinal: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+}
@@ -20,11 +20,17 @@
 package net.william278.huskclaims.network;
 
 import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.group.UserGroup;
+import net.william278.huskclaims.position.ServerWorld;
 import net.william278.huskclaims.user.OnlineUser;
 import net.william278.huskclaims.user.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+
 public interface MessageHandler {
 
     // Handle inbound user list requests
@@ -47,18 +53,64 @@ public interface MessageHandler {
         );
     }
 
-    // Handle inbound user group updates
+    // Handle inbound user group updates, applying the new groups if they are newer than the last seen
     default void handleInvalidateUserGroups(@NotNull Message message) {
-        message.getPayload().getUuid().ifPresent(
-                uuid -> getPlugin().setUserGroups(uuid, getPlugin().getDatabase().getUserGroups(uuid))
-        );
+        final Payload payload = message.getPayload();
+        payload.getUuid().ifPresent(owner -> {
+            final Optional<List<UserGroup>> groups = payload.getUserGroups();
+            final Optional<Long> version = payload.getVersion();
+            if (groups.isEmpty() || version.isEmpty()) {
+                getPlugin().setUserGroups(owner, getPlugin().getDatabase().getUserGroups(owner));
+                return;
+            }
+            if (getBroker().getGroupVersions().accept(owner, version.get())) {
+                getPlugin().setUserGroups(owner, groups.get());
+            }
+        });
     }
 
-    // Handle inbound user cache invalidation
+    // Handle inbound user data updates, replacing cached data if it is newer than the last seen
     default void handleInvalidateUserCache(@NotNull Message message) {
-        message.getPayload().getUuid().ifPresent(
-                uuid -> getPlugin().invalidateUserCache(uuid)
-        );
+        final Payload payload = message.getPayload();
+        payload.getUuid().ifPresent(uuid -> {
+            final Optional<UserSnapshot> snapshot = payload.getUserSnapshot();
+            final Optional<Long> version = payload.getVersion();
+            if (snapshot.isEmpty() || version.isEmpty()) {
+                getPlugin().invalidateUserCache(uuid);
+                return;
+            }
+            if (getBroker().getUserVersions().accept(uuid, version.get())) {
+                getPlugin().getUserCache().computeIfPresent(uuid,
+                        (key, cached) -> snapshot.get().toSavedUser(getPlugin()));
+            }
+        });
+    }
+
+    // Handle inbound claim deltas, reloading the claim world if deltas have been missed
+    default void handleClaimDelta(@NotNull Message message) {
+        message.getPayload().getClaimDelta().ifPresent(delta -> {
+            final ServerWorld world = new ServerWorld(message.getSourceServer(), delta.world());
+            switch (getBroker().getClaimDeltaVersions().accept(world, message.getSession(), delta)) {
+                case APPLY -> getPlugin().applyClaimDelta(world.server(), delta);
+                case RESYNC -> getPlugin().runAsync(() -> resyncClaimWorld(world));
+                default -> {
+                }
+            }
+        });
+    }
+
+    // Reload a replicated claim world, then apply the deltas received while it was loading
+    private void resyncClaimWorld(@NotNull ServerWorld world) {
+        getPlugin().log(Level.INFO, String.format("Missed claim changes in %s; reloading its claims", world));
+        try {
+            getPlugin().loadReplicatedClaimWorld(world);
+        } catch (IllegalStateException e) {
+            getPlugin().log(Level.WARNING, String.format("Failed to reload claims in %s", world), e);
+        }
+        List<ClaimDelta> buffered;
+        while (!(buffered = getBroker().getClaimDeltaVersions().drainResync(world)).isEmpty()) {
+            buffered.forEach(delta -> getPlugin().applyClaimDelta(world.server(), delta));
+        }
     }
 
     @NotNull
@@ -0,0 +1,108 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assigns sequence numbers to outbound {@link Message}s and detects duplicate inbound messages.
+ * <p>
+ * Each broker has a random session ID, so sequences restart cleanly when a server restarts. For each source server,
+ * the highest sequence seen and a bitmap of the {@link #WINDOW_SIZE} sequences below it are kept, so that
+ * messages arriving out of order are still accepted exactly once.
+ *
+ * @since 1.0
+ */
+public class MessageSequencer {
+
+    /**
+     * The number of sequences below the highest seen from a source that are tracked for duplicates. Messages older
+     * than this are dropped as stale.
+     */
+    public static final int WINDOW_SIZE = 64;
+
+    @Getter
+    private final long session = ThreadLocalRandom.current().nextLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<String, Window> windows = Maps.newConcurrentMap();
+
+    /**
+     * Get the next sequence number for an outbound message
+     *
+     * @return the sequence number
+     * @since 1.0
+     */
+    public long next() {
+        return sequence.incrementAndGet();
+    }
+
+    /**
+     * Record an inbound message, returning whether it has not been seen before
+     *
+     * @param message the message
+     * @return {@code true} if the message is new and should be handled
+     * @since 1.0
+     */
+    public boolean accept(@NotNull Message message) {
+        final Window window = windows.compute(message.getSourceServer(), (server, last) ->
+                last == null || last.session != message.getSession() ? new Window(message.getSession()) : last);
+        synchronized (window) {
+            return window.accept(message.getSequence());
+        }
+    }
+
+    // Anti-replay window of the sequences seen from one source server session
+    private static final class Window {
+        private final long session;
+        private long highest;
+        private long seen;
+
+        private Window(long session) {
+            this.session = session;
+        }
+
+        private boolean accept(long sequence) {
+            if (sequence > highest) {
+                final long shift = sequence - highest;
+                seen = shift >= WINDOW_SIZE ? 0 : seen << shift;
+                seen |= 1;
+                highest = sequence;
+                return true;
+            }
+            final long offset = highest - sequence;
+            if (offset >= WINDOW_SIZE) {
+                return false;
+            }
+            final long bit = 1L << offset;
+            if ((seen & bit) != 0) {
+                return false;
+            }
+            seen |= bit;
+            return true;
+        }
+    }
+
+}
@@ -19,10 +19,14 @@
 
 package net.william278.huskclaims.network;
 
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import net.william278.huskclaims.group.UserGroup;
 import net.william278.huskclaims.user.User;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -50,6 +54,14 @@ public class Payload {
     @Expose
     @SerializedName("user_list")
     private List<User> userList;
+    @Nullable
+    private ClaimDelta claimDelta;
+    @Nullable
+    private UserSnapshot userSnapshot;
+    @Nullable
+    private List<UserGroup> userGroups;
+    @Nullable
+    private Long version;
 
     @NotNull
     public static Payload empty() {
@@ -91,6 +103,146 @@ public class Payload {
         return payload;
     }
 
+    // Bit flags marking which fields are present in the binary format
+    private static final int HAS_UUID = 1;
+    private static final int HAS_INTEGER = 1 << 1;
+    private static final int HAS_BOOL = 1 << 2;
+    private static final int BOOL_VALUE = 1 << 3;
+    private static final int HAS_STRING = 1 << 4;
+    private static final int HAS_USER_LIST = 1 << 5;
+    private static final int HAS_CLAIM_DELTA = 1 << 6;
+    private static final int HAS_USER_SNAPSHOT = 1 << 7;
+    private static final int HAS_USER_GROUPS = 1 << 8;
+    private static final int HAS_VERSION = 1 << 9;
+
+    // Read a payload encoded by #write
+    @NotNull
+    static Payload read(@NotNull ByteArrayDataInput input) {
+        final Payload payload = new Payload();
+        final int fields = MessageCodec.readVarInt(input);
+        if ((fields & HAS_UUID) != 0) {
+            payload.uuid = MessageCodec.readUuid(input);
+        }
+        if ((fields & HAS_INTEGER) != 0) {
+            payload.integer = MessageCodec.readSignedVarInt(input);
+        }
+        if ((fields & HAS_BOOL) != 0) {
+            payload.bool = (fields & BOOL_VALUE) != 0;
+        }
+        if ((fields & HAS_STRING) != 0) {
+            payload.string = MessageCodec.readString(input);
+        }
+        if ((fields & HAS_USER_LIST) != 0) {
+            final int size = MessageCodec.readVarInt(input);
+            final List<User> users = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+                users.add(User.of(MessageCodec.readUuid(input), MessageCodec.readString(input)));
+            }
+            payload.userList = users;
+        }
+        if ((fields & HAS_CLAIM_DELTA) != 0) {
+            payload.claimDelta = ClaimDelta.read(input);
+        }
+        if ((fields & HAS_USER_SNAPSHOT) != 0) {
+            payload.userSnapshot = UserSnapshot.read(input);
+        }
+        if ((fields & HAS_USER_GROUPS) != 0) {
+            final int size = MessageCodec.readVarInt(input);
+            final List<UserGroup> groups = Lists.newArrayListWithCapacity(size);
+            for (int i = 0; i < size; i++) {
+                final UUID owner = MessageCodec.readUuid(input);
+                final String name = MessageCodec.readString(input);
+                final int memberCount = MessageCodec.readVarInt(input);
+                final List<User> members = Lists.newArrayListWithCapacity(memberCount);
+                for (int j = 0; j < memberCount; j++) {
+                    members.add(User.of(MessageCodec.readUuid(input), MessageCodec.readString(input)));
+                }
+                groups.add(new UserGroup(owner, name, members));
+            }
+            payload.userGroups = groups;
+        }
+        if ((fields & HAS_VERSION) != 0) {
+            payload.version = input.readLong();
+        }
+        return payload;
+    }
+
+    // Write this payload in the MessageCodec binary format
+    void write(@NotNull ByteArrayDataOutput output) {
+        int fields = 0;
+        fields |= uuid != null ? HAS_UUID : 0;
+        fields |= integer != null ? HAS_INTEGER : 0;
+        fields |= bool != null ? HAS_BOOL | (bool ? BOOL_VALUE : 0) : 0;
+        fields |= string != null ? HAS_STRING : 0;
+        fields |= userList != null ? HAS_USER_LIST : 0;
+        fields |= claimDelta != null ? HAS_CLAIM_DELTA : 0;
+        fields |= userSnapshot != null ? HAS_USER_SNAPSHOT : 0;
+        fields |= userGroups != null ? HAS_USER_GROUPS : 0;
+        fields |= version != null ? HAS_VERSION : 0;
+        MessageCodec.writeVarInt(output, fields);
+
+        if (uuid != null) {
+            MessageCodec.writeUuid(output, uuid);
+        }
+        if (integer != null) {
+            MessageCodec.writeSignedVarInt(output, integer);
+        }
+        if (string != null) {
+            MessageCodec.writeString(output, string);
+        }
+        if (userList != null) {
+            MessageCodec.writeVarInt(output, userList.size());
+            for (User user : userList) {
+                MessageCodec.writeUuid(output, user.getUuid());
+                MessageCodec.writeString(output, user.getName());
+            }
+        }
+        if (claimDelta != null) {
+            claimDelta.write(output);
+        }
+        if (userSnapshot != null) {
+            userSnapshot.write(output);
+        }
+        if (userGroups != null) {
+            MessageCodec.writeVarInt(output, userGroups.size());
+            for (UserGroup group : userGroups) {
+                MessageCodec.writeUuid(output, group.groupOwner());
+                MessageCodec.writeString(output, group.name());
+                MessageCodec.writeVarInt(output, group.members().size());
+                for (User member : group.members()) {
+                    MessageCodec.writeUuid(output, member.getUuid());
+                    MessageCodec.writeString(output, member.getName());
+                }
+            }
+        }
+        if (version != null) {
+            output.writeLong(version);
+        }
+    }
+
+    @NotNull
+    public static Payload claimDelta(@NotNull ClaimDelta delta) {
+        final Payload payload = new Payload();
+        payload.claimDelta = delta;
+        return payload;
+    }
+
+    @NotNull
+    public static Payload userSnapshot(@NotNull UserSnapshot snapshot, long version) {
+        final Payload payload = uuid(snapshot.user().getUuid());
+        payload.userSnapshot = snapshot;
+        payload.version = version;
+        return payload;
+    }
+
+    @NotNull
+    public static Payload userGroups(@NotNull UUID owner, @NotNull List<UserGroup> groups, long version) {
+        final Payload payload = uuid(owner);
+        payload.userGroups = groups;
+        payload.version = version;
+        return payload;
+    }
+
     public Optional<UUID> getUuid() {
         return Optional.ofNullable(uuid);
     }
@@ -111,4 +263,20 @@ public class Payload {
         return Optional.ofNullable(userList);
     }
 
+    public Optional<ClaimDelta> getClaimDelta() {
+        return Optional.ofNullable(claimDelta);
+    }
+
+    public Optional<UserSnapshot> getUserSnapshot() {
+        return Optional.ofNullable(userSnapshot);
+    }
+
+    public Optional<List<UserGroup>> getUserGroups() {
+        return Optional.ofNullable(userGroups);
+    }
+
+    public Optional<Long> getVersion() {
+        return Optional.ofNullable(version);
+    }
+
 }
@@ -19,14 +19,18 @@
 
 package net.william278.huskclaims.network;
 
+import com.google.common.collect.Maps;
 import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.util.Task;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.*;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 
 /**
@@ -46,6 +50,15 @@ public class PluginMessageBroker extends Broker {
      */
     public static final String BUNGEE_CHANNEL_ID = "BungeeCord";
 
+    // Max size of a message chunk; the proxy reads forwarded data lengths as a signed short
+    static final int MAX_CHUNK_SIZE = 30000;
+    // Max number of frames a message may be split across
+    static final int MAX_FRAMES = 256;
+    private static final long PARTIAL_MESSAGE_TIMEOUT_MILLIS = 30000;
+    private static final long PARTIAL_MESSAGE_SWEEP_TICKS = 20 * 10;
+    private final Map<Long, PartialMessage> partialMessages = Maps.newConcurrentMap();
+    private Task.Repeating sweepTask;
+
     protected PluginMessageBroker(@NotNull HuskClaims plugin) {
         super(plugin);
     }
@@ -53,6 +66,8 @@ public class PluginMessageBroker extends Broker {
     @Override
     public void initialize() throws RuntimeException {
         plugin.setupPluginMessagingChannels();
+        this.sweepTask = plugin.getRepeatingTask(this::sweepPartialMessages, PARTIAL_MESSAGE_SWEEP_TICKS);
+        this.sweepTask.run();
     }
 
     public final void onReceive(@NotNull String channel, @NotNull OnlineUser user, byte[] message) {
@@ -66,37 +81,68 @@ public class PluginMessageBroker extends Broker {
             return;
         }
 
-        short messageLength = inputStream.readShort();
-        byte[] messageBody = new byte[messageLength];
-        inputStream.readFully(messageBody);
+        final int frameLength = inputStream.readUnsignedShort();
+        final byte[] frame = new byte[frameLength];
+        inputStream.readFully(frame);
 
-        try (final DataInputStream messageReader = new DataInputStream(new ByteArrayInputStream(messageBody))) {
-            super.handle(user, plugin.getMessageFromJson(messageReader.readUTF()));
-        } catch (IOException e) {
+        try {
+            readFrame(frame).ifPresent(body -> super.handle(user, MessageCodec.decode(body)));
+        } catch (IllegalStateException e) {
             plugin.log(Level.SEVERE, "Failed to fully read plugin message", e);
         }
     }
 
+    // Read a frame, returning the full message body if this frame completes a message
+    private Optional<byte[]> readFrame(byte[] bytes) throws IllegalStateException {
+        final Frame frame = Frame.read(bytes);
+        if (frame.count() == 1) {
+            return Optional.of(frame.chunk());
+        }
+
+        // Reassemble messages split across multiple frames
+        final PartialMessage partial = partialMessages.computeIfAbsent(
+                frame.messageId(), id -> new PartialMessage(frame.count(), System.currentTimeMillis())
+        );
+        if (!partial.add(frame)) {
+            return Optional.empty();
+        }
+        partialMessages.remove(frame.messageId());
+        return Optional.of(partial.join());
+    }
+
+    // Drop partial messages whose remaining frames have not arrived in time
+    private void sweepPartialMessages() {
+        final long now = System.currentTimeMillis();
+        partialMessages.values().removeIf(partial -> now - partial.started > PARTIAL_MESSAGE_TIMEOUT_MILLIS);
+    }
+
     @Override
     protected void send(@NotNull Message message, @NotNull OnlineUser sender) {
-        final ByteArrayDataOutput messageWriter = ByteStreams.newDataOutput();
-        messageWriter.writeUTF(message.getTargetType().getPluginMessageChannel());
-        messageWriter.writeUTF(message.getTarget());
-        messageWriter.writeUTF(getSubChannelId());
-
-        // Write the plugin message
-        try (final ByteArrayOutputStream messageByteStream = new ByteArrayOutputStream()) {
-            try (DataOutputStream messageDataStream = new DataOutputStream(messageByteStream)) {
-                messageDataStream.writeUTF(plugin.getGson().toJson(message));
-                messageWriter.writeShort(messageByteStream.toByteArray().length);
-                messageWriter.write(messageByteStream.toByteArray());
-            }
-        } catch (IOException e) {
-            plugin.log(Level.SEVERE, "Exception dispatching plugin message", e);
-            return;
+        final byte[] body = MessageCodec.encode(message);
+        final long messageId = ThreadLocalRandom.current().nextLong();
+        final int count = Math.max(1, (body.length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        for (int index = 0; index < count; index++) {
+            final int offset = index * MAX_CHUNK_SIZE;
+            final int length = Math.min(MAX_CHUNK_SIZE, body.length - offset);
+
+            // Write the frame header and chunk
+            final ByteArrayDataOutput frameWriter = ByteStreams.newDataOutput(length + 16);
+            frameWriter.writeLong(messageId);
+            MessageCodec.writeVarInt(frameWriter, index);
+            MessageCodec.writeVarInt(frameWriter, count);
+            MessageCodec.writeVarInt(frameWriter, length);
+            frameWriter.write(body, offset, length);
+            final byte[] frame = frameWriter.toByteArray();
+
+            // Write the plugin message
+            final ByteArrayDataOutput messageWriter = ByteStreams.newDataOutput(frame.length + 64);
+            messageWriter.writeUTF(message.getTargetType().getPluginMessageChannel());
+            messageWriter.writeUTF(message.getTarget());
+            messageWriter.writeUTF(getSubChannelId());
+            messageWriter.writeShort(frame.length);
+            messageWriter.write(frame);
+            sender.sendPluginMessage(BUNGEE_CHANNEL_ID, messageWriter.toByteArray());
         }
-
-        sender.sendPluginMessage(BUNGEE_CHANNEL_ID, messageWriter.toByteArray());
     }
 
     @Override
@@ -111,5 +157,71 @@ public class PluginMessageBroker extends Broker {
 
     @Override
     public void close() {
+        super.close();
+        if (sweepTask != null) {
+            sweepTask.cancel();
+        }
+        partialMessages.clear();
+    }
+
+    /**
+     * A frame of a message split across one or more plugin messages
+     *
+     * @param messageId the ID of the message the frame is part of
+     * @param index     the index of this frame in the message
+     * @param count     the number of frames in the message
+     * @param chunk     the chunk of the message body carried by this frame
+     */
+    record Frame(long messageId, int index, int count, byte[] chunk) {
+
+        // Read and validate a frame, before allocating anything sized by its header
+        @NotNull
+        static Frame read(byte[] frame) throws IllegalStateException {
+            final ByteArrayDataInput frameReader = ByteStreams.newDataInput(frame);
+            final long messageId = frameReader.readLong();
+            final int index = MessageCodec.readVarInt(frameReader);
+            final int count = MessageCodec.readVarInt(frameReader);
+            if (count < 1 || count > MAX_FRAMES || index < 0 || index >= count) {
+                throw new IllegalStateException(String.format("Invalid frame %s of %s", index, count));
+            }
+            final int length = MessageCodec.readVarInt(frameReader);
+            if (length < 0 || length > MAX_CHUNK_SIZE || length > frame.length) {
+                throw new IllegalStateException("Invalid frame chunk length: " + length);
+            }
+            final byte[] chunk = new byte[length];
+            frameReader.readFully(chunk);
+            return new Frame(messageId, index, count, chunk);
+        }
+
+    }
+
+    // A message being reassembled from multiple frames
+    private static final class PartialMessage {
+        private final byte[][] chunks;
+        private final long started;
+        private int received;
+
+        private PartialMessage(int count, long started) {
+            this.chunks = new byte[count][];
+            this.started = started;
+        }
+
+        // Add a frame, returning whether the message is now complete
+        private synchronized boolean add(@NotNull Frame frame) {
+            if (frame.count() != chunks.length || chunks[frame.index()] != null) {
+                return false;
+            }
+            chunks[frame.index()] = frame.chunk();
+            return ++received == chunks.length;
+        }
+
+        private byte[] join() {
+            final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+            for (byte[] chunk : chunks) {
+                output.write(chunk);
+            }
+            return output.toByteArray();
+        }
     }
+
 }
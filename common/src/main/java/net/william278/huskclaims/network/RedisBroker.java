@@ -20,6 +20,7 @@
 package net.william278.huskclaims.network;
 
 import com.google.common.collect.Sets;
+import lombok.Getter;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.config.Settings;
 import net.william278.huskclaims.user.OnlineUser;
@@ -27,11 +28,17 @@ import org.jetbrains.annotations.NotNull;
 import redis.clients.jedis.*;
 import redis.clients.jedis.util.Pool;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 
 public class RedisBroker extends PluginMessageBroker {
     private Pool<Jedis> jedisPool;
+    @Getter
+    private RedisPublisher publisher;
+    private RedisSharedUserCache sharedUserCache;
 
     protected RedisBroker(@NotNull HuskClaims plugin) {
         super(plugin);
@@ -44,6 +51,14 @@ public class RedisBroker extends PluginMessageBroker {
         this.jedisPool = establishJedisPool();
         new Thread(getSubscriber(), plugin.getKey("redis_subscriber").toString()).start();
 
+        final Settings.CrossServerSettings.RedisSettings settings = plugin.getSettings().getCrossServer().getRedis();
+        this.publisher = new RedisPublisher(plugin, jedisPool, getSubChannelId().getBytes(StandardCharsets.UTF_8),
+                settings.getPublishQueueSize(), settings.getPublishFlushMillis());
+        this.publisher.start();
+        if (settings.isSharedUserCache()) {
+            this.sharedUserCache = new RedisSharedUserCache(plugin, jedisPool, settings.getSharedUserCacheTtlSeconds());
+        }
+
         plugin.log(Level.INFO, "Initialized Redis connection pool");
     }
 
@@ -76,42 +91,57 @@ public class RedisBroker extends PluginMessageBroker {
 
     @NotNull
     private Runnable getSubscriber() {
+        final byte[] subChannelId = getSubChannelId().getBytes(StandardCharsets.UTF_8);
         return () -> {
             try (Jedis jedis = jedisPool.getResource()) {
-                jedis.subscribe(new JedisPubSub() {
+                jedis.subscribe(new BinaryJedisPubSub() {
                     @Override
-                    public void onMessage(@NotNull String channel, @NotNull String encodedMessage) {
-                        if (!channel.equals(getSubChannelId())) {
+                    public void onMessage(byte[] channel, byte[] encodedMessage) {
+                        if (!Arrays.equals(channel, subChannelId)) {
                             return;
                         }
 
-                        final Message message = plugin.getMessageFromJson(encodedMessage);
+                        final Message message;
+                        try {
+                            message = MessageCodec.decode(encodedMessage);
+                        } catch (IllegalStateException e) {
+                            plugin.log(Level.SEVERE, "Failed to decode Redis message", e);
+                            return;
+                        }
                         if (message.getTargetType() == Message.TargetType.PLAYER) {
-                            plugin.getOnlineUsers().stream()
-                                    .filter(online -> online.getName().equalsIgnoreCase(message.getTarget()))
-                                    .findFirst()
-                                    .ifPresent(receiver -> handle(receiver, message));
+                            plugin.getOnlineUser(message.getTarget()).ifPresent(receiver -> handle(receiver, message));
                             return;
                         }
-                        handle(plugin.getOnlineUsers().stream().findAny().orElse(null), message);
+                        handle(plugin.findAnyOnlineUser().orElse(null), message);
                     }
-                }, getSubChannelId());
+                }, subChannelId);
             }
         };
     }
 
+    @Override
+    public Optional<SharedUserCache> getSharedUserCache() {
+        return Optional.ofNullable(sharedUserCache);
+    }
+
     @Override
     protected void send(@NotNull Message message, @NotNull OnlineUser sender) {
-        plugin.runAsync(() -> {
-            try (Jedis jedis = jedisPool.getResource()) {
-                jedis.publish(getSubChannelId(), plugin.getGson().toJson(message));
-            }
-        });
+        publisher.publish(MessageCodec.encode(message));
+    }
+
+    // Redis doesn't need a user to send through, so messages from the server are published straight away
+    @Override
+    public void sendFromServer(@NotNull Message message) {
+        message.stamp(getServer(), getServer(), getSequencer());
+        publisher.publish(MessageCodec.encode(message));
     }
 
     @Override
     public void close() {
         super.close();
+        if (publisher != null) {
+            publisher.close();
+        }
         if (jedisPool != null) {
             jedisPool.close();
         }
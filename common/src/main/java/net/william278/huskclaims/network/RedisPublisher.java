@@ -0,0 +1,237 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Lists;
+import net.william278.huskclaims.HuskClaims;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.util.Pool;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Publishes outbound Redis messages from a single thread, draining a bounded queue into pipelines
+ *
+ * @since 1.0
+ */
+public class RedisPublisher implements Runnable {
+
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final HuskClaims plugin;
+    private final Pool<Jedis> jedisPool;
+    private final byte[] channel;
+    private final long flushNanos;
+    private final BlockingQueue<Pending> queue;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    RedisPublisher(@NotNull HuskClaims plugin, @NotNull Pool<Jedis> jedisPool, byte[] channel,
+                   int queueSize, long flushMillis) {
+        this.plugin = plugin;
+        this.jedisPool = jedisPool;
+        this.channel = channel;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    /**
+     * Start the publisher thread
+     *
+     * @since 1.0
+     */
+    public void start() {
+        this.thread = new Thread(this, plugin.getKey("redis_publisher").toString());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue an encoded message to be published
+     *
+     * @param message the encoded message
+     * @return {@code true} if the message was queued, or {@code false} if the queue was full and it was dropped
+     * @since 1.0
+     */
+    public boolean publish(byte[] message) {
+        if (running && queue.offer(new Pending(message, System.nanoTime()))) {
+            return true;
+        }
+        final long count = dropped.incrementAndGet();
+        if (count == 1 || count % 1000 == 0) {
+            plugin.log(Level.WARNING, String.format("Redis publish queue is full; dropped %s message(s) so far", count));
+        }
+        return false;
+    }
+
+    @Override
+    public void run() {
+        final List<Pending> batch = Lists.newArrayListWithCapacity(MAX_BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                final Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Wait up to the flush interval for more messages to batch together
+                final long deadline = System.nanoTime() + flushNanos;
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    queue.drainTo(batch, MAX_BATCH_SIZE - batch.size());
+                    final long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= MAX_BATCH_SIZE || remaining <= 0 || !running) {
+                        break;
+                    }
+                    final Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+                queue.drainTo(batch);
+            }
+            flush(batch);
+        }
+    }
+
+    // Publish a batch of messages in a single pipeline
+    private void flush(@NotNull List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            final Pipeline pipeline = jedis.pipelined();
+            for (Pending pending : batch) {
+                pipeline.publish(channel, pending.message());
+            }
+            pipeline.sync();
+
+            final long now = System.nanoTime();
+            for (Pending pending : batch) {
+                final long latency = now - pending.queuedAt();
+                totalLatencyNanos.addAndGet(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+            published.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (Throwable e) {
+            dropped.addAndGet(batch.size());
+            plugin.log(Level.SEVERE, String.format("Failed to publish %s Redis message(s)", batch.size()), e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stop the publisher thread, flushing any queued messages
+     *
+     * @since 1.0
+     */
+    public void close() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get the number of messages waiting to be published
+     *
+     * @return the current queue depth
+     * @since 1.0
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of messages published since startup
+     *
+     * @return the published message count
+     * @since 1.0
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Get the number of messages dropped because the queue was full or publishing failed
+     *
+     * @return the dropped message count
+     * @since 1.0
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Get the number of pipelines flushed since startup
+     *
+     * @return the pipeline count
+     * @since 1.0
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Get the mean time between a message being queued and being published
+     *
+     * @return the mean publish latency, in milliseconds
+     * @since 1.0
+     */
+    public double getAveragePublishLatencyMillis() {
+        final long count = published.get();
+        return count == 0 ? 0 : totalLatencyNanos.get() / (double) count / 1_000_000d;
+    }
+
+    /**
+     * Get the longest time between a message being queued and being published
+     *
+     * @return the max publish latency, in milliseconds
+     * @since 1.0
+     */
+    public double getMaxPublishLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000d;
+    }
+
+    private record Pending(byte[] message, long queuedAt) {
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import net.william278.huskclaims.HuskClaims;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.util.Pool;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * A {@link SharedUserCache} stored in Redis, as a hash of the entry version and binary-encoded {@link UserSnapshot}
+ * per user. Writes are made by a Lua script, so the version check and write are atomic.
+ * <p>
+ * Redis errors are logged and treated as cache misses, so that the database remains the fallback.
+ *
+ * @since 1.0
+ */
+public class RedisSharedUserCache implements SharedUserCache {
+
+    private static final byte[] VERSION_FIELD = "version".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA_FIELD = "data".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PUT_SCRIPT = """
+            local current = redis.call('HGET', KEYS[1], 'version')
+            if current and tonumber(current) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1], 'data', ARGV[2])
+            redis.call('PEXPIRE', KEYS[1], ARGV[3])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final HuskClaims plugin;
+    private final Pool<Jedis> jedisPool;
+    private final String keyPrefix;
+    private final byte[] ttlMillis;
+
+    RedisSharedUserCache(@NotNull HuskClaims plugin, @NotNull Pool<Jedis> jedisPool, long ttlSeconds) {
+        this.plugin = plugin;
+        this.jedisPool = jedisPool;
+        this.keyPrefix = plugin.getKey(plugin.getSettings().getCrossServer().getClusterId(), "users").asString();
+        this.ttlMillis = Long.toString(ttlSeconds * 1000).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Optional<Entry> get(@NotNull UUID uuid) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            final List<byte[]> fields = jedis.hmget(getKey(uuid), VERSION_FIELD, DATA_FIELD);
+            if (fields.size() < 2 || fields.get(0) == null || fields.get(1) == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new Entry(
+                    UserSnapshot.read(ByteStreams.newDataInput(fields.get(1))),
+                    Long.parseLong(new String(fields.get(0), StandardCharsets.UTF_8))
+            ));
+        } catch (JedisException | IllegalStateException | NumberFormatException e) {
+            plugin.log(Level.WARNING, "Failed to read shared user cache entry for " + uuid, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean put(@NotNull UserSnapshot snapshot, long version) {
+        final ByteArrayDataOutput data = ByteStreams.newDataOutput(64);
+        snapshot.write(data);
+        try (Jedis jedis = jedisPool.getResource()) {
+            final Object result = jedis.eval(
+                    PUT_SCRIPT,
+                    List.of(getKey(snapshot.user().getUuid())),
+                    List.of(Long.toString(version).getBytes(StandardCharsets.UTF_8), data.toByteArray(), ttlMillis)
+            );
+            return result instanceof Long written && written == 1;
+        } catch (JedisException e) {
+            plugin.log(Level.WARNING, "Failed to write shared user cache entry for " + snapshot.user().getUuid(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public void invalidate(@NotNull UUID uuid) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.del(getKey(uuid));
+        } catch (JedisException e) {
+            plugin.log(Level.WARNING, "Failed to invalidate shared user cache entry for " + uuid, e);
+        }
+    }
+
+    private byte[] getKey(@NotNull UUID uuid) {
+        return (keyPrefix + ":" + uuid).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
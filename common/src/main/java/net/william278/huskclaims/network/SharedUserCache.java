@@ -0,0 +1,80 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import org.jetbrains.annotations.Blocking;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A second-level cache of {@link UserSnapshot}s shared by the servers in a cluster, so that a user's data does not
+ * have to be reloaded from the database when they switch servers.
+ * <p>
+ * Entries are versioned with the same versions as {@link Message.MessageType#INVALIDATE_USER_CACHE} messages, and are
+ * only replaced by newer versions. Entries expire after a time-to-live, bounding how long data changed outside the
+ * plugin may be served.
+ *
+ * @since 1.0
+ */
+public interface SharedUserCache {
+
+    /**
+     * Get a user's cached data
+     *
+     * @param uuid the user's UUID
+     * @return the cached entry, if present and not expired
+     * @since 1.0
+     */
+    @Blocking
+    Optional<Entry> get(@NotNull UUID uuid);
+
+    /**
+     * Cache a user's data, if the version is newer than the cached version
+     *
+     * @param snapshot the user's data
+     * @param version  the version of the data
+     * @return {@code true} if the data was cached
+     * @since 1.0
+     */
+    @Blocking
+    boolean put(@NotNull UserSnapshot snapshot, long version);
+
+    /**
+     * Remove a user's cached data
+     *
+     * @param uuid the user's UUID
+     * @since 1.0
+     */
+    @Blocking
+    void invalidate(@NotNull UUID uuid);
+
+    /**
+     * A versioned cache entry
+     *
+     * @param snapshot the user's data
+     * @param version  the version of the data
+     * @since 1.0
+     */
+    record Entry(@NotNull UserSnapshot snapshot, long version) {
+    }
+
+}
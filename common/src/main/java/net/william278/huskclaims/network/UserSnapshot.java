@@ -0,0 +1,88 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.io.ByteArrayDataInput;
+import com.google.common.io.ByteArrayDataOutput;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * A snapshot of a {@link SavedUser}'s data, sent to other servers when it changes
+ *
+ * @param user        the user
+ * @param preferences JSON of the user's preferences
+ * @param lastLogin   the user's last login time, in epoch milliseconds
+ * @param claimBlocks the user's claim blocks
+ * @param hoursPlayed the user's hours played
+ * @since 1.0
+ */
+public record UserSnapshot(@NotNull User user, @NotNull String preferences, long lastLogin,
+                           long claimBlocks, int hoursPlayed) {
+
+    @NotNull
+    public static UserSnapshot of(@NotNull SavedUser user, @NotNull HuskClaims plugin) {
+        return new UserSnapshot(
+                user.getUser(),
+                plugin.getGson().toJson(user.getPreferences()),
+                user.getLastLogin().toInstant().toEpochMilli(),
+                user.getClaimBlocks(),
+                user.getHoursPlayed()
+        );
+    }
+
+    @NotNull
+    public SavedUser toSavedUser(@NotNull HuskClaims plugin) {
+        return new SavedUser(
+                user,
+                plugin.getPreferencesFromJson(preferences),
+                OffsetDateTime.ofInstant(Instant.ofEpochMilli(lastLogin), ZoneId.systemDefault()),
+                claimBlocks,
+                hoursPlayed
+        );
+    }
+
+    @NotNull
+    static UserSnapshot read(@NotNull ByteArrayDataInput input) {
+        return new UserSnapshot(
+                User.of(MessageCodec.readUuid(input), MessageCodec.readString(input)),
+                MessageCodec.readString(input),
+                input.readLong(),
+                input.readLong(),
+                MessageCodec.readVarInt(input)
+        );
+    }
+
+    void write(@NotNull ByteArrayDataOutput output) {
+        MessageCodec.writeUuid(output, user.getUuid());
+        MessageCodec.writeString(output, user.getName());
+        MessageCodec.writeString(output, preferences);
+        output.writeLong(lastLogin);
+        output.writeLong(claimBlocks);
+        MessageCodec.writeVarInt(output, hoursPlayed);
+    }
+
+}
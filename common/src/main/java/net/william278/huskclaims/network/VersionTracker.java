@@ -0,0 +1,72 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Tracks per-key versions of state sent in {@link Message} payloads, so that stale state is not applied.
+ * <p>
+ * Versions are based on the current time, but always exceed the last version seen for a key. A server that applies
+ * another server's change will therefore always version its next change to that key higher.
+ *
+ * @param <K> the key type
+ * @since 1.0
+ */
+public class VersionTracker<K> {
+
+    private final ConcurrentMap<K, Long> versions = Maps.newConcurrentMap();
+
+    /**
+     * Get the next version for a key, to send with a change to its state
+     *
+     * @param key the key
+     * @return the next version
+     * @since 1.0
+     */
+    public long next(@NotNull K key) {
+        final long now = System.currentTimeMillis();
+        return versions.merge(key, now, (last, time) -> Math.max(last + 1, time));
+    }
+
+    /**
+     * Record a received version for a key, if it is newer than the last version seen
+     *
+     * @param key     the key
+     * @param version the received version
+     * @return {@code true} if the version is newer and its state should be applied
+     * @since 1.0
+     */
+    public boolean accept(@NotNull K key, long version) {
+        final boolean[] accepted = {false};
+        versions.compute(key, (k, last) -> {
+            if (last == null || version > last) {
+                accepted[0] = true;
+                return version;
+            }
+            return last;
+        });
+        return accepted[0];
+    }
+
+}
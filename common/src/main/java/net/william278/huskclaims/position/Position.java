@@ -95,4 +95,10 @@ public class Position implements BlockPosition, OperationPosition {
         }
         return false;
     }
+
+    // Hash on block coordinates, which are equal whenever the exact coordinates are
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (int) Math.floor(x) + (int) Math.floor(y)) + (int) Math.floor(z);
+    }
 }
@@ -38,7 +38,13 @@ public record ServerWorld(@NotNull String server, @NotNull World world) {
         if (!(obj instanceof final ServerWorld serverWorld)) {
             return false;
         }
-        return serverWorld.server().equals(server) && serverWorld.world().equals(world);
+        return serverWorld.server().equals(server) && serverWorld.world().getName().equals(world.getName());
+    }
+
+    // Compare and hash by world name, as local claim worlds are keyed, so that equal server worlds hash equally
+    @Override
+    public int hashCode() {
+        return 31 * server.hashCode() + world.getName().hashCode();
     }
 
     @Override
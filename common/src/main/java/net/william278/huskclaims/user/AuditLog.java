@@ -62,7 +62,8 @@ public final class AuditLog {
         SET_BONUS_CLAIM_BLOCKS,
         CREATE_CLAIM,
         RESIZE_CLAIM,
-        MANAGE_CLAIM_MEMBERS
+        MANAGE_CLAIM_MEMBERS,
+        PRUNE_INACTIVE_CLAIMS
     }
 
 }
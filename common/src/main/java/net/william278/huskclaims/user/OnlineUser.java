@@ -67,6 +67,8 @@ public abstract class OnlineUser extends User implements OperationUser, CommandU
 
     public abstract boolean hasPermission(@NotNull String permission);
 
+    public abstract boolean isSneaking();
+
     public abstract Optional<Long> getNumericalPermission(@NotNull String prefix);
 
 }
@@ -0,0 +1,128 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.user;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link OnlineUser}s on this server, maintained on join and quit and indexed by UUID and name
+ *
+ * @param <U> the platform online user type
+ * @since 1.0
+ */
+public class OnlineUserRegistry<U extends OnlineUser> {
+
+    private final ConcurrentMap<UUID, U> users = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, U> usersByName = Maps.newConcurrentMap();
+    private final Collection<U> view = Collections.unmodifiableCollection(users.values());
+
+    /**
+     * Register an online user
+     *
+     * @param user the user to register
+     * @since 1.0
+     */
+    public void register(@NotNull U user) {
+        final U previous = users.put(user.getUuid(), user);
+        if (previous != null) {
+            usersByName.remove(previous.getName().toLowerCase(Locale.ENGLISH), previous);
+        }
+        usersByName.put(user.getName().toLowerCase(Locale.ENGLISH), user);
+    }
+
+    /**
+     * Unregister an online user
+     *
+     * @param uuid the UUID of the user to unregister
+     * @return the unregistered user, if they were registered
+     * @since 1.0
+     */
+    public Optional<U> unregister(@NotNull UUID uuid) {
+        final U removed = users.remove(uuid);
+        if (removed != null) {
+            usersByName.remove(removed.getName().toLowerCase(Locale.ENGLISH), removed);
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    /**
+     * Get an online user by UUID
+     *
+     * @param uuid the user's UUID
+     * @return the user, if online
+     * @since 1.0
+     */
+    public Optional<U> get(@NotNull UUID uuid) {
+        return Optional.ofNullable(users.get(uuid));
+    }
+
+    /**
+     * Get an online user by name, case-insensitively
+     *
+     * @param name the user's name
+     * @return the user, if online
+     * @since 1.0
+     */
+    public Optional<U> get(@NotNull String name) {
+        return Optional.ofNullable(usersByName.get(name.toLowerCase(Locale.ENGLISH)));
+    }
+
+    /**
+     * Get any online user, for example to send a plugin message through
+     *
+     * @return an online user, if any are online
+     * @since 1.0
+     */
+    public Optional<U> findAny() {
+        for (U user : users.values()) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Get a live, unmodifiable view of all online users
+     *
+     * @return the online users
+     * @since 1.0
+     */
+    @NotNull
+    public Collection<U> getAll() {
+        return view;
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    public void clear() {
+        users.clear();
+        usersByName.clear();
+    }
+
+}
@@ -22,6 +22,7 @@ package net.william278.huskclaims.user;
 import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.network.Message;
 import net.william278.huskclaims.network.Payload;
+import net.william278.huskclaims.network.UserSnapshot;
 import org.jetbrains.annotations.Blocking;
 import org.jetbrains.annotations.NotNull;
 
@@ -36,6 +37,9 @@ public interface UserManager {
 
     String HOURLY_BLOCKS_PERMISSION = "huskclaims.hourly_blocks.";
 
+    // How stale a user's recorded last login may get before a login updates it in the database
+    long LAST_LOGIN_UPDATE_INTERVAL_HOURS = 1;
+
     @NotNull
     ConcurrentMap<UUID, SavedUser> getUserCache();
 
@@ -45,7 +49,28 @@ public interface UserManager {
 
     @Blocking
     default Optional<SavedUser> getSavedUser(@NotNull UUID uuid) {
-        return Optional.ofNullable(getUserCache().get(uuid)).or(() -> getPlugin().getDatabase().getUser(uuid));
+        return Optional.ofNullable(getUserCache().get(uuid))
+                .or(() -> getSharedSavedUser(uuid))
+                .or(() -> getPlugin().getDatabase().getUser(uuid));
+    }
+
+    // Get a user's data from the cluster-level shared cache, recording its version
+    @Blocking
+    private Optional<SavedUser> getSharedSavedUser(@NotNull UUID uuid) {
+        return getPlugin().getBroker().flatMap(broker -> broker.getSharedUserCache()
+                .flatMap(cache -> cache.get(uuid))
+                .map(entry -> {
+                    broker.getUserVersions().accept(uuid, entry.version());
+                    return entry.snapshot().toSavedUser(getPlugin());
+                }));
+    }
+
+    // Write a user's data to the cluster-level shared cache
+    @Blocking
+    private void putSharedSavedUser(@NotNull SavedUser user) {
+        getPlugin().getBroker().ifPresent(broker -> broker.getSharedUserCache().ifPresent(cache -> cache.put(
+                UserSnapshot.of(user, getPlugin()), broker.getUserVersions().next(user.getUser().getUuid())
+        )));
     }
 
     @Blocking
@@ -74,13 +99,17 @@ public interface UserManager {
         consumer.accept(user);
         getUserCache().put(uuid, user);
         getPlugin().getDatabase().updateUser(user);
-        getPlugin().getBroker().ifPresent(broker -> getPlugin().getOnlineUsers().stream().findAny().ifPresent(
-                sender -> Message.builder()
-                        .type(Message.MessageType.INVALIDATE_USER_CACHE)
-                        .payload(Payload.uuid(uuid))
-                        .build()
-                        .send(broker, sender))
-        );
+        getPlugin().getBroker().ifPresent(broker -> {
+            final UserSnapshot snapshot = UserSnapshot.of(user, getPlugin());
+            final long version = broker.getUserVersions().next(uuid);
+            broker.getSharedUserCache().ifPresent(cache -> cache.put(snapshot, version));
+            getPlugin().findAnyOnlineUser().ifPresent(sender -> Message.builder()
+                    .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                    .payload(Payload.userSnapshot(snapshot, version))
+                    .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+                    .build()
+                    .send(broker, sender));
+        });
     }
 
     @Blocking
@@ -109,21 +138,44 @@ public interface UserManager {
         editClaimBlocks(user, blocks -> blocks + hourlyBlocks);
     }
 
+    /**
+     * Load a user's data into the cache when they join, reading it from the cluster-level shared cache if possible,
+     * otherwise from the database, and creating it if the user is new
+     *
+     * @param user the user to load
+     * @since 1.0
+     */
     @Blocking
     default void loadUserData(@NotNull User user) {
-        getPlugin().getDatabase().getUser(user.getUuid()).ifPresentOrElse(
-                data -> getUserCache().put(user.getUuid(), data),
+        final Optional<SavedUser> shared = getSharedSavedUser(user.getUuid());
+        shared.or(() -> getPlugin().getDatabase().getUser(user.getUuid())).ifPresentOrElse(
+                data -> {
+                    // Record the login so that the user is not considered inactive when pruning claims
+                    final OffsetDateTime now = OffsetDateTime.now();
+                    final boolean updateLogin = data.getLastLogin()
+                            .isBefore(now.minusHours(LAST_LOGIN_UPDATE_INTERVAL_HOURS));
+                    if (updateLogin) {
+                        data.setLastLogin(now);
+                        getPlugin().getDatabase().updateUser(data);
+                    }
+                    if (updateLogin || shared.isEmpty()) {
+                        putSharedSavedUser(data);
+                    }
+                    getUserCache().put(user.getUuid(), data);
+                },
                 () -> {
                     final Preferences defaults = Preferences.DEFAULTS;
                     final long defaultClaimBlocks = getPlugin().getSettings().getClaims().getStartingClaimBlocks();
                     getPlugin().getDatabase().createUser(user, defaultClaimBlocks, defaults);
-                    getUserCache().put(user.getUuid(), new SavedUser(
+                    final SavedUser data = new SavedUser(
                             user,
                             defaults,
                             OffsetDateTime.now(),
                             defaultClaimBlocks,
                             0
-                    ));
+                    );
+                    putSharedSavedUser(data);
+                    getUserCache().put(user.getUuid(), data);
                 });
     }
 
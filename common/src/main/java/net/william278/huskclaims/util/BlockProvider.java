@@ -28,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public interface BlockProvider {
 
@@ -63,6 +64,23 @@ public interface BlockProvider {
     Map<Position, MaterialBlock> getSurfaceBlocksAt(@NotNull Collection<? extends BlockPosition> positions,
                                                     @NotNull World world, int yLevel);
 
+    /**
+     * Capture what is needed to get the surface blocks at a collection of positions. Must be called on the main
+     * thread; the returned supplier does the surface lookup and may be called from any thread.
+     *
+     * @param positions the positions
+     * @param world     the world
+     * @param yLevel    the base y level to check at
+     * @return a supplier of a Map of the highest block {@link Position}s to their {@link MaterialBlock}s
+     * @since 1.0
+     */
+    @NotNull
+    default Supplier<Map<Position, MaterialBlock>> captureSurfaceBlocksAt(
+            @NotNull Collection<? extends BlockPosition> positions, @NotNull World world, int yLevel) {
+        final Map<Position, MaterialBlock> blocks = getSurfaceBlocksAt(positions, world, yLevel);
+        return () -> blocks;
+    }
+
     /**
      * Send a batch of block updates to a user
      *
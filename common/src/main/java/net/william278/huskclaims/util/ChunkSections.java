@@ -0,0 +1,76 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Utility for grouping blocks by the 16x16x16 chunk section they are in.
+ * <p>
+ * Block changes within a chunk section can be sent to a client as a single multi-block change packet, so grouping a
+ * batch of block changes by section sends one packet per section rather than one per block.
+ *
+ * @since 1.0
+ */
+public final class ChunkSections {
+
+    private ChunkSections() {
+    }
+
+    /**
+     * Get a key identifying the chunk section a block is in, packed as Minecraft packs section positions
+     *
+     * @param x the block X coordinate
+     * @param y the block Y coordinate
+     * @param z the block Z coordinate
+     * @return the chunk section key
+     * @since 1.0
+     */
+    public static long getKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFFL) << 42 | ((long) (z >> 4) & 0x3FFFFFL) << 20 | ((long) (y >> 4) & 0xFFFFFL);
+    }
+
+    /**
+     * Group blocks by the chunk section they are in, keeping the order blocks were given in within each section
+     *
+     * @param blocks the blocks to group
+     * @param key    function returning the {@link #getKey(int, int, int) chunk section key} of a block
+     * @param <T>    the type of block
+     * @return the blocks in each chunk section, in the order each section was first seen
+     * @since 1.0
+     */
+    @NotNull
+    public static <T> Collection<List<T>> group(@NotNull Collection<T> blocks, @NotNull ToLongFunction<T> key) {
+        final Map<Long, List<T>> sections = new LinkedHashMap<>();
+        for (T block : blocks) {
+            sections.computeIfAbsent(key.applyAsLong(block), section -> new ArrayList<>()).add(block);
+        }
+        return sections.values();
+    }
+
+}
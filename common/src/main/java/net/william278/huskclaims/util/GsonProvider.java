@@ -24,6 +24,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
+import net.william278.huskclaims.claim.Claim;
 import net.william278.huskclaims.claim.ClaimWorld;
 import net.william278.huskclaims.network.Message;
 import net.william278.huskclaims.user.Preferences;
@@ -57,6 +58,11 @@ public interface GsonProvider {
         return getGson().fromJson(json, ClaimWorld.class);
     }
 
+    @NotNull
+    default Claim getClaimFromJson(@NotNull String json) throws JsonSyntaxException {
+        return getGson().fromJson(json, Claim.class);
+    }
+
     @NotNull
     default List<User> getUserListFromJson(@NotNull String json) throws JsonSyntaxException {
         return getGson().fromJson(json, USER_LIST_TOKEN);
@@ -0,0 +1,102 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import com.google.common.collect.Lists;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * A hashed timing wheel, for expiring many items after a delay with a single repeating task.
+ * <p>
+ * Items are placed in the slot their expiry tick hashes to, along with the number of full rotations left before
+ * they expire. Each {@link #advance()} visits one slot, so scheduling is constant time and each tick only touches
+ * the items in the current slot.
+ * <p>
+ * Scheduling and advancing are synchronized on the wheel, so that an item scheduled while the wheel advances is
+ * placed relative to a settled cursor, and is not missed by a slot that is being drained.
+ *
+ * @param <T> the type of item to expire
+ * @since 1.0
+ */
+public class TimingWheel<T> {
+
+    private final Queue<Entry<T>>[] slots;
+    private int cursor;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int size) {
+        this.slots = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Schedule an item to expire after a number of ticks
+     *
+     * @param item  the item
+     * @param ticks the number of {@link #advance() ticks} after which the item should expire; at least one
+     * @since 1.0
+     */
+    public synchronized void schedule(@NotNull T item, long ticks) {
+        final long delay = Math.max(1, ticks);
+        final int slot = (int) ((cursor + delay) % slots.length);
+        slots[slot].add(new Entry<>(item, (delay - 1) / slots.length));
+    }
+
+    /**
+     * Advance the wheel by one tick, returning the items that have expired
+     *
+     * @return the expired items
+     * @since 1.0
+     */
+    @NotNull
+    public synchronized List<T> advance() {
+        cursor = (cursor + 1) % slots.length;
+        final Queue<Entry<T>> slot = slots[cursor];
+        final List<T> expired = Lists.newArrayList();
+        final List<Entry<T>> pending = Lists.newArrayList();
+        Entry<T> entry;
+        while ((entry = slot.poll()) != null) {
+            if (entry.rounds() <= 0) {
+                expired.add(entry.item());
+            } else {
+                pending.add(new Entry<>(entry.item(), entry.rounds() - 1));
+            }
+        }
+        slot.addAll(pending);
+        return expired;
+    }
+
+    public synchronized void clear() {
+        for (Queue<Entry<T>> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    private record Entry<T>(@NotNull T item, long rounds) {
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.util;
+
+import com.google.common.collect.Lists;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted index of the users online across the network, keyed by lower-cased name for prefix lookups.
+ * <p>
+ * Each user is owned by the server they were last reported on, so that a stale list from a server a user has left
+ * does not remove them from the index.
+ *
+ * @since 1.0
+ */
+public class UserIndex {
+
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * Add or move a user to a server
+     *
+     * @param server the server the user is on
+     * @param user   the user
+     * @since 1.0
+     */
+    public void put(@NotNull String server, @NotNull User user) {
+        entries.put(getKey(user.getName()), new Entry(user, server));
+    }
+
+    /**
+     * Remove a user, if they are still owned by a server
+     *
+     * @param server the server the user was on
+     * @param user   the user
+     * @since 1.0
+     */
+    public void remove(@NotNull String server, @NotNull User user) {
+        entries.computeIfPresent(getKey(user.getName()), (key, entry) -> entry.server().equals(server) ? null : entry);
+    }
+
+    /**
+     * Update the users on a remote server, given its previous and new user lists
+     *
+     * @param server      the remote server
+     * @param previous    the users previously reported on the server, if any
+     * @param current     the users now on the server
+     * @param localServer the name of this server; users on this server are not moved
+     * @since 1.0
+     */
+    public void update(@NotNull String server, @Nullable Collection<User> previous,
+                       @NotNull Collection<User> current, @NotNull String localServer) {
+        if (previous != null) {
+            previous.forEach(user -> remove(server, user));
+        }
+        for (User user : current) {
+            entries.compute(getKey(user.getName()), (key, entry) -> entry != null
+                    && entry.server().equals(localServer) ? entry : new Entry(user, server));
+        }
+    }
+
+    /**
+     * Get the names of users whose name starts with a prefix, case-insensitively, in alphabetical order
+     *
+     * @param prefix the name prefix
+     * @param limit  the max number of names to return
+     * @return the matching names
+     * @since 1.0
+     */
+    @NotNull
+    public List<String> getNames(@NotNull String prefix, int limit) {
+        final String from = getKey(prefix);
+        final List<String> names = Lists.newArrayListWithCapacity(Math.min(limit, 16));
+        for (Map.Entry<String, Entry> entry : entries.tailMap(from, true).entrySet()) {
+            if (names.size() >= limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            names.add(entry.getValue().user().getName());
+        }
+        return names;
+    }
+
+    /**
+     * Get all users in the index, in alphabetical order
+     *
+     * @return the users
+     * @since 1.0
+     */
+    @NotNull
+    public List<User> getUsers() {
+        return entries.values().stream().map(Entry::user).toList();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @NotNull
+    private static String getKey(@NotNull String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    private record Entry(@NotNull User user, @NotNull String server) {
+    }
+
+}
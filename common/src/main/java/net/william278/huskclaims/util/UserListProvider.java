@@ -23,10 +23,8 @@ import net.william278.huskclaims.HuskClaims;
 import net.william278.huskclaims.user.User;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 /**
  * A provider for the plugin user list, tracking online users across the network
@@ -35,23 +33,68 @@ import java.util.stream.Stream;
  */
 public interface UserListProvider {
 
+    /**
+     * Get the lists of users last reported by each other server on the network
+     *
+     * @return map of server names to user lists
+     * @since 1.0
+     */
     @NotNull
     Map<String, List<User>> getGlobalUserList();
 
+    /**
+     * Get the sorted index of users online across the network, including this server
+     *
+     * @return the user index
+     * @since 1.0
+     */
+    @NotNull
+    UserIndex getUserIndex();
+
+    /**
+     * Get all users online across the network, in alphabetical order
+     *
+     * @return the user list
+     * @since 1.0
+     */
     @NotNull
     default List<User> getUserList() {
-        return Stream.concat(
-                getGlobalUserList().values().stream().flatMap(Collection::stream),
-                getPlugin().getOnlineUsers().stream()
-        ).distinct().sorted().toList();
+        return getUserIndex().getUsers();
+    }
+
+    /**
+     * Get the names of users online across the network starting with a prefix, in alphabetical order
+     *
+     * @param prefix the name prefix
+     * @param limit  the max number of names to return
+     * @return the matching names
+     * @since 1.0
+     */
+    @NotNull
+    default List<String> getUserNames(@NotNull String prefix, int limit) {
+        return getUserIndex().getNames(prefix, limit);
     }
 
     default void setUserList(@NotNull String server, @NotNull List<User> players) {
-        getGlobalUserList().values().forEach(list -> {
-            list.removeAll(players);
-            list.removeAll(getPlugin().getOnlineUsers());
-        });
-        getGlobalUserList().put(server, players);
+        final List<User> previous = getGlobalUserList().put(server, players);
+        getUserIndex().update(server, previous, players, getPlugin().getServerName());
+    }
+
+    /**
+     * Add the users online on this server to the user index
+     *
+     * @since 1.0
+     */
+    default void loadUserList() {
+        getPlugin().getOnlineUsers().forEach(this::addLocalUser);
+    }
+
+    default void addLocalUser(@NotNull User user) {
+        getUserIndex().put(getPlugin().getServerName(), user);
+    }
+
+    default void removeLocalUser(@NotNull User user) {
+        getUserIndex().remove(getPlugin().getServerName(), user);
     }
 
     @NotNull
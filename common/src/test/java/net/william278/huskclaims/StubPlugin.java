@@ -0,0 +1,283 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.config.Settings;
+import net.william278.huskclaims.network.Broker;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.util.Task;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * A stub {@link HuskClaims} for tests, backed by a dynamic proxy.
+ * <p>
+ * Default interface methods run as normal. Abstract methods needed by the systems under test are stubbed with
+ * in-memory state: there are no online users, logs are recorded, and tasks run on the calling thread; delayed and
+ * repeating tasks run when {@link #tick()} is called. Other abstract methods throw unless overridden with
+ * {@link #stub(String, Function)}.
+ */
+public final class StubPlugin implements InvocationHandler {
+
+    private final String serverName;
+    private final HuskClaims plugin;
+    private final Settings settings = createSettings();
+    private final ConcurrentMap<UUID, SavedUser> userCache = Maps.newConcurrentMap();
+    private final Map<String, Function<Object[], Object>> stubs = Maps.newConcurrentMap();
+    private final List<Task.Base> scheduled = new CopyOnWriteArrayList<>();
+    private final List<String> logs = new CopyOnWriteArrayList<>();
+    @Nullable
+    private volatile Broker broker;
+
+    private StubPlugin(@NotNull String serverName) {
+        this.serverName = serverName;
+        this.plugin = (HuskClaims) Proxy.newProxyInstance(
+                HuskClaims.class.getClassLoader(), new Class<?>[]{HuskClaims.class}, this
+        );
+    }
+
+    @NotNull
+    public static StubPlugin create(@NotNull String serverName) {
+        return new StubPlugin(serverName);
+    }
+
+    @NotNull
+    public HuskClaims getPlugin() {
+        return plugin;
+    }
+
+    @NotNull
+    public ConcurrentMap<UUID, SavedUser> getUserCache() {
+        return userCache;
+    }
+
+    @NotNull
+    public List<String> getLogs() {
+        return logs;
+    }
+
+    /**
+     * Stub an abstract plugin method by name, for all of its overloads
+     *
+     * @param method the method name
+     * @param stub   function of the method arguments to its return value
+     * @return this stub
+     */
+    @NotNull
+    public StubPlugin stub(@NotNull String method, @NotNull Function<Object[], Object> stub) {
+        stubs.put(method, stub);
+        return this;
+    }
+
+    /**
+     * Run one tick of the scheduler: delayed tasks run once, and repeating tasks run if their interval has elapsed
+     */
+    public void tick() {
+        for (Task.Base task : scheduled) {
+            if (task instanceof Task.Sync) {
+                scheduled.remove(task);
+            }
+            task.run();
+        }
+        scheduled.removeIf(task -> task instanceof CancellableTask cancellable && cancellable.isCancelled());
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        final Object[] arguments = args == null ? new Object[0] : args;
+        final Function<Object[], Object> stub = stubs.get(method.getName());
+        if (stub != null) {
+            return stub.apply(arguments);
+        }
+        switch (method.getName()) {
+            case "getPlugin" -> {
+                return proxy;
+            }
+            case "getServerName" -> {
+                return serverName;
+            }
+            case "getSettings" -> {
+                return settings;
+            }
+            case "getUserCache" -> {
+                return userCache;
+            }
+            case "getBroker" -> {
+                return Optional.ofNullable(broker);
+            }
+            case "setBroker" -> {
+                broker = (Broker) arguments[0];
+                return null;
+            }
+            case "closeBroker" -> {
+                final Broker current = broker;
+                if (current != null) {
+                    current.close();
+                }
+                return null;
+            }
+            case "getOnlineUsers" -> {
+                return List.of();
+            }
+            case "getOnlineUser", "findAnyOnlineUser" -> {
+                return Optional.empty();
+            }
+            case "log" -> {
+                logs.add(arguments[0] + ": " + arguments[1]);
+                return null;
+            }
+            case "getSyncTask" -> {
+                return new SyncTask(plugin, (Runnable) arguments[0], (long) arguments[1]);
+            }
+            case "getAsyncTask" -> {
+                return new AsyncTask(plugin, (Runnable) arguments[0]);
+            }
+            case "getRepeatingTask" -> {
+                return new RepeatingTask(plugin, (Runnable) arguments[0], (long) arguments[1]);
+            }
+            case "cancelTasks" -> {
+                scheduled.clear();
+                return null;
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "equals" -> {
+                return proxy == arguments[0];
+            }
+            case "toString" -> {
+                return "StubPlugin[" + serverName + "]";
+            }
+            default -> {
+                if (method.isDefault()) {
+                    return InvocationHandler.invokeDefault(proxy, method, args);
+                }
+                throw new UnsupportedOperationException("Not stubbed: " + method);
+            }
+        }
+    }
+
+    @NotNull
+    private static Settings createSettings() {
+        try {
+            final Constructor<Settings> constructor = Settings.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create default settings", e);
+        }
+    }
+
+    private interface CancellableTask {
+        boolean isCancelled();
+    }
+
+    // Runs on the calling thread, or on the next tick if delayed
+    private final class SyncTask extends Task.Sync implements CancellableTask {
+
+        private SyncTask(@NotNull HuskClaims plugin, @NotNull Runnable runnable, long delayTicks) {
+            super(plugin, runnable, delayTicks);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (delayTicks > 0) {
+                delayTicks = 0;
+                scheduled.add(this);
+                return;
+            }
+            runnable.run();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+    }
+
+    // Runs on the calling thread
+    private static final class AsyncTask extends Task.Async {
+
+        private AsyncTask(@NotNull HuskClaims plugin, @NotNull Runnable runnable) {
+            super(plugin, runnable);
+        }
+
+        @Override
+        public void run() {
+            if (!cancelled) {
+                runnable.run();
+            }
+        }
+
+    }
+
+    // Started by its first run, then runs every interval of ticks until cancelled
+    private final class RepeatingTask extends Task.Repeating implements CancellableTask {
+
+        private boolean started;
+        private long elapsedTicks;
+
+        private RepeatingTask(@NotNull HuskClaims plugin, @NotNull Runnable runnable, long repeatingTicks) {
+            super(plugin, runnable, repeatingTicks);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (!started) {
+                started = true;
+                scheduled.add(this);
+                return;
+            }
+            if (++elapsedTicks < repeatingTicks) {
+                return;
+            }
+            elapsedTicks = 0;
+            runnable.run();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+    }
+
+}
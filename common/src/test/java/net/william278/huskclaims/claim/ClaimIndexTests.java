@@ -0,0 +1,307 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import net.william278.cloplib.operation.OperationType;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+
+@DisplayName("Claim Index Tests")
+public class ClaimIndexTests {
+
+    private static final HuskClaims PLUGIN = StubPlugin.create("server-1").getPlugin();
+
+    @Nested
+    @DisplayName("Lookup Tests")
+    public class LookupTests {
+
+        @Test
+        @DisplayName("Test finding claims at positions, across cell boundaries and negative coordinates")
+        public void testFindClaimAt() {
+            final Claim spanning = claim(100, 100, 300, 140);
+            final Claim negative = claim(-200, -200, -129, -1);
+            final ClaimIndex index = ClaimIndex.of(List.of(spanning, negative));
+
+            Assertions.assertSame(spanning, index.findClaimAt(Region.Point.at(100, 100)));
+            Assertions.assertSame(spanning, index.findClaimAt(Region.Point.at(127, 120)));
+            Assertions.assertSame(spanning, index.findClaimAt(Region.Point.at(128, 120)));
+            Assertions.assertSame(spanning, index.findClaimAt(Region.Point.at(300, 140)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(301, 140)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(200, 99)));
+
+            Assertions.assertSame(negative, index.findClaimAt(Region.Point.at(-129, -1)));
+            Assertions.assertSame(negative, index.findClaimAt(Region.Point.at(-200, -200)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(-128, -1)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(0, 0)));
+            Assertions.assertTrue(index.getClaimAt(Region.Point.at(0, 0)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test claims covering too many cells are found")
+        public void testLargeClaim() {
+            final Claim large = claim(-3000, -3000, 3000, 3000);
+            final Claim small = claim(5000, 5000, 5010, 5010);
+            final ClaimIndex index = ClaimIndex.of(List.of(large, small));
+
+            Assertions.assertSame(large, index.findClaimAt(Region.Point.at(0, 0)));
+            Assertions.assertSame(large, index.findClaimAt(Region.Point.at(-3000, 3000)));
+            Assertions.assertSame(small, index.findClaimAt(Region.Point.at(5005, 5005)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(3001, 0)));
+
+            index.remove(large);
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(0, 0)));
+        }
+
+        @Test
+        @DisplayName("Test getting the claims overlapping a region returns each once")
+        public void testGetClaimsWithin() {
+            final Claim first = claim(0, 0, 500, 500);
+            final Claim second = claim(600, 0, 700, 100);
+            final Claim large = claim(-3000, 1000, 3000, 7000);
+            final ClaimIndex index = ClaimIndex.of(List.of(first, second, large));
+
+            Assertions.assertEquals(Set.of(first, second),
+                    Set.copyOf(index.getClaimsWithin(region(400, 50, 650, 60))));
+            Assertions.assertEquals(List.of(first), index.getClaimsWithin(region(0, 0, 500, 500)));
+            Assertions.assertEquals(Set.of(first, large),
+                    Set.copyOf(index.getClaimsWithin(region(100, 400, 200, 1200))));
+            Assertions.assertTrue(index.getClaimsWithin(region(501, 101, 599, 999)).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test getting the claims overlapping a region covering more cells than are populated")
+        public void testGetClaimsWithinHugeRegion() {
+            final Claim first = claim(0, 0, 500, 500);
+            final Claim second = claim(600, 0, 700, 100);
+            final Claim far = claim(1_000_000, -1_000_000, 1_000_100, -999_900);
+            final Claim large = claim(-3000, 1000, 3000, 7000);
+            final ClaimIndex index = ClaimIndex.of(List.of(first, second, far, large));
+
+            final List<Claim> all = index.getClaimsWithin(region(-30_000_000, -30_000_000, 30_000_000, 30_000_000));
+            Assertions.assertEquals(4, all.size());
+            Assertions.assertEquals(Set.of(first, second, far, large), Set.copyOf(all));
+
+            // Only claims overlapping the region are returned, even though every populated cell is scanned
+            Assertions.assertEquals(Set.of(first, second, large),
+                    Set.copyOf(index.getClaimsWithin(region(-20_000, -20_000, 20_000, 20_000))));
+            Assertions.assertEquals(List.of(far),
+                    index.getClaimsWithin(region(900_000, -2_000_000, 2_000_000, -999_950)));
+            Assertions.assertTrue(new ClaimIndex().getClaimsWithin(region(-20_000, -20_000, 20_000, 20_000)).isEmpty());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Write Tests")
+    public class WriteTests {
+
+        @Test
+        @DisplayName("Test adding and removing claims")
+        public void testAddRemove() {
+            final Claim first = claim(0, 0, 200, 200);
+            final Claim second = claim(300, 300, 400, 400);
+            final ClaimIndex index = new ClaimIndex();
+            index.add(first);
+            index.add(second);
+            index.add(first);
+            Assertions.assertSame(first, index.findClaimAt(Region.Point.at(150, 150)));
+            Assertions.assertSame(second, index.findClaimAt(Region.Point.at(350, 350)));
+            Assertions.assertEquals(List.of(first), index.getClaimsWithin(region(0, 0, 10, 10)));
+
+            index.remove(first);
+            index.remove(first);
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(150, 150)));
+            Assertions.assertSame(second, index.findClaimAt(Region.Point.at(350, 350)));
+        }
+
+        @Test
+        @DisplayName("Test removing claims in a batch")
+        public void testRemoveAll() {
+            final Claim first = claim(0, 0, 200, 200);
+            final Claim second = claim(300, 300, 400, 400);
+            final Claim third = claim(-500, -500, -300, -300);
+            final Claim large = claim(-9000, 1000, 9000, 9000);
+            final ClaimIndex index = ClaimIndex.of(List.of(first, second, third, large));
+
+            index.removeAll(List.of(first, third, large));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(100, 100)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(-400, -400)));
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(0, 5000)));
+            Assertions.assertSame(second, index.findClaimAt(Region.Point.at(350, 350)));
+
+            index.removeAll(List.of(first));
+            Assertions.assertSame(second, index.findClaimAt(Region.Point.at(350, 350)));
+        }
+
+        @Test
+        @DisplayName("Test re-indexing a resized claim")
+        public void testUpdate() {
+            final Claim claim = claim(0, 0, 100, 100);
+            final ClaimIndex index = ClaimIndex.of(List.of(claim));
+
+            claim.setRegion(region(1000, 1000, 1100, 1100));
+            index.update(claim);
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(50, 50)));
+            Assertions.assertSame(claim, index.findClaimAt(Region.Point.at(1050, 1050)));
+
+            // Growing a claim past the cell limit moves it to the large claims, and back again when shrunk
+            claim.setRegion(region(-5000, -5000, 5000, 5000));
+            index.update(claim);
+            Assertions.assertSame(claim, index.findClaimAt(Region.Point.at(-4000, 4000)));
+            claim.setRegion(region(0, 0, 10, 10));
+            index.update(claim);
+            Assertions.assertNull(index.findClaimAt(Region.Point.at(-4000, 4000)));
+            Assertions.assertSame(claim, index.findClaimAt(Region.Point.at(5, 5)));
+        }
+
+        @Test
+        @DisplayName("Test removing claims from a world removes them from its index")
+        public void testRemoveClaimsIf() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            final Claim first = claim(0, 0, 200, 200);
+            final Claim second = claim(300, 300, 400, 400);
+            final Claim third = claim(-500, -500, -300, -300);
+            world.addClaim(first);
+            world.addClaim(second);
+            world.addClaim(third);
+            final int version = world.getVersion();
+
+            world.removeClaims(List.of(first, third));
+            Assertions.assertEquals(List.of(second), List.copyOf(world.getClaims()));
+            Assertions.assertNull(world.findClaimAt(Region.Point.at(100, 100)));
+            Assertions.assertNull(world.findClaimAt(Region.Point.at(-400, -400)));
+            Assertions.assertSame(second, world.findClaimAt(Region.Point.at(350, 350)));
+            Assertions.assertNotEquals(version, world.getVersion());
+
+            final int removed = world.getVersion();
+            world.removeClaimsIf(claim -> false);
+            Assertions.assertEquals(removed, world.getVersion());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Allocation Tests")
+    public class AllocationTests {
+
+        private static final int WARMUP_ITERATIONS = 200_000;
+        private static final int ITERATIONS = 100_000;
+        // Slack for allocations by the measurement itself; far below one byte per lookup
+        private static final long MAX_ALLOCATED_BYTES = 4096;
+
+        // Keeps the results of measured operations live, so they aren't optimized away
+        private volatile int blackhole;
+
+        @Test
+        @DisplayName("Test finding claims at positions does not allocate")
+        public void testFindClaimAtAllocationFree() {
+            final ClaimWorld world = createWorld();
+            final Region.Point[] positions = {
+                    Region.Point.at(50, 50), Region.Point.at(1050, 1050),
+                    Region.Point.at(-400, -400), Region.Point.at(20_000, 20_000)
+            };
+            assertAllocationFree(() -> {
+                int found = 0;
+                for (Region.Point position : positions) {
+                    found += world.findClaimAt(position) != null ? 1 : 0;
+                    found += world.getIndex().findClaimAt(position) != null ? 1 : 0;
+                }
+                return found;
+            });
+        }
+
+        @Test
+        @DisplayName("Test checking operations without a user does not allocate")
+        public void testOperationCheckAllocationFree() {
+            final ClaimWorld world = createWorld();
+            final Claim parent = world.findClaimAt(Region.Point.at(1050, 1050));
+            Assertions.assertNotNull(parent);
+            final Claim child = parent.createAndAddChild(region(1010, 1010, 1020, 1020), world, PLUGIN);
+            child.getDefaultFlags().clear();
+            final OperationType[] types = OperationType.values();
+            assertAllocationFree(() -> {
+                int allowed = 0;
+                for (OperationType type : types) {
+                    allowed += parent.isOperationAllowed(type, world) ? 1 : 0;
+                    allowed += child.isOperationAllowed(type, world) ? 1 : 0;
+                }
+                return allowed;
+            });
+        }
+
+        @NotNull
+        private ClaimWorld createWorld() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            world.addClaim(claim(0, 0, 100, 100));
+            world.addClaim(claim(1000, 1000, 1100, 1100));
+            world.addClaim(claim(-500, -500, -300, -300));
+            world.addClaim(claim(-9000, 5000, 9000, 9000));
+            return world;
+        }
+
+        // Run an operation until compiled, then assert that repeating it allocates nothing on this thread
+        private void assertAllocationFree(@NotNull IntSupplier operation) {
+            final com.sun.management.ThreadMXBean threads =
+                    (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            Assertions.assertTrue(threads.isThreadAllocatedMemorySupported());
+            threads.setThreadAllocatedMemoryEnabled(true);
+            final long thread = Thread.currentThread().getId();
+
+            int sink = 0;
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                sink += operation.getAsInt();
+            }
+            final long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < ITERATIONS; i++) {
+                sink += operation.getAsInt();
+            }
+            final long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+            blackhole = sink;
+            Assertions.assertTrue(allocated <= MAX_ALLOCATED_BYTES,
+                    "Allocated " + allocated + " bytes over " + ITERATIONS + " iterations");
+        }
+
+    }
+
+    @NotNull
+    private static Claim claim(int x1, int z1, int x2, int z2) {
+        return Claim.create(User.of(UUID.randomUUID(), "Owner"), region(x1, z1, x2, z2), PLUGIN);
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+}
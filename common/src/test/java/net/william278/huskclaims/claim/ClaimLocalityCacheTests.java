@@ -0,0 +1,134 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+@DisplayName("Claim Locality Cache Tests")
+public class ClaimLocalityCacheTests {
+
+    private static final HuskClaims PLUGIN = StubPlugin.create("server-1").getPlugin();
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+    private static final World NETHER = World.of("world_nether", UUID.randomUUID());
+
+    private final UUID user = UUID.randomUUID();
+    private ClaimLocalityCache cache;
+    private ClaimWorld world;
+    private Claim claim;
+
+    @BeforeEach
+    public void setup() {
+        cache = new ClaimLocalityCache();
+        world = ClaimWorld.create(PLUGIN);
+        claim = Claim.create(User.of(UUID.randomUUID(), "Owner"), region(0, 0, 100, 100), PLUGIN);
+        world.addClaim(claim);
+    }
+
+    @Test
+    @DisplayName("Test a cached claim is returned for positions within it")
+    public void testGetWithin() {
+        cache.put(user, at(50, 50), world, claim);
+        final ClaimLocalityCache.Locality locality = cache.get(user, at(0, 100));
+        Assertions.assertNotNull(locality);
+        Assertions.assertSame(claim, locality.claim());
+        Assertions.assertSame(world, locality.world());
+        Assertions.assertNotNull(cache.get(user, at(100, 0)));
+        Assertions.assertNull(cache.get(UUID.randomUUID(), at(50, 50)));
+    }
+
+    @Test
+    @DisplayName("Test a cached claim is not returned for positions outside it, or in another world")
+    public void testGetOutside() {
+        cache.put(user, at(50, 50), world, claim);
+        Assertions.assertNull(cache.get(user, at(101, 50)));
+        Assertions.assertNull(cache.get(user, at(50, -1)));
+        Assertions.assertNull(cache.get(user, Position.at(50, 64, 50, NETHER)));
+        Assertions.assertNotNull(cache.get(user, at(50, 50)));
+    }
+
+    @Test
+    @DisplayName("Test a cached parent claim is not returned for positions in its children")
+    public void testGetInChild() {
+        claim.createAndAddChild(region(10, 10, 20, 20), world, PLUGIN);
+        cache.put(user, at(50, 50), world, claim);
+        Assertions.assertNull(cache.get(user, at(15, 15)));
+        Assertions.assertNotNull(cache.get(user, at(21, 15)));
+    }
+
+    @Test
+    @DisplayName("Test cached claims are invalidated when the claims in their world are modified")
+    public void testInvalidatedOnModify() {
+        cache.put(user, at(50, 50), world, claim);
+        world.markModified();
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+
+        cache.put(user, at(50, 50), world, claim);
+        Assertions.assertNotNull(cache.get(user, at(50, 50)));
+        world.removeClaim(claim);
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+    }
+
+    @Test
+    @DisplayName("Test resizing a cached claim invalidates it, even where its old region covered")
+    public void testInvalidatedOnResize() {
+        cache.put(user, at(50, 50), world, claim);
+        world.setClaimRegion(claim, region(0, 0, 40, 40));
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+    }
+
+    @Test
+    @DisplayName("Test cached claims are removed by invalidation, caching the wilderness, and clearing")
+    public void testRemove() {
+        cache.put(user, at(50, 50), world, claim);
+        cache.invalidate(user);
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+
+        cache.put(user, at(50, 50), world, claim);
+        cache.put(user, at(200, 200), world, null);
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+
+        cache.put(user, at(50, 50), world, claim);
+        cache.clear();
+        Assertions.assertNull(cache.get(user, at(50, 50)));
+    }
+
+    @NotNull
+    private static Position at(int x, int z) {
+        return Position.at(x, 64, z, WORLD);
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.claim;
+
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("Claim Tracker Tests")
+public class ClaimTrackerTests {
+
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+    private static final User OWNER = User.of(UUID.randomUUID(), "Owner");
+
+    private final ClaimLocalityCache localities = new ClaimLocalityCache();
+    private final RecordingListener listener = new RecordingListener();
+    private StubPlugin stub;
+    private HuskClaims plugin;
+    private ClaimTracker tracker;
+    private ClaimWorld world;
+    private Claim claim;
+    private TestUser user;
+
+    @BeforeEach
+    public void setup() {
+        stub = StubPlugin.create("server-1").stub("getClaimLocalityCache", args -> localities);
+        plugin = stub.getPlugin();
+        tracker = new ClaimTracker(plugin);
+        tracker.addListener(listener);
+        world = ClaimWorld.create(plugin);
+        claim = Claim.create(OWNER, region(0, 0, 100, 100), plugin);
+        world.addClaim(claim);
+        user = new TestUser("User", UUID.randomUUID(), plugin);
+    }
+
+    @Test
+    @DisplayName("Test users enter and exit claims as they cross their boundaries")
+    public void testEnterExit() {
+        move(user, 50, 50);
+        move(user, 60, 50);
+        move(user, 200, 50);
+        Assertions.assertEquals(List.of(enter(claim), exit(claim)), listener.events);
+        Assertions.assertNull(tracker.getCurrentClaim(user.getUuid()));
+    }
+
+    @Test
+    @DisplayName("Test users are exited from a claim that is deleted while they stand in it")
+    public void testExitOnDelete() {
+        move(user, 50, 50);
+        world.removeClaim(claim);
+        Assertions.assertEquals(List.of(enter(claim)), listener.events);
+
+        stub.tick();
+        Assertions.assertEquals(List.of(enter(claim), exit(claim)), listener.events);
+        Assertions.assertNull(tracker.getCurrentClaim(user.getUuid()));
+    }
+
+    @Test
+    @DisplayName("Test users are exited from a claim that is resized away from them")
+    public void testExitOnResize() {
+        final Region original = claim.getRegion();
+        final Region shrunk = region(0, 0, 50, 50);
+        move(user, 90, 90);
+        world.setClaimRegion(claim, shrunk);
+        stub.tick();
+        Assertions.assertEquals(List.of(new Event(true, original), new Event(false, shrunk)), listener.events);
+
+        // Resizing the claim back over the user enters them again
+        world.setClaimRegion(claim, original);
+        stub.tick();
+        Assertions.assertEquals(List.of(new Event(true, original), new Event(false, shrunk),
+                new Event(true, original)), listener.events);
+    }
+
+    @Test
+    @DisplayName("Test users are exited from their claim when they stop being tracked")
+    public void testUntrack() {
+        move(user, 50, 50);
+        tracker.untrack(user);
+        tracker.untrack(user);
+        Assertions.assertEquals(List.of(enter(claim), exit(claim)), listener.events);
+        Assertions.assertNull(tracker.getCurrentClaim(user.getUuid()));
+
+        // Untracking a user in the wilderness fires no callbacks
+        final TestUser other = new TestUser("Other", UUID.randomUUID(), plugin);
+        move(other, 200, 200);
+        tracker.untrack(other);
+        Assertions.assertEquals(2, listener.events.size());
+    }
+
+    @Test
+    @DisplayName("Test replacing a claim with a replicated copy of it does not exit and re-enter users")
+    public void testReplicatedClaim() {
+        move(user, 50, 50);
+        final Claim copy = plugin.getClaimFromJson(plugin.getGson().toJson(claim));
+        Assertions.assertNotSame(claim, copy);
+
+        // Replace the claim, as applying a claim delta does
+        world.removeClaimsIf(existing -> existing == claim);
+        world.addClaim(copy);
+        stub.tick();
+        Assertions.assertEquals(List.of(enter(claim)), listener.events);
+        Assertions.assertSame(copy, tracker.getCurrentClaim(user.getUuid()));
+
+        // Leaving the copy exits it
+        move(user, 200, 50);
+        Assertions.assertEquals(List.of(enter(claim), exit(copy)), listener.events);
+    }
+
+    @Test
+    @DisplayName("Test tracking metrics are rolled over each tick")
+    public void testMetricsRollover() {
+        move(user, 50, 50);
+        move(user, 51, 50);
+        move(user, 51, 50);
+        stub.tick();
+        Assertions.assertEquals(3, tracker.getLastTickMoves());
+        Assertions.assertEquals(3, tracker.getMoveCount());
+        Assertions.assertEquals(1, tracker.getResolveCount());
+        Assertions.assertEquals(1, tracker.getCrossingCount());
+        final long peak = tracker.getPeakTickNanos();
+        Assertions.assertTrue(peak > 0);
+        Assertions.assertEquals(peak, tracker.getLastTickNanos());
+
+        stub.tick();
+        Assertions.assertEquals(0, tracker.getLastTickMoves());
+        Assertions.assertEquals(0, tracker.getLastTickNanos());
+        Assertions.assertEquals(peak, tracker.getPeakTickNanos());
+        Assertions.assertEquals(3, tracker.getMoveCount());
+        Assertions.assertTrue(tracker.getMetricsSummary().startsWith("Claim tracking: 3 moves (1 claim lookups, "
+                + "1 boundary crossings) over 2 ticks"));
+
+        // Closing the tracker logs the metrics and stops its tick
+        tracker.close();
+        Assertions.assertTrue(stub.getLogs().contains("INFO: " + tracker.getMetricsSummary()));
+        stub.tick();
+        Assertions.assertTrue(tracker.getMetricsSummary().contains(" over 2 ticks"));
+    }
+
+    @Test
+    @DisplayName("Test tracking 300 users moving every tick only looks up claims on boundary crossings")
+    public void testManyUsers() {
+        final int claims = 30;
+        final int users = 300;
+        final int ticks = 20;
+        for (int index = 1; index < claims; index++) {
+            world.addClaim(Claim.create(OWNER, region(index * 200, 0, index * 200 + 100, 100), plugin));
+        }
+        final List<TestUser> online = new ArrayList<>();
+        for (int index = 0; index < users; index++) {
+            online.add(new TestUser("User" + index, UUID.randomUUID(), plugin));
+        }
+
+        // Each user walks a block per tick within a claim, after entering it on their first move
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int index = 0; index < users; index++) {
+                move(online.get(index), (index % claims) * 200 + 10 + tick, 10 + index / claims);
+            }
+            stub.tick();
+            Assertions.assertEquals(users, tracker.getLastTickMoves());
+        }
+        Assertions.assertEquals((long) users * ticks, tracker.getMoveCount());
+        Assertions.assertEquals(users, tracker.getResolveCount());
+        Assertions.assertEquals(users, tracker.getCrossingCount());
+        Assertions.assertEquals(users, listener.events.size());
+
+        // Generously bounded, so as not to be flaky on slow machines; a tick is 50ms
+        Assertions.assertTrue(tracker.getAverageTickNanos() < TimeUnit.MILLISECONDS.toNanos(10),
+                tracker.getMetricsSummary());
+    }
+
+    private void move(@NotNull TestUser user, int x, int z) {
+        user.position = Position.at(x, 64, z, WORLD);
+        tracker.onUserMove(user, user.position, world);
+    }
+
+    @NotNull
+    private static Event enter(@NotNull Claim claim) {
+        return new Event(true, claim.getRegion());
+    }
+
+    @NotNull
+    private static Event exit(@NotNull Claim claim) {
+        return new Event(false, claim.getRegion());
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+    // An enter or exit callback, identifying the claim by the region it had when the callback was fired
+    private record Event(boolean enter, @NotNull Region region) {
+    }
+
+    private static final class RecordingListener implements ClaimTracker.Listener {
+
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public void onClaimEnter(@NotNull OnlineUser user, @NotNull ClaimWorld world, @NotNull Claim claim) {
+            events.add(new Event(true, claim.getRegion()));
+        }
+
+        @Override
+        public void onClaimExit(@NotNull OnlineUser user, @NotNull ClaimWorld world, @NotNull Claim claim) {
+            events.add(new Event(false, claim.getRegion()));
+        }
+
+    }
+
+    private static final class TestUser extends OnlineUser {
+
+        private Position position;
+
+        private TestUser(@NotNull String username, @NotNull UUID uuid, @NotNull HuskClaims plugin) {
+            super(username, uuid, plugin);
+        }
+
+        @NotNull
+        @Override
+        public Position getPosition() {
+            return position;
+        }
+
+        @Override
+        public void sendPluginMessage(@NotNull String channel, byte[] message) {
+        }
+
+        @Override
+        public boolean hasPermission(@NotNull String permission) {
+            return false;
+        }
+
+        @Override
+        public boolean isSneaking() {
+            return false;
+        }
+
+        @Override
+        public Optional<Long> getNumericalPermission(@NotNull String prefix) {
+            return Optional.empty();
+        }
+
+    }
+
+}
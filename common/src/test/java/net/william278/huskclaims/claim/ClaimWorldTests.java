@@ -0,0 +1,189 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import net.william278.cloplib.operation.OperationType;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+@DisplayName("Claim World Tests")
+public class ClaimWorldTests {
+
+    private static final HuskClaims PLUGIN = StubPlugin.create("server-1").getPlugin();
+    private static final OperationType TYPE = OperationType.EXPLOSION_DAMAGE_ENTITY;
+
+    @Nested
+    @DisplayName("Allowed Operation Tests")
+    public class AllowedOperationTests {
+
+        @Test
+        @DisplayName("Test operations are allowed by the innermost claim at each position, or the wilderness")
+        public void testAllowedOperations() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            final Claim allowing = claim(0, 0, 100, 100);
+            final Claim denying = claim(200, 0, 300, 100);
+            denying.getDefaultFlags().remove(TYPE);
+            world.addClaim(allowing);
+            world.addClaim(denying);
+            final Claim restricted = allowing.createAndAddChild(region(10, 10, 20, 20), world, PLUGIN);
+            restricted.getDefaultFlags().clear();
+            restricted.setInheritParent(false);
+            final Claim inheriting = allowing.createAndAddChild(region(30, 30, 40, 40), world, PLUGIN);
+            inheriting.getDefaultFlags().clear();
+
+            final List<Region.Point> positions = List.of(
+                    Region.Point.at(50, 50), Region.Point.at(250, 50), Region.Point.at(15, 15),
+                    Region.Point.at(35, 35), Region.Point.at(150, 50), Region.Point.at(100, 100),
+                    Region.Point.at(200, 0), Region.Point.at(301, 100)
+            );
+            Assertions.assertEquals(bits(0, 3, 4, 5, 7), world.getAllowedOperations(TYPE, positions));
+
+            world.getWildernessFlags().remove(TYPE);
+            Assertions.assertEquals(bits(0, 3, 5), world.getAllowedOperations(TYPE, positions));
+        }
+
+        @Test
+        @DisplayName("Test operations away from claims follow the wilderness rules")
+        public void testAllowedOperationsInWilderness() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            world.addClaim(claim(0, 0, 100, 100));
+            final List<Region.Point> positions = List.of(Region.Point.at(500, 500), Region.Point.at(600, 650));
+            Assertions.assertEquals(bits(0, 1), world.getAllowedOperations(TYPE, positions));
+
+            world.getWildernessFlags().remove(TYPE);
+            Assertions.assertTrue(world.getAllowedOperations(TYPE, positions).isEmpty());
+            Assertions.assertTrue(world.getAllowedOperations(TYPE, List.of()).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test batch checks match checking each position on its own")
+        public void testAllowedOperationsMatchPerPosition() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            final Random random = new Random(42);
+            for (int i = 0; i < 20; i++) {
+                final int x = random.nextInt(2000) - 1000;
+                final int z = random.nextInt(2000) - 1000;
+                final Claim claim = claim(x, z, x + 20 + random.nextInt(80), z + 20 + random.nextInt(80));
+                if (world.isRegionClaimed(claim.getRegion())) {
+                    continue;
+                }
+                if (random.nextBoolean()) {
+                    claim.getDefaultFlags().remove(TYPE);
+                }
+                world.addClaim(claim);
+                final Claim child = claim.createAndAddChild(region(x + 5, z + 5, x + 15, z + 15), world, PLUGIN);
+                child.getDefaultFlags().clear();
+                child.setInheritParent(random.nextBoolean());
+            }
+            world.getWildernessFlags().remove(TYPE);
+
+            final List<Region.Point> positions = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                positions.add(Region.Point.at(random.nextInt(2200) - 1100, random.nextInt(2200) - 1100));
+            }
+            final BitSet allowed = world.getAllowedOperations(TYPE, positions);
+            for (int i = 0; i < positions.size(); i++) {
+                final Claim claim = world.findClaimAt(positions.get(i));
+                final boolean expected = claim == null ? world.getWildernessFlags().contains(TYPE)
+                        : claim.isOperationAllowed(TYPE, world);
+                Assertions.assertEquals(expected, allowed.get(i), "Mismatch at " + positions.get(i));
+            }
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Owner Index Tests")
+    public class OwnerIndexTests {
+
+        @Test
+        @DisplayName("Test claims are indexed by owner, excluding admin claims")
+        public void testClaimsByOwner() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            final User first = User.of(UUID.randomUUID(), "First");
+            final User second = User.of(UUID.randomUUID(), "Second");
+            final Claim firstA = Claim.create(first, region(0, 0, 50, 50), PLUGIN);
+            final Claim secondA = Claim.create(second, region(100, 0, 150, 50), PLUGIN);
+            final Claim firstB = Claim.create(first, region(200, 0, 250, 50), PLUGIN);
+            final Claim admin = Claim.createAdminClaim(region(300, 0, 350, 50), PLUGIN);
+            world.addClaim(firstA);
+            world.addClaim(secondA);
+            world.addClaim(firstB);
+            world.addClaim(admin);
+
+            final Map<UUID, List<Claim>> owners = world.getClaimsByOwner();
+            Assertions.assertEquals(Set.of(first.getUuid(), second.getUuid()), owners.keySet());
+            Assertions.assertEquals(List.of(firstA, firstB), owners.get(first.getUuid()));
+            Assertions.assertEquals(List.of(secondA), owners.get(second.getUuid()));
+            Assertions.assertEquals(world.getClaimsByUser(first.getUuid()), owners.get(first.getUuid()));
+        }
+
+        @Test
+        @DisplayName("Test the owner index is a snapshot that can be modified without changing the world")
+        public void testClaimsByOwnerSnapshot() {
+            final ClaimWorld world = ClaimWorld.create(PLUGIN);
+            final User owner = User.of(UUID.randomUUID(), "Owner");
+            final Claim claim = Claim.create(owner, region(0, 0, 50, 50), PLUGIN);
+            world.addClaim(claim);
+
+            final Map<UUID, List<Claim>> owners = world.getClaimsByOwner();
+            owners.remove(owner.getUuid());
+            Assertions.assertEquals(List.of(claim), world.getClaimsByUser(owner.getUuid()));
+            Assertions.assertEquals(List.of(claim), world.getClaimsByOwner().get(owner.getUuid()));
+            Assertions.assertTrue(ClaimWorld.create(PLUGIN).getClaimsByOwner().isEmpty());
+        }
+
+    }
+
+    @NotNull
+    private static Claim claim(int x1, int z1, int x2, int z2) {
+        return Claim.create(User.of(UUID.randomUUID(), "Owner"), region(x1, z1, x2, z2), PLUGIN);
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+    @NotNull
+    private static BitSet bits(int... indexes) {
+        final BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+
+}
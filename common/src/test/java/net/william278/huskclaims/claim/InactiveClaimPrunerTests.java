@@ -0,0 +1,284 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.config.Settings;
+import net.william278.huskclaims.database.StubDatabase;
+import net.william278.huskclaims.user.Preferences;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+@DisplayName("Inactive Claim Pruner Tests")
+public class InactiveClaimPrunerTests {
+
+    private static final int USERS_PER_SLICE = 2;
+    private static final long SLICE_INTERVAL_TICKS = 3;
+
+    private StubPlugin stub;
+    private HuskClaims plugin;
+    private StubDatabase database;
+    private ClaimWorld overworld;
+    private ClaimWorld nether;
+    private final List<Deletion> deletions = new ArrayList<>();
+    private final Set<UUID> online = new CopyOnWriteArraySet<>();
+
+    @BeforeEach
+    public void setup() {
+        stub = StubPlugin.create("server-1");
+        plugin = stub.getPlugin();
+        database = new StubDatabase(plugin);
+        overworld = ClaimWorld.create(plugin);
+        nether = ClaimWorld.create(plugin);
+        final HashMap<String, ClaimWorld> worlds = new HashMap<>();
+        worlds.put("world", overworld);
+        worlds.put("world_nether", nether);
+
+        stub.stub("getDatabase", args -> database)
+                .stub("getClaimWorlds", args -> worlds)
+                .stub("getOnlineUser", args -> online.contains(args[0]) ? Optional.of(args[0]) : Optional.empty())
+                .stub("deleteClaims", args -> {
+                    final ClaimWorld world = (ClaimWorld) args[0];
+                    @SuppressWarnings("unchecked") final Collection<Claim> claims = (Collection<Claim>) args[1];
+                    deletions.add(new Deletion(world, List.copyOf(claims)));
+                    world.removeClaims(claims);
+                    return null;
+                });
+    }
+
+    @Test
+    @DisplayName("Test inactive users' claims are deleted in throttled slices, with one write per world per slice")
+    public void testPrunesInSlices() {
+        final SavedUser first = user(true);
+        final SavedUser second = user(true);
+        final SavedUser noClaims = user(true);
+        final SavedUser onlineUser = user(true);
+        final SavedUser last = user(true);
+        final SavedUser active = user(false);
+        online.add(onlineUser.getUser().getUuid());
+
+        final Claim firstOverworld = claim(overworld, first, 0);
+        final Claim firstNether = claim(nether, first, 0);
+        final Claim secondOverworld = claim(overworld, second, 1);
+        final Claim onlineOverworld = claim(overworld, onlineUser, 2);
+        final Claim lastNether = claim(nether, last, 1);
+        final Claim activeOverworld = claim(overworld, active, 3);
+        final Claim admin = Claim.createAdminClaim(region(4), plugin);
+        overworld.addClaim(admin);
+        stub.getUserCache().put(first.getUser().getUuid(), first);
+
+        new InactiveClaimPruner(plugin, settings()).start();
+        Assertions.assertTrue(deletions.isEmpty(), "Pruned before the first slice");
+
+        // First slice: both users with claims, written once per world
+        tick(SLICE_INTERVAL_TICKS - 1);
+        Assertions.assertTrue(deletions.isEmpty(), "Pruned before the slice interval elapsed");
+        tick(1);
+        Assertions.assertEquals(2, deletions.size());
+        Assertions.assertEquals(List.of(List.of(firstOverworld, secondOverworld)), getDeleted(overworld));
+        Assertions.assertEquals(List.of(List.of(firstNether)), getDeleted(nether));
+        Assertions.assertEquals(List.of(first, second), database.getUpdatedUsers());
+        Assertions.assertFalse(first.getPreferences().getAuditLog().getLogEntries().isEmpty());
+        Assertions.assertFalse(stub.getUserCache().containsKey(first.getUser().getUuid()));
+
+        // Second slice: a user without claims and an online user, so nothing is written
+        deletions.clear();
+        tick(SLICE_INTERVAL_TICKS);
+        Assertions.assertTrue(deletions.isEmpty());
+        Assertions.assertEquals(List.of(first, second), database.getUpdatedUsers());
+        Assertions.assertTrue(noClaims.getPreferences().getAuditLog().getLogEntries().isEmpty());
+
+        // Last slice finishes the job, after which nothing more is pruned
+        tick(SLICE_INTERVAL_TICKS);
+        Assertions.assertEquals(1, deletions.size());
+        Assertions.assertSame(nether, deletions.get(0).world());
+        Assertions.assertEquals(List.of(lastNether), deletions.get(0).claims());
+        Assertions.assertEquals(List.of(first, second, last), database.getUpdatedUsers());
+        Assertions.assertTrue(stub.getLogs().stream().anyMatch(log -> log.contains(
+                "Pruned 4 claim(s) from 3 inactive user(s)")));
+
+        deletions.clear();
+        tick(SLICE_INTERVAL_TICKS * 5);
+        Assertions.assertTrue(deletions.isEmpty());
+        Assertions.assertEquals(Set.of(onlineOverworld, activeOverworld, admin), Set.copyOf(overworld.getClaims()));
+        Assertions.assertTrue(nether.getClaims().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test users who log in after the job starts keep their claims, even once they have left")
+    public void testSkipsUsersActiveSinceStart() {
+        final SavedUser returnedToDatabase = user(true);
+        final SavedUser returnedToCache = user(true);
+        final SavedUser inactive = user(true);
+        final Claim returnedToDatabaseClaim = claim(overworld, returnedToDatabase, 0);
+        final Claim returnedToCacheClaim = claim(overworld, returnedToCache, 1);
+        final Claim inactiveClaim = claim(overworld, inactive, 2);
+
+        new InactiveClaimPruner(plugin, settings()).start();
+
+        // One logs in on another server, updating their last login in the database...
+        database.addUser(new SavedUser(
+                returnedToDatabase.getUser(), returnedToDatabase.getPreferences(), OffsetDateTime.now(), 0, 0
+        ));
+
+        // ...and the other logs in here, then quits before their slice, leaving fresh data in the cache
+        stub.getUserCache().put(returnedToCache.getUser().getUuid(), new SavedUser(
+                returnedToCache.getUser(), returnedToCache.getPreferences(), OffsetDateTime.now(), 0, 0
+        ));
+
+        tick(SLICE_INTERVAL_TICKS * 3);
+        Assertions.assertEquals(List.of(List.of(inactiveClaim)), getDeleted(overworld));
+        Assertions.assertEquals(List.of(inactive), database.getUpdatedUsers());
+        Assertions.assertEquals(Set.of(returnedToDatabaseClaim, returnedToCacheClaim),
+                Set.copyOf(overworld.getClaims()));
+    }
+
+    @Test
+    @DisplayName("Test claims are looked up from the live claim worlds when a user's slice is reached")
+    public void testUsesLiveClaims() {
+        final SavedUser first = user(true);
+        user(true);
+        final SavedUser second = user(true);
+        final SavedUser third = user(true);
+        claim(overworld, first, 0);
+        final Claim removed = claim(overworld, second, 1);
+        claim(overworld, third, 2);
+
+        new InactiveClaimPruner(plugin, settings()).start();
+        tick(SLICE_INTERVAL_TICKS);
+        Assertions.assertEquals(1, deletions.size());
+
+        // Claims made and deleted after the job started are reflected when the next slice is reached
+        overworld.removeClaim(removed);
+        final Claim created = claim(nether, third, 0);
+        deletions.clear();
+        tick(SLICE_INTERVAL_TICKS);
+        Assertions.assertEquals(List.of(List.of(created)), getDeleted(nether));
+        Assertions.assertEquals(1, getDeleted(overworld).size());
+        Assertions.assertFalse(getDeleted(overworld).get(0).contains(removed));
+        Assertions.assertTrue(overworld.getClaims().isEmpty());
+        Assertions.assertTrue(nether.getClaims().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test nothing is scheduled when no users are inactive")
+    public void testNoInactiveUsers() {
+        final SavedUser active = user(false);
+        claim(overworld, active, 0);
+
+        new InactiveClaimPruner(plugin, settings()).start();
+        tick(SLICE_INTERVAL_TICKS * 3);
+        Assertions.assertTrue(deletions.isEmpty());
+        Assertions.assertTrue(database.getUpdatedUsers().isEmpty());
+        Assertions.assertTrue(stub.getLogs().isEmpty());
+    }
+
+    // Get the claims deleted from a world by each write to it
+    @NotNull
+    private List<List<Claim>> getDeleted(@NotNull ClaimWorld world) {
+        return deletions.stream().filter(deletion -> deletion.world() == world).map(Deletion::claims).toList();
+    }
+
+    private void tick(long ticks) {
+        for (long i = 0; i < ticks; i++) {
+            stub.tick();
+        }
+    }
+
+    @NotNull
+    private SavedUser user(boolean inactive) {
+        final UUID uuid = UUID.randomUUID();
+        final User user = User.of(uuid, uuid.toString().substring(0, 16));
+        final SavedUser saved = new SavedUser(user, preferences(),
+                OffsetDateTime.now().minusDays(inactive ? 100 : 1), 0, 0);
+        database.addUser(saved);
+        return saved;
+    }
+
+    // Add a claim to a world, at a separate slot along the x-axis for each index
+    @NotNull
+    private Claim claim(@NotNull ClaimWorld world, @NotNull SavedUser owner, int index) {
+        final Claim claim = Claim.create(owner.getUser(), region(index), plugin);
+        world.addClaim(claim);
+        return claim;
+    }
+
+    @NotNull
+    private static Region region(int index) {
+        return Region.from(Region.Point.at(index * 100, 0), Region.Point.at(index * 100 + 50, 50));
+    }
+
+    @NotNull
+    private static Settings.ClaimSettings.InactivityPruningSettings settings() {
+        try {
+            final Constructor<Settings.ClaimSettings.InactivityPruningSettings> constructor =
+                    Settings.ClaimSettings.InactivityPruningSettings.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            final Settings.ClaimSettings.InactivityPruningSettings settings = constructor.newInstance();
+            setField(settings, "enabled", true);
+            setField(settings, "usersPerSlice", USERS_PER_SLICE);
+            setField(settings, "sliceIntervalTicks", SLICE_INTERVAL_TICKS);
+            return settings;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create pruning settings", e);
+        }
+    }
+
+    private static void setField(@NotNull Object object, @NotNull String name, @NotNull Object value)
+            throws ReflectiveOperationException {
+        final Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    @NotNull
+    private static Preferences preferences() {
+        try {
+            final Constructor<Preferences> constructor = Preferences.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create preferences", e);
+        }
+    }
+
+    private record Deletion(@NotNull ClaimWorld world, @NotNull List<Claim> claims) {
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.claim;
+
+import net.william278.huskclaims.highlighter.Highlightable;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@DisplayName("Region Tests")
+public class RegionTests {
+
+    @ParameterizedTest(name = "Region: ({0}, {1}) to ({2}, {3}), within ({4}, {5}) to ({6}, {7})")
+    @DisplayName("Test highlight points within bounds are exactly the outline's points in the bounds")
+    @CsvSource({
+            "0, 0, 100, 100, -50, -50, 50, 50",
+            "0, 0, 100, 100, 13, -5, 57, 5",
+            "0, 0, 100, 100, 95, 95, 200, 200",
+            "0, 0, 100, 100, -10, -10, 110, 110",
+            "0, 0, 100, 100, 20, 20, 80, 80",
+            "0, 0, 100, 100, 200, 200, 300, 300",
+            "-237, -91, 412, 388, -100, 370, -3, 400",
+            "-237, -91, 412, 388, 405, -95, 420, 0",
+            "5, 5, 7, 7, 0, 0, 10, 10",
+            "5, 5, 7, 7, 6, 6, 6, 6",
+            "0, 0, 1, 200, 1, 11, 1, 19"
+    })
+    public void testHighlightPointsWithin(int x1, int z1, int x2, int z2, int bx1, int bz1, int bx2, int bz2) {
+        final Region region = region(x1, z1, x2, z2);
+        final Region bounds = region(bx1, bz1, bx2, bz2);
+        for (boolean overlap : new boolean[]{false, true}) {
+            final Map<Region.Point, Highlightable.HighlightType> all = region.getHighlightPoints(overlap, false, false);
+            final Map<Region.Point, Highlightable.HighlightType> expected = new HashMap<>();
+            all.forEach((point, type) -> {
+                if (bounds.contains(point)) {
+                    expected.put(point, type);
+                }
+            });
+            Assertions.assertEquals(expected, region.getHighlightPoints(overlap, false, false, bounds));
+        }
+    }
+
+    @Test
+    @DisplayName("Test highlight points without bounds are the whole outline")
+    public void testHighlightPointsUnbounded() {
+        final Region region = region(0, 0, 100, 100);
+        Assertions.assertEquals(region.getHighlightPoints(false, false, false),
+                region.getHighlightPoints(false, false, false, null));
+    }
+
+    @Test
+    @DisplayName("Test highlighting a huge claim within small bounds only visits the bounds")
+    public void testHighlightPointsWithinHugeRegion() {
+        final Region region = region(-10_000_000, -10_000_000, 10_000_000, 10_000_000);
+        final Region bounds = region(-10_000_050, -50, -9_999_950, 50);
+        final Map<Region.Point, Highlightable.HighlightType> points = region.getHighlightPoints(
+                false, false, false, bounds
+        );
+        Assertions.assertFalse(points.isEmpty());
+        Assertions.assertTrue(points.keySet().stream().allMatch(bounds::contains));
+        Assertions.assertEquals(Highlightable.HighlightType.EDGE, points.get(Region.Point.at(-10_000_000, 0)));
+        Assertions.assertEquals(11, points.size());
+    }
+
+    @NotNull
+    private static Region region(int x1, int z1, int x2, int z2) {
+        return Region.from(Region.Point.at(x1, z1), Region.Point.at(x2, z2));
+    }
+
+}
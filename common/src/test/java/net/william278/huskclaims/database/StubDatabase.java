@@ -0,0 +1,188 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.database;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.group.UserGroup;
+import net.william278.huskclaims.position.ServerWorld;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.Preferences;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An in-memory {@link Database} of saved users, for tests. Users are returned in the order they were saved. Claim
+ * worlds and user groups are not stored.
+ *
+ * @since 1.0
+ */
+public class StubDatabase extends Database {
+
+    private final Map<UUID, SavedUser> users = Collections.synchronizedMap(Maps.newLinkedHashMap());
+    private final List<SavedUser> updatedUsers = new CopyOnWriteArrayList<>();
+
+    public StubDatabase(@NotNull HuskClaims plugin) {
+        super(plugin);
+    }
+
+    /**
+     * Save a user, without recording it as {@link #getUpdatedUsers() updated}
+     *
+     * @param user the user
+     */
+    public void addUser(@NotNull SavedUser user) {
+        users.put(user.getUser().getUuid(), user);
+    }
+
+    /**
+     * Get the users passed to {@link #updateUser(SavedUser)}, in the order they were updated
+     *
+     * @return the updated users
+     */
+    @NotNull
+    public List<SavedUser> getUpdatedUsers() {
+        return updatedUsers;
+    }
+
+    @Override
+    protected void executeScript(@NotNull Connection connection, @NotNull String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public boolean isCreated() {
+        return true;
+    }
+
+    @Override
+    public int getSchemaVersion() {
+        return 0;
+    }
+
+    @Override
+    public void setSchemaVersion(int version) {
+    }
+
+    @Override
+    public Optional<SavedUser> getUser(@NotNull UUID uuid) {
+        return Optional.ofNullable(users.get(uuid));
+    }
+
+    @Override
+    public Optional<SavedUser> getUser(@NotNull String username) {
+        synchronized (users) {
+            return users.values().stream()
+                    .filter(user -> user.getUser().getName().equalsIgnoreCase(username))
+                    .findFirst();
+        }
+    }
+
+    @Override
+    public List<SavedUser> getInactiveUsers(long daysInactive) {
+        final OffsetDateTime cutoff = OffsetDateTime.now().minusDays(daysInactive);
+        synchronized (users) {
+            return users.values().stream().filter(user -> user.getLastLogin().isBefore(cutoff)).toList();
+        }
+    }
+
+    @Override
+    public void createUser(@NotNull User user, long claimBlocks, @NotNull Preferences preferences) {
+        users.put(user.getUuid(), new SavedUser(user, preferences, OffsetDateTime.now(), claimBlocks, 0));
+    }
+
+    @Override
+    public void updateUser(@NotNull SavedUser user) {
+        users.put(user.getUser().getUuid(), user);
+        updatedUsers.add(user);
+    }
+
+    @NotNull
+    @Override
+    public ConcurrentLinkedQueue<UserGroup> getUserGroups(@NotNull UUID uuid) {
+        return new ConcurrentLinkedQueue<>();
+    }
+
+    @NotNull
+    @Override
+    public ConcurrentLinkedQueue<UserGroup> getAllUserGroups() {
+        return new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void addUserGroup(@NotNull UserGroup group) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateUserGroup(@NotNull UUID owner, @NotNull String name, @NotNull UserGroup newGroup) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void deleteUserGroup(@NotNull UserGroup group) {
+        throw new UnsupportedOperationException();
+    }
+
+    @NotNull
+    @Override
+    public Map<World, ClaimWorld> getClaimWorlds(@NotNull String server) {
+        return Maps.newHashMap();
+    }
+
+    @NotNull
+    @Override
+    public Map<ServerWorld, ClaimWorld> getAllClaimWorlds() {
+        return Maps.newHashMap();
+    }
+
+    @NotNull
+    @Override
+    public ClaimWorld createClaimWorld(@NotNull World world) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void updateClaimWorld(@NotNull ClaimWorld claimWorld) {
+    }
+
+    @Override
+    public void close() {
+        users.clear();
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.highlighter;
+
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.util.BlockProvider;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+@DisplayName("Block Highlighter Tests")
+public class BlockHighlighterTests {
+
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+
+    private final BlockProvider.MaterialBlock stone = new TestBlock("minecraft:stone");
+    private final BlockProvider.MaterialBlock grass = new TestBlock("minecraft:grass_block");
+    private final BlockProvider.MaterialBlock gold = new TestBlock("minecraft:gold_block");
+    private final BlockProvider.MaterialBlock glowstone = new TestBlock("minecraft:glowstone");
+
+    @Test
+    @DisplayName("Test all blocks are sent when nothing was highlighted before")
+    public void testFirstHighlight() {
+        final Map<Position, BlockHighlighter.HighlightedBlock> current = Map.of(
+                at(0, 0), new BlockHighlighter.HighlightedBlock(stone, glowstone),
+                at(10, 0), new BlockHighlighter.HighlightedBlock(grass, gold)
+        );
+        Assertions.assertEquals(Map.of(at(0, 0), glowstone, at(10, 0), gold),
+                BlockHighlighter.getUpdates(null, current));
+        Assertions.assertEquals(Map.of(at(0, 0), glowstone, at(10, 0), gold),
+                BlockHighlighter.getUpdates(Map.of(), current));
+    }
+
+    @Test
+    @DisplayName("Test only changed blocks are sent, and blocks no longer highlighted are reverted")
+    public void testDiff() {
+        final Map<Position, BlockHighlighter.HighlightedBlock> previous = Map.of(
+                at(0, 0), new BlockHighlighter.HighlightedBlock(stone, glowstone),
+                at(10, 0), new BlockHighlighter.HighlightedBlock(grass, gold),
+                at(20, 0), new BlockHighlighter.HighlightedBlock(stone, gold),
+                at(30, 0), new BlockHighlighter.HighlightedBlock(grass, gold)
+        );
+        final Map<Position, BlockHighlighter.HighlightedBlock> current = Map.of(
+                at(0, 0), new BlockHighlighter.HighlightedBlock(stone, glowstone),
+                at(10, 0), new BlockHighlighter.HighlightedBlock(grass, glowstone),
+                at(40, 0), new BlockHighlighter.HighlightedBlock(stone, gold)
+        );
+        Assertions.assertEquals(Map.of(
+                at(10, 0), glowstone,
+                at(20, 0), stone,
+                at(30, 0), grass,
+                at(40, 0), gold
+        ), BlockHighlighter.getUpdates(previous, current));
+    }
+
+    @Test
+    @DisplayName("Test nothing is sent when the highlight is unchanged")
+    public void testUnchanged() {
+        final Map<Position, BlockHighlighter.HighlightedBlock> highlighted = Map.of(
+                at(0, 0), new BlockHighlighter.HighlightedBlock(stone, glowstone),
+                at(10, 0), new BlockHighlighter.HighlightedBlock(grass, gold)
+        );
+        Assertions.assertTrue(BlockHighlighter.getUpdates(highlighted, Map.copyOf(highlighted)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test everything is reverted when the highlight moves out of view")
+    public void testRevertAll() {
+        final Map<Position, BlockHighlighter.HighlightedBlock> previous = Map.of(
+                at(0, 0), new BlockHighlighter.HighlightedBlock(stone, glowstone),
+                at(10, 0), new BlockHighlighter.HighlightedBlock(grass, gold)
+        );
+        Assertions.assertEquals(Map.of(at(0, 0), stone, at(10, 0), grass),
+                BlockHighlighter.getUpdates(previous, Map.of()));
+    }
+
+    @NotNull
+    private static Position at(int x, int z) {
+        return Position.at(x, 64, z, WORLD);
+    }
+
+    private static final class TestBlock extends BlockProvider.MaterialBlock {
+
+        private final String key;
+
+        private TestBlock(@NotNull String key) {
+            this.key = key;
+        }
+
+        @NotNull
+        @Override
+        public String getMaterialKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.highlighter;
+
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.util.BlockProvider;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("Highlighter Tests")
+public class HighlighterTests {
+
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+    private static final Region REGION = Region.from(Region.Point.at(0, 0), Region.Point.at(40, 40));
+
+    @Nested
+    @DisplayName("Highlight Type Tests")
+    public class TypeTests {
+
+        @Test
+        @DisplayName("Test positions on a claim outline get the type of their highlight point")
+        public void testTypeAtPoints() {
+            final Map<Region.Point, Highlightable.HighlightType> points = REGION.getHighlightPoints(
+                    false, false, false
+            );
+            Assertions.assertEquals(Highlightable.HighlightType.CORNER, Highlightable.getTypeAt(points, at(0, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.CORNER, Highlightable.getTypeAt(points, at(40, 40)));
+            Assertions.assertEquals(Highlightable.HighlightType.EDGE, Highlightable.getTypeAt(points, at(10, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.EDGE, Highlightable.getTypeAt(points, at(40, 20)));
+            points.forEach((point, type) -> Assertions.assertEquals(type, Highlightable.getTypeAt(
+                    points, Position.at(point.getBlockX(), 100, point.getBlockZ(), WORLD)
+            )));
+        }
+
+        @Test
+        @DisplayName("Test positions that aren't highlight points are highlighted as a selection")
+        public void testTypeAtOtherPositions() {
+            final Map<Region.Point, Highlightable.HighlightType> points = REGION.getHighlightPoints(
+                    false, false, false
+            );
+            Assertions.assertEquals(Highlightable.HighlightType.SELECTION, Highlightable.getTypeAt(points, at(5, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.SELECTION, Highlightable.getTypeAt(points, at(20, 20)));
+            Assertions.assertEquals(Highlightable.HighlightType.SELECTION, Highlightable.getTypeAt(points, at(-1, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.SELECTION, Highlightable.getTypeAt(Map.of(), at(0, 0)));
+        }
+
+        @Test
+        @DisplayName("Test the highlight types of child, admin and overlapping claims")
+        public void testClaimTypes() {
+            Assertions.assertEquals(Highlightable.HighlightType.CHILD_CORNER, Highlightable.getTypeAt(
+                    REGION.getHighlightPoints(false, true, false), at(0, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.ADMIN_EDGE, Highlightable.getTypeAt(
+                    REGION.getHighlightPoints(false, false, true), at(10, 0)));
+            Assertions.assertEquals(Highlightable.HighlightType.OVERLAP_CORNER, Highlightable.getTypeAt(
+                    REGION.getHighlightPoints(true, true, true), at(0, 40)));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Highlight Block Tests")
+    public class BlockTests {
+
+        @Test
+        @DisplayName("Test every highlight type has a block, resolved once from the settings")
+        public void testBlocksResolvedOnce() {
+            final AtomicInteger lookups = new AtomicInteger();
+            final StubPlugin stub = StubPlugin.create("server-1").stub("getBlockFor", args -> {
+                lookups.incrementAndGet();
+                return new TestBlock((String) args[0]);
+            });
+            final Map<Highlightable.HighlightType, String> configured = stub.getPlugin().getSettings().getClaims()
+                    .getBlockHighlighterTypes();
+            final HighlightBlocks blocks = new HighlightBlocks(stub.getPlugin());
+            Assertions.assertEquals(Highlightable.HighlightType.values().length, lookups.get());
+
+            for (Highlightable.HighlightType type : Highlightable.HighlightType.values()) {
+                final BlockProvider.MaterialBlock block = blocks.get(type);
+                Assertions.assertEquals(configured.getOrDefault(type, HighlightBlocks.DEFAULT_BLOCK),
+                        block.getMaterialKey());
+                Assertions.assertSame(block, blocks.get(type));
+            }
+            Assertions.assertEquals(Highlightable.HighlightType.values().length, lookups.get());
+        }
+
+    }
+
+    @NotNull
+    private static Position at(int x, int z) {
+        return Position.at(x, 64, z, WORLD);
+    }
+
+    private static final class TestBlock extends BlockProvider.MaterialBlock {
+
+        private final String key;
+
+        private TestBlock(@NotNull String key) {
+            this.key = key;
+        }
+
+        @NotNull
+        @Override
+        public String getMaterialKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+
+    }
+
+}
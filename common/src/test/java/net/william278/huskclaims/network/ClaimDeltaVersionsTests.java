@@ -0,0 +1,100 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import net.william278.huskclaims.position.ServerWorld;
+import net.william278.huskclaims.position.World;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@DisplayName("Claim Delta Version Tests")
+public class ClaimDeltaVersionsTests {
+
+    private static final World WORLD = World.of("world", UUID.randomUUID());
+    private static final ServerWorld SERVER_WORLD = new ServerWorld("server-1", WORLD);
+
+    @Test
+    @DisplayName("Test outbound versions are consecutive per world")
+    public void testOutboundVersions() {
+        final ClaimDeltaVersions versions = new ClaimDeltaVersions();
+        Assertions.assertEquals(1, versions.next("world"));
+        Assertions.assertEquals(2, versions.next("world"));
+        Assertions.assertEquals(1, versions.next("world_nether"));
+        Assertions.assertEquals(3, versions.next("world"));
+    }
+
+    @Test
+    @DisplayName("Test consecutive deltas are applied and old deltas ignored")
+    public void testConsecutiveDeltas() {
+        final ClaimDeltaVersions versions = new ClaimDeltaVersions();
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(1)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(2)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.STALE, versions.accept(SERVER_WORLD, 1, delta(2)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.STALE, versions.accept(SERVER_WORLD, 1, delta(1)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(3)));
+    }
+
+    @Test
+    @DisplayName("Test a gap in versions triggers a resync, buffering deltas until it is drained")
+    public void testGapResync() {
+        final ClaimDeltaVersions versions = new ClaimDeltaVersions();
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(1)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.RESYNC, versions.accept(SERVER_WORLD, 1, delta(3)));
+
+        final ClaimDelta buffered = delta(4);
+        Assertions.assertEquals(ClaimDeltaVersions.Result.BUFFERED, versions.accept(SERVER_WORLD, 1, buffered));
+        Assertions.assertEquals(List.of(buffered), versions.drainResync(SERVER_WORLD));
+        Assertions.assertEquals(List.of(), versions.drainResync(SERVER_WORLD));
+
+        // Once drained, deltas are applied as they arrive again
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(5)));
+    }
+
+    @Test
+    @DisplayName("Test the first delta seen from a world resyncs unless it starts a session")
+    public void testFirstDelta() {
+        final ClaimDeltaVersions versions = new ClaimDeltaVersions();
+        Assertions.assertEquals(ClaimDeltaVersions.Result.RESYNC, versions.accept(SERVER_WORLD, 1, delta(7)));
+
+        final ServerWorld other = new ServerWorld("server-2", WORLD);
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(other, 1, delta(1)));
+    }
+
+    @Test
+    @DisplayName("Test a new session from a restarted server is followed from its first delta")
+    public void testSessionReset() {
+        final ClaimDeltaVersions versions = new ClaimDeltaVersions();
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(1)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 1, delta(2)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.APPLY, versions.accept(SERVER_WORLD, 2, delta(1)));
+        Assertions.assertEquals(ClaimDeltaVersions.Result.RESYNC, versions.accept(SERVER_WORLD, 3, delta(2)));
+    }
+
+    private static ClaimDelta delta(long version) {
+        return new ClaimDelta(WORLD, List.of(), List.of(), Map.of(), version);
+    }
+
+}
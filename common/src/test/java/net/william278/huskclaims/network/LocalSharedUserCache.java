@@ -0,0 +1,79 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-memory {@link SharedUserCache}, shared by the servers of a simulated {@link LoopbackNetwork}
+ *
+ * @since 1.0
+ */
+public class LocalSharedUserCache implements SharedUserCache {
+
+    private final ConcurrentMap<UUID, Expiring> entries = Maps.newConcurrentMap();
+    private final long ttlNanos;
+
+    public LocalSharedUserCache(long ttlSeconds) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    @Override
+    public Optional<Entry> get(@NotNull UUID uuid) {
+        final Expiring expiring = entries.get(uuid);
+        if (expiring == null) {
+            return Optional.empty();
+        }
+        if (System.nanoTime() - expiring.expiresAt > 0) {
+            entries.remove(uuid, expiring);
+            return Optional.empty();
+        }
+        return Optional.of(expiring.entry);
+    }
+
+    @Override
+    public boolean put(@NotNull UserSnapshot snapshot, long version) {
+        final boolean[] cached = {false};
+        final long now = System.nanoTime();
+        entries.compute(snapshot.user().getUuid(), (uuid, existing) -> {
+            if (existing != null && now - existing.expiresAt <= 0 && existing.entry.version() >= version) {
+                return existing;
+            }
+            cached[0] = true;
+            return new Expiring(new Entry(snapshot, version), now + ttlNanos);
+        });
+        return cached[0];
+    }
+
+    @Override
+    public void invalidate(@NotNull UUID uuid) {
+        entries.remove(uuid);
+    }
+
+    private record Expiring(@NotNull Entry entry, long expiresAt) {
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import lombok.Getter;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.user.OnlineUser;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Optional;
+import java.util.logging.Level;
+
+/**
+ * A message broker routing messages between plugin instances in the same process over a {@link LoopbackNetwork},
+ * for simulating a cluster without a proxy or Redis server
+ *
+ * @since 1.0
+ */
+public class LoopbackBroker extends Broker {
+
+    @Getter
+    private final LoopbackNetwork network;
+
+    public LoopbackBroker(@NotNull HuskClaims plugin, @NotNull LoopbackNetwork network) {
+        super(plugin);
+        this.network = network;
+    }
+
+    @Override
+    public void initialize() throws RuntimeException {
+        network.register(getServer(), this);
+    }
+
+    // Handle a message delivered by the network, routing player-targeted messages to the target player
+    void receive(@NotNull Message message) {
+        try {
+            if (message.getTargetType() == Message.TargetType.PLAYER && !message.getTarget().equals(Message.TARGET_ALL)) {
+                plugin.getOnlineUser(message.getTarget()).ifPresent(receiver -> handle(receiver, message));
+                return;
+            }
+            handle(plugin.findAnyOnlineUser().orElse(null), message);
+        } catch (Throwable e) {
+            plugin.log(Level.SEVERE, "Failed to handle loopback message of type " + message.getType(), e);
+        }
+    }
+
+    @Override
+    public Optional<SharedUserCache> getSharedUserCache() {
+        return Optional.of(network.getSharedUserCache());
+    }
+
+    @Override
+    protected void send(@NotNull Message message, @NotNull OnlineUser sender) {
+        network.publish(getServer(), message);
+    }
+
+    // Simulated servers have no online users, so messages are published on behalf of the server itself
+    @Override
+    public void sendFromServer(@NotNull Message message) {
+        message.stamp(getServer(), getServer(), getSequencer());
+        network.publish(getServer(), message);
+    }
+
+    @Override
+    public void changeServer(@NotNull OnlineUser user, @NotNull String server) {
+        plugin.log(Level.WARNING, "Cannot move " + user.getName() + " to " + server + " on a loopback network");
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        network.unregister(getServer(), this);
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Lists;
+import lombok.Getter;
+import net.william278.huskclaims.HuskClaims;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Harness running a simulated cluster of plugin instances in one process, connected by {@link LoopbackBroker}s on a
+ * shared {@link LoopbackNetwork}.
+ * <p>
+ * Plugin instances are supplied by a factory, given each simulated server's name; the factory must return instances
+ * reporting that name from {@link HuskClaims#getServerName()}, with their own database and cross-server messaging
+ * disabled, as the harness installs the loopback broker itself. Messages sent by the instances, such as claim deltas
+ * or user cache invalidations, are then routed through the network and handled by the other instances'
+ * {@link MessageHandler}s as they would be over a proxy or Redis.
+ *
+ * @since 1.0
+ */
+@Getter
+public class LoopbackCluster implements AutoCloseable {
+
+    private final LoopbackNetwork network;
+    private final List<HuskClaims> servers;
+
+    private LoopbackCluster(@NotNull LoopbackNetwork network, @NotNull List<HuskClaims> servers) {
+        this.network = network;
+        this.servers = Collections.unmodifiableList(servers);
+    }
+
+    /**
+     * Start a simulated cluster
+     *
+     * @param serverCount the number of servers to start
+     * @param network     the network to connect the servers with
+     * @param factory     factory for a plugin instance, given the name of its server
+     * @return the running cluster
+     * @since 1.0
+     */
+    @NotNull
+    public static LoopbackCluster start(int serverCount, @NotNull LoopbackNetwork network,
+                                        @NotNull Function<String, HuskClaims> factory) {
+        final List<HuskClaims> servers = Lists.newArrayListWithCapacity(serverCount);
+        for (int i = 0; i < serverCount; i++) {
+            final HuskClaims plugin = factory.apply(getServerName(i));
+            final LoopbackBroker broker = new LoopbackBroker(plugin, network);
+            broker.initialize();
+            plugin.setBroker(broker);
+            servers.add(plugin);
+        }
+        return new LoopbackCluster(network, servers);
+    }
+
+    @NotNull
+    public static String getServerName(int index) {
+        return "server-" + index;
+    }
+
+    @NotNull
+    public HuskClaims getServer(int index) {
+        return servers.get(index);
+    }
+
+    @NotNull
+    public LoopbackBroker getBroker(int index) {
+        return (LoopbackBroker) getServer(index).getBroker()
+                .orElseThrow(() -> new IllegalStateException("Server " + index + " has no broker"));
+    }
+
+    /**
+     * Send a message from a server, on behalf of the server itself rather than an online user
+     *
+     * @param index   the index of the sending server
+     * @param message the message to send
+     * @since 1.0
+     */
+    public void send(int index, @NotNull Message message) {
+        getBroker(index).sendFromServer(message);
+    }
+
+    /**
+     * Run a cross-server invalidation storm: every server invalidates the cached data of each of a set of users a
+     * number of times, then the network is drained
+     *
+     * @param rounds        the number of times each server invalidates each user
+     * @param users         the users to invalidate
+     * @param timeoutMillis the max time to wait for the network to drain, in milliseconds
+     * @return the result of the storm
+     * @throws InterruptedException if interrupted while waiting for the network to drain
+     * @since 1.0
+     */
+    @NotNull
+    public StormResult runInvalidationStorm(int rounds, @NotNull List<UUID> users,
+                                            long timeoutMillis) throws InterruptedException {
+        final long sent = network.getSentCount().get();
+        final long delivered = network.getDeliveredCount().get();
+        final long dropped = network.getDroppedCount().get();
+        final long started = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int index = 0; index < servers.size(); index++) {
+                for (UUID user : users) {
+                    send(index, Message.builder()
+                            .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                            .target(Message.TARGET_ALL, Message.TargetType.SERVER)
+                            .payload(Payload.uuid(user))
+                            .build());
+                }
+            }
+        }
+        final boolean drained = network.awaitIdle(timeoutMillis);
+        return new StormResult(
+                network.getSentCount().get() - sent,
+                network.getDeliveredCount().get() - delivered,
+                network.getDroppedCount().get() - dropped,
+                System.nanoTime() - started,
+                drained
+        );
+    }
+
+    /**
+     * Wait until no messages are in flight on the network
+     *
+     * @param timeoutMillis the max time to wait, in milliseconds
+     * @return {@code true} if the network became idle before the timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @since 1.0
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        return network.awaitIdle(timeoutMillis);
+    }
+
+    @Override
+    public void close() {
+        servers.forEach(HuskClaims::closeBroker);
+        network.close();
+    }
+
+    /**
+     * The result of an invalidation storm
+     *
+     * @param sent         the number of messages sent
+     * @param delivered    the number of deliveries handled across all servers
+     * @param dropped      the number of deliveries lost by the network
+     * @param elapsedNanos the time taken to send and drain the messages, in nanoseconds
+     * @param drained      whether the network drained before the timeout
+     * @since 1.0
+     */
+    public record StormResult(long sent, long delivered, long dropped, long elapsedNanos, boolean drained) {
+
+        public double getDeliveriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : delivered / (elapsedNanos / 1_000_000_000d);
+        }
+
+    }
+
+}
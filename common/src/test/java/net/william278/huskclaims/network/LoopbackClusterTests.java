@@ -0,0 +1,313 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.claim.Claim;
+import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.database.StubDatabase;
+import net.william278.huskclaims.position.ServerWorld;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.Preferences;
+import net.william278.huskclaims.user.SavedUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+
+@DisplayName("Loopback Cluster Tests")
+public class LoopbackClusterTests {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final UUID USER_UUID = UUID.fromString("b3c4e2a0-1f4e-4b2a-9d5e-0a6f1e2d3c4b");
+    private static final UUID OTHER_UUID = UUID.fromString("4f1e2d3c-5b6a-4978-8a9b-0c1d2e3f4a5b");
+    private static final World WORLD = World.of("world", UUID.fromString("7a8b9c0d-1e2f-4a3b-8c4d-5e6f7a8b9c0d"));
+    private static final int CLAIMS = 40;
+    private static final int MAX_TRAILING_CHANGES = 20;
+
+    private final List<StubPlugin> stubs = new ArrayList<>();
+    private final Map<String, HashMap<String, ClaimWorld>> claimWorlds = Maps.newConcurrentMap();
+    private final Map<String, ConcurrentMap<ServerWorld, ClaimWorld>> replicatedClaimWorlds = Maps.newConcurrentMap();
+    private LoopbackCluster cluster;
+
+    @AfterEach
+    public void closeCluster() {
+        if (cluster != null) {
+            cluster.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Test user snapshots are applied by other servers only if newer than the last seen")
+    public void testSnapshotVersions() throws InterruptedException {
+        cluster = start(3, LoopbackNetwork.perfect());
+        for (HuskClaims server : cluster.getServers()) {
+            server.getUserCache().put(USER_UUID, savedUser(USER_UUID, 100));
+        }
+
+        cluster.send(0, snapshotMessage(USER_UUID, 200, 1));
+        cluster.send(0, snapshotMessage(USER_UUID, 300, 2));
+        cluster.send(0, snapshotMessage(USER_UUID, 250, 1));
+        Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+
+        // The first snapshot is applied immediately, and the newest when the coalescing window closes
+        for (int index = 1; index < 3; index++) {
+            Assertions.assertEquals(200, cluster.getServer(index).getUserCache().get(USER_UUID).getClaimBlocks());
+        }
+        tick();
+        for (int index = 1; index < 3; index++) {
+            Assertions.assertEquals(300, cluster.getServer(index).getUserCache().get(USER_UUID).getClaimBlocks());
+            Assertions.assertEquals(1, cluster.getBroker(index).getCoalescer().getCoalescedCount());
+        }
+        Assertions.assertEquals(100, cluster.getServer(0).getUserCache().get(USER_UUID).getClaimBlocks());
+    }
+
+    @Test
+    @DisplayName("Test duplicate deliveries of a message are handled once")
+    public void testDuplicatesDropped() throws InterruptedException {
+        cluster = start(3, LoopbackNetwork.perfect());
+        final Message message = invalidateMessage(USER_UUID);
+        message.stamp(LoopbackCluster.getServerName(0), LoopbackCluster.getServerName(0),
+                cluster.getBroker(0).getSequencer());
+        cluster.getNetwork().publish(LoopbackCluster.getServerName(0), message);
+        cluster.getNetwork().publish(LoopbackCluster.getServerName(0), message);
+        Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+
+        Assertions.assertEquals(0, cluster.getBroker(0).getDuplicateCount().get());
+        Assertions.assertEquals(1, cluster.getBroker(1).getDuplicateCount().get());
+        Assertions.assertEquals(1, cluster.getBroker(2).getDuplicateCount().get());
+    }
+
+    @Test
+    @DisplayName("Test reordered deliveries are not mistaken for duplicates")
+    public void testReorderedStorm() throws InterruptedException {
+        final LoopbackNetwork network = new LoopbackNetwork(100, 2000, 0.1, 0.25, 7);
+        cluster = start(3, network);
+        final List<UUID> users = List.of(USER_UUID, OTHER_UUID);
+
+        final LoopbackCluster.StormResult result = cluster.runInvalidationStorm(5, users, TIMEOUT_MILLIS);
+        Assertions.assertTrue(result.drained());
+        Assertions.assertEquals(3 * 5 * users.size(), result.sent());
+        Assertions.assertEquals(result.sent() * 2, result.delivered() + result.dropped());
+        Assertions.assertTrue(network.getReorderedCount().get() > 0);
+        for (int index = 0; index < 3; index++) {
+            Assertions.assertEquals(0, cluster.getBroker(index).getDuplicateCount().get());
+        }
+    }
+
+    @Test
+    @DisplayName("Test messages from a restarted server's new session are accepted")
+    public void testSessionReset() throws InterruptedException {
+        cluster = start(2, LoopbackNetwork.perfect());
+        final HuskClaims receiver = cluster.getServer(0);
+        receiver.getUserCache().put(USER_UUID, savedUser(USER_UUID, 100));
+        receiver.getUserCache().put(OTHER_UUID, savedUser(OTHER_UUID, 100));
+
+        final long session = cluster.getBroker(1).getSequencer().getSession();
+        cluster.send(1, invalidateMessage(USER_UUID));
+        Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+        Assertions.assertFalse(receiver.getUserCache().containsKey(USER_UUID));
+
+        // Restart the broker, which restarts its sequence numbers under a new session
+        final HuskClaims restarted = cluster.getServer(1);
+        restarted.closeBroker();
+        final LoopbackBroker broker = new LoopbackBroker(restarted, cluster.getNetwork());
+        broker.initialize();
+        restarted.setBroker(broker);
+        Assertions.assertNotEquals(session, broker.getSequencer().getSession());
+
+        cluster.send(1, invalidateMessage(OTHER_UUID));
+        Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+        Assertions.assertFalse(receiver.getUserCache().containsKey(OTHER_UUID));
+        Assertions.assertEquals(0, cluster.getBroker(0).getDuplicateCount().get());
+    }
+
+    @Test
+    @DisplayName("Test replicated claims converge over a lossy, reordering network")
+    public void testClaimDeltaConvergence() throws InterruptedException {
+        final LoopbackNetwork network = new LoopbackNetwork(100, 2000, 0.2, 0.25, 11);
+        cluster = startReplicating(3, network);
+        final HuskClaims source = cluster.getServer(0);
+        final ClaimWorld world = claimWorlds.get(LoopbackCluster.getServerName(0)).get(WORLD.getName());
+
+        // Create claims, then resize, delete and add children to them, without waiting for deltas to be delivered
+        final List<Claim> claims = new ArrayList<>();
+        for (int index = 0; index < CLAIMS; index++) {
+            claims.add(source.createAdminClaimAt(world, region(index, 20)));
+        }
+        for (int index = 0; index < CLAIMS; index++) {
+            final Claim claim = claims.get(index);
+            switch (index % 4) {
+                case 0 -> source.resizeClaim(world, claim, region(index, 30));
+                case 1 -> source.deleteClaim(world, claim);
+                case 2 -> source.createChildClaimAt(world, childRegion(index));
+                default -> {
+                    source.createChildClaimAt(world, childRegion(index));
+                    source.resizeClaim(world, claim, region(index, 30));
+                }
+            }
+        }
+        Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+
+        // A lost delta is only detected when a later one arrives, so keep changing claims until the replicas converge
+        for (int change = 0; change < MAX_TRAILING_CHANGES && !isConverged(3); change++) {
+            source.createAdminClaimAt(world, region(CLAIMS + change, 20));
+            Assertions.assertTrue(cluster.awaitIdle(TIMEOUT_MILLIS));
+        }
+
+        final List<String> expected = describe(world);
+        for (int index = 1; index < 3; index++) {
+            Assertions.assertEquals(expected, describe(getReplica(index)), "Replica on server " + index);
+        }
+        Assertions.assertTrue(network.getDroppedCount().get() > 0);
+        Assertions.assertTrue(network.getReorderedCount().get() > 0);
+        Assertions.assertTrue(stubs.stream().anyMatch(stub -> stub.getLogs().stream()
+                .anyMatch(log -> log.startsWith("INFO: Missed claim changes"))));
+    }
+
+    @NotNull
+    private LoopbackCluster start(int servers, @NotNull LoopbackNetwork network) {
+        return LoopbackCluster.start(servers, network, name -> {
+            final StubPlugin stub = StubPlugin.create(name);
+            stubs.add(stub);
+            return stub.getPlugin();
+        });
+    }
+
+    // Start a cluster whose servers each have a claim world, sharing a database that stores them as JSON
+    @NotNull
+    private LoopbackCluster startReplicating(int servers, @NotNull LoopbackNetwork network) {
+        final HuskClaims databasePlugin = StubPlugin.create("database").getPlugin();
+        final StubDatabase database = new StubDatabase(databasePlugin) {
+            @NotNull
+            @Override
+            public Map<World, ClaimWorld> getClaimWorlds(@NotNull String server) {
+                final Map<World, ClaimWorld> worlds = Maps.newHashMap();
+                claimWorlds.getOrDefault(server, new HashMap<>()).values().forEach(world -> worlds.put(
+                        WORLD, databasePlugin.getClaimWorldFromJson(databasePlugin.getGson().toJson(world))
+                ));
+                return worlds;
+            }
+        };
+        return LoopbackCluster.start(servers, network, name -> {
+            final StubPlugin stub = StubPlugin.create(name);
+            final HashMap<String, ClaimWorld> worlds = new HashMap<>();
+            worlds.put(WORLD.getName(), ClaimWorld.create(stub.getPlugin()));
+            claimWorlds.put(name, worlds);
+            replicatedClaimWorlds.put(name, Maps.newConcurrentMap());
+            stub.stub("getDatabase", args -> database)
+                    .stub("getClaimWorlds", args -> worlds)
+                    .stub("getWorlds", args -> List.of(WORLD))
+                    .stub("getReplicatedClaimWorlds", args -> replicatedClaimWorlds.get(name));
+            stubs.add(stub);
+            return stub.getPlugin();
+        });
+    }
+
+    // Get the replica of the first server's claim world on another server
+    @NotNull
+    private ClaimWorld getReplica(int index) {
+        final ClaimWorld replica = replicatedClaimWorlds.get(LoopbackCluster.getServerName(index))
+                .get(new ServerWorld(LoopbackCluster.getServerName(0), WORLD));
+        Assertions.assertNotNull(replica, "Server " + index + " has no replica");
+        return replica;
+    }
+
+    private boolean isConverged(int servers) {
+        final List<String> expected = describe(claimWorlds.get(LoopbackCluster.getServerName(0)).get(WORLD.getName()));
+        for (int index = 1; index < servers; index++) {
+            final ClaimWorld replica = replicatedClaimWorlds.get(LoopbackCluster.getServerName(index))
+                    .get(new ServerWorld(LoopbackCluster.getServerName(0), WORLD));
+            if (replica == null || !expected.equals(describe(replica))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Describe the claims in a claim world by region, with their children, so replicas can be compared by value
+    @NotNull
+    private static List<String> describe(@NotNull ClaimWorld world) {
+        return world.getClaims().stream().map(LoopbackClusterTests::describe).sorted().toList();
+    }
+
+    @NotNull
+    private static String describe(@NotNull Claim claim) {
+        final Region region = claim.getRegion();
+        return String.format("(%d, %d)-(%d, %d) %s",
+                region.getNearCorner().getBlockX(), region.getNearCorner().getBlockZ(),
+                region.getFarCorner().getBlockX(), region.getFarCorner().getBlockZ(),
+                claim.getChildren().stream().map(LoopbackClusterTests::describe).sorted().toList());
+    }
+
+    @NotNull
+    private static Region region(int index, int size) {
+        return Region.from(Region.Point.at(index * 40, 0), Region.Point.at(index * 40 + size, size));
+    }
+
+    @NotNull
+    private static Region childRegion(int index) {
+        return Region.from(Region.Point.at(index * 40 + 2, 2), Region.Point.at(index * 40 + 8, 8));
+    }
+
+    // Run a scheduler tick on every server, closing coalescing windows
+    private void tick() {
+        stubs.forEach(StubPlugin::tick);
+    }
+
+    @NotNull
+    private static Message snapshotMessage(@NotNull UUID uuid, long claimBlocks, long version) {
+        final UserSnapshot snapshot = new UserSnapshot(
+                User.of(uuid, "User"), "{}", System.currentTimeMillis(), claimBlocks, 0
+        );
+        return Message.builder()
+                .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                .payload(Payload.userSnapshot(snapshot, version))
+                .build();
+    }
+
+    @NotNull
+    private static Message invalidateMessage(@NotNull UUID uuid) {
+        return Message.builder()
+                .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                .payload(Payload.uuid(uuid))
+                .build();
+    }
+
+    @NotNull
+    private static SavedUser savedUser(@NotNull UUID uuid, long claimBlocks) {
+        return new SavedUser(User.of(uuid, "User"), Preferences.DEFAULTS, OffsetDateTime.now(), claimBlocks, 0);
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.network;
+
+import com.google.common.collect.Maps;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory network routing encoded {@link Message}s between {@link LoopbackBroker}s in the same process, with
+ * simulated latency, loss and reordering.
+ * <p>
+ * Messages are encoded with the {@link MessageCodec} on send and decoded on delivery, as they would be over a real
+ * broker. Delivery happens on a single scheduler thread, in order of each message's simulated arrival time; a
+ * {@code seed} makes loss and reordering decisions reproducible between runs. The servers share a
+ * {@link LocalSharedUserCache}.
+ *
+ * @since 1.0
+ */
+public class LoopbackNetwork implements AutoCloseable {
+
+    private final ConcurrentMap<String, LoopbackBroker> brokers = Maps.newConcurrentMap();
+    private final ScheduledExecutorService scheduler;
+    private final Random random;
+    private final long minLatencyMicros;
+    private final long maxLatencyMicros;
+    private final double lossChance;
+    private final double reorderChance;
+
+    @Getter
+    private final AtomicLong sentCount = new AtomicLong();
+    @Getter
+    private final AtomicLong deliveredCount = new AtomicLong();
+    @Getter
+    private final AtomicLong droppedCount = new AtomicLong();
+    @Getter
+    private final AtomicLong reorderedCount = new AtomicLong();
+    @Getter
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    @Getter
+    private final LocalSharedUserCache sharedUserCache = new LocalSharedUserCache(TimeUnit.MINUTES.toSeconds(30));
+
+    /**
+     * Create a loopback network
+     *
+     * @param minLatencyMicros the minimum delivery latency, in microseconds
+     * @param maxLatencyMicros the maximum delivery latency, in microseconds
+     * @param lossChance       the chance, from 0 to 1, that a message is not delivered to a server
+     * @param reorderChance    the chance, from 0 to 1, that a message is held back behind later messages
+     * @param seed             the seed for latency, loss and reordering decisions
+     * @since 1.0
+     */
+    public LoopbackNetwork(long minLatencyMicros, long maxLatencyMicros, double lossChance,
+                           double reorderChance, long seed) {
+        if (minLatencyMicros < 0 || maxLatencyMicros < minLatencyMicros) {
+            throw new IllegalArgumentException("Invalid latency range: " + minLatencyMicros + "-" + maxLatencyMicros);
+        }
+        this.minLatencyMicros = minLatencyMicros;
+        this.maxLatencyMicros = maxLatencyMicros;
+        this.lossChance = lossChance;
+        this.reorderChance = reorderChance;
+        this.random = new Random(seed);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "huskclaims-loopback-network");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create a loopback network that delivers every message, in order, without delay
+     *
+     * @return the network
+     * @since 1.0
+     */
+    @NotNull
+    public static LoopbackNetwork perfect() {
+        return new LoopbackNetwork(0, 0, 0, 0, 0);
+    }
+
+    void register(@NotNull String server, @NotNull LoopbackBroker broker) {
+        if (brokers.putIfAbsent(server, broker) != null) {
+            throw new IllegalStateException("A server named " + server + " is already on the loopback network");
+        }
+    }
+
+    void unregister(@NotNull String server, @NotNull LoopbackBroker broker) {
+        brokers.remove(server, broker);
+    }
+
+    // Encode a message and schedule its delivery to every other server it may be for
+    void publish(@NotNull String source, @NotNull Message message) {
+        final byte[] encoded = MessageCodec.encode(message);
+        sentCount.incrementAndGet();
+        sentBytes.addAndGet(encoded.length);
+        brokers.forEach((server, broker) -> {
+            if (server.equals(source) || !isAddressedTo(server, message)) {
+                return;
+            }
+            final long delay;
+            synchronized (random) {
+                if (random.nextDouble() < lossChance) {
+                    droppedCount.incrementAndGet();
+                    return;
+                }
+                final boolean reorder = random.nextDouble() < reorderChance;
+                if (reorder) {
+                    reorderedCount.incrementAndGet();
+                }
+                delay = nextLatency() + (reorder ? maxLatencyMicros + nextLatency() + 1 : 0);
+            }
+            inFlight.incrementAndGet();
+            scheduler.schedule(() -> deliver(broker, encoded), delay, TimeUnit.MICROSECONDS);
+        });
+    }
+
+    private void deliver(@NotNull LoopbackBroker broker, byte[] encoded) {
+        try {
+            broker.receive(MessageCodec.decode(encoded));
+            deliveredCount.incrementAndGet();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static boolean isAddressedTo(@NotNull String server, @NotNull Message message) {
+        return message.getTargetType() != Message.TargetType.SERVER
+               || message.getTarget().equals(Message.TARGET_ALL)
+               || message.getTarget().equals(server);
+    }
+
+    private long nextLatency() {
+        return minLatencyMicros + (maxLatencyMicros > minLatencyMicros
+                ? (long) (random.nextDouble() * (maxLatencyMicros - minLatencyMicros)) : 0);
+    }
+
+    /**
+     * Wait until no messages are in flight, including any sent while handling delivered messages
+     *
+     * @param timeoutMillis the max time to wait, in milliseconds
+     * @return {@code true} if the network became idle before the timeout
+     * @throws InterruptedException if interrupted while waiting
+     * @since 1.0
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        brokers.clear();
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import net.william278.huskclaims.StubPlugin;
+import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.user.User;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+@DisplayName("Message Coalescer Tests")
+public class MessageCoalescerTests {
+
+    private static final long WINDOW_MILLIS = 50;
+    private static final UUID USER_UUID = UUID.fromString("b3c4e2a0-1f4e-4b2a-9d5e-0a6f1e2d3c4b");
+    private static final UUID OTHER_UUID = UUID.fromString("4f1e2d3c-5b6a-4978-8a9b-0c1d2e3f4a5b");
+
+    private StubPlugin stub;
+    private MessageCoalescer coalescer;
+    private List<Message> handled;
+    private BiConsumer<OnlineUser, Message> handler;
+
+    @BeforeEach
+    public void setup() {
+        stub = StubPlugin.create("server-1");
+        coalescer = new MessageCoalescer(stub.getPlugin());
+        handled = new ArrayList<>();
+        handler = (receiver, message) -> handled.add(message);
+    }
+
+    @Test
+    @DisplayName("Test the first message is handled immediately and the newest when the window closes")
+    public void testLeadingAndTrailing() {
+        final Message first = message(USER_UUID, 1);
+        final Message second = message(USER_UUID, 2);
+        final Message third = message(USER_UUID, 3);
+        Assertions.assertFalse(coalescer.offer(null, first, WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, second, WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, third, WINDOW_MILLIS, handler));
+        Assertions.assertTrue(handled.isEmpty());
+
+        stub.tick();
+        Assertions.assertEquals(List.of(third), handled);
+        Assertions.assertEquals(1, coalescer.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Test an older message does not replace the kept message")
+    public void testOlderSuppressed() {
+        final Message newest = message(USER_UUID, 5);
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, newest, WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, message(USER_UUID, 3), WINDOW_MILLIS, handler));
+
+        stub.tick();
+        Assertions.assertEquals(List.of(newest), handled);
+    }
+
+    @Test
+    @DisplayName("Test a window with no further messages closes without handling anything")
+    public void testQuietWindow() {
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), WINDOW_MILLIS, handler));
+        stub.tick();
+        Assertions.assertTrue(handled.isEmpty());
+
+        // The window has closed, so the next message is handled immediately again
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 2), WINDOW_MILLIS, handler));
+    }
+
+    @Test
+    @DisplayName("Test handling the trailing message opens a new window")
+    public void testTrailingReopens() {
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, message(USER_UUID, 2), WINDOW_MILLIS, handler));
+        stub.tick();
+
+        final Message next = message(USER_UUID, 3);
+        Assertions.assertTrue(coalescer.offer(null, next, WINDOW_MILLIS, handler));
+        stub.tick();
+        Assertions.assertEquals(next, handled.get(handled.size() - 1));
+
+        stub.tick();
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 4), WINDOW_MILLIS, handler));
+    }
+
+    @Test
+    @DisplayName("Test messages for different users are coalesced separately")
+    public void testSeparateKeys() {
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), WINDOW_MILLIS, handler));
+        Assertions.assertFalse(coalescer.offer(null, message(OTHER_UUID, 1), WINDOW_MILLIS, handler));
+    }
+
+    @Test
+    @DisplayName("Test messages are not coalesced with a zero window")
+    public void testZeroWindow() {
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), 0, handler));
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 2), 0, handler));
+        stub.tick();
+        Assertions.assertTrue(handled.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test closing discards open windows and stops coalescing")
+    public void testClose() {
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 1), WINDOW_MILLIS, handler));
+        Assertions.assertTrue(coalescer.offer(null, message(USER_UUID, 2), WINDOW_MILLIS, handler));
+        coalescer.close();
+
+        stub.tick();
+        Assertions.assertTrue(handled.isEmpty());
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 3), WINDOW_MILLIS, handler));
+        Assertions.assertFalse(coalescer.offer(null, message(USER_UUID, 4), WINDOW_MILLIS, handler));
+    }
+
+    @NotNull
+    private static Message message(@NotNull UUID uuid, long version) {
+        final UserSnapshot snapshot = new UserSnapshot(
+                User.of(uuid, "User"), "{}", 0, version, 0
+        );
+        return Message.builder()
+                .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                .payload(Payload.userSnapshot(snapshot, version))
+                .build();
+    }
+
+}
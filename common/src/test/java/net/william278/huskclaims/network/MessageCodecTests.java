@@ -0,0 +1,266 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import com.google.common.io.ByteArrayDataOutput;
+import com.google.common.io.ByteStreams;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.group.UserGroup;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@DisplayName("Message Codec Tests")
+public class MessageCodecTests {
+
+    private static final UUID USER_UUID = UUID.fromString("b3c4e2a0-1f4e-4b2a-9d5e-0a6f1e2d3c4b");
+    private static final UUID OTHER_UUID = UUID.fromString("4f1e2d3c-5b6a-4978-8a9b-0c1d2e3f4a5b");
+
+    @Nested
+    @DisplayName("Message Round Trip Tests")
+    public class RoundTripTests {
+
+        @Test
+        @DisplayName("Test message header round trip")
+        public void testHeaderRoundTrip() {
+            final Message message = roundTrip(Message.builder()
+                    .type(Message.MessageType.REQUEST_USER_LIST)
+                    .target("server-2", Message.TargetType.SERVER)
+                    .build(), 42);
+
+            Assertions.assertEquals(Message.MessageType.REQUEST_USER_LIST, message.getType());
+            Assertions.assertEquals(Message.TargetType.SERVER, message.getTargetType());
+            Assertions.assertEquals("server-2", message.getTarget());
+            Assertions.assertEquals("Sender", message.getSender());
+            Assertions.assertEquals("server-1", message.getSourceServer());
+            Assertions.assertEquals(43, message.getSequence());
+        }
+
+        @Test
+        @DisplayName("Test message without a target round trip")
+        public void testTargetlessRoundTrip() {
+            final Message message = roundTrip(Message.builder()
+                    .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                    .payload(Payload.uuid(USER_UUID))
+                    .build(), 0);
+
+            Assertions.assertEquals(Message.TARGET_ALL, message.getTarget());
+            Assertions.assertEquals(Message.TargetType.SERVER, message.getTargetType());
+            Assertions.assertEquals(USER_UUID, message.getPayload().getUuid().orElseThrow());
+        }
+
+        @ParameterizedTest(name = "Integer: {0}")
+        @DisplayName("Test integer payload round trip")
+        @ValueSource(ints = {0, 1, -1, 127, 128, -129, Integer.MAX_VALUE, Integer.MIN_VALUE})
+        public void testIntegerRoundTrip(int value) {
+            final Payload payload = roundTrip(Payload.integer(value));
+            Assertions.assertEquals(value, payload.getInteger().orElseThrow());
+            Assertions.assertTrue(payload.getUuid().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test scalar payloads round trip")
+        public void testScalarRoundTrip() {
+            Assertions.assertTrue(roundTrip(Payload.bool(true)).getBool().orElseThrow());
+            Assertions.assertFalse(roundTrip(Payload.bool(false)).getBool().orElseThrow());
+            Assertions.assertEquals("Hëllo, wörld ✓", roundTrip(Payload.string("Hëllo, wörld ✓"))
+                    .getString().orElseThrow());
+            Assertions.assertEquals(USER_UUID, roundTrip(Payload.uuid(USER_UUID)).getUuid().orElseThrow());
+
+            final Payload empty = roundTrip(Payload.empty());
+            Assertions.assertTrue(empty.getUuid().isEmpty());
+            Assertions.assertTrue(empty.getString().isEmpty());
+            Assertions.assertTrue(empty.getVersion().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test user list payload round trip")
+        public void testUserListRoundTrip() {
+            final List<User> users = roundTrip(Payload.userList(List.of(
+                    User.of(USER_UUID, "William278"), User.of(OTHER_UUID, "Steve")
+            ))).getUserList().orElseThrow();
+
+            Assertions.assertEquals(2, users.size());
+            assertUserEquals(User.of(USER_UUID, "William278"), users.get(0));
+            assertUserEquals(User.of(OTHER_UUID, "Steve"), users.get(1));
+        }
+
+        @Test
+        @DisplayName("Test user snapshot payload round trip")
+        public void testUserSnapshotRoundTrip() {
+            final UserSnapshot sent = new UserSnapshot(
+                    User.of(USER_UUID, "William278"), "{\"ignoring_claims\":true}", 1700000000000L, 4500, 12
+            );
+            final Payload payload = roundTrip(Payload.userSnapshot(sent, 1700000000123L));
+            final UserSnapshot received = payload.getUserSnapshot().orElseThrow();
+
+            Assertions.assertEquals(USER_UUID, payload.getUuid().orElseThrow());
+            Assertions.assertEquals(1700000000123L, payload.getVersion().orElseThrow());
+            assertUserEquals(sent.user(), received.user());
+            Assertions.assertEquals(sent.preferences(), received.preferences());
+            Assertions.assertEquals(sent.lastLogin(), received.lastLogin());
+            Assertions.assertEquals(sent.claimBlocks(), received.claimBlocks());
+            Assertions.assertEquals(sent.hoursPlayed(), received.hoursPlayed());
+        }
+
+        @Test
+        @DisplayName("Test user groups payload round trip")
+        public void testUserGroupsRoundTrip() {
+            final Payload payload = roundTrip(Payload.userGroups(USER_UUID, List.of(
+                    new UserGroup(USER_UUID, "friends", List.of(User.of(OTHER_UUID, "Steve"))),
+                    new UserGroup(USER_UUID, "empty", List.of())
+            ), 7));
+            final List<UserGroup> groups = payload.getUserGroups().orElseThrow();
+
+            Assertions.assertEquals(7, payload.getVersion().orElseThrow());
+            Assertions.assertEquals(2, groups.size());
+            Assertions.assertEquals(USER_UUID, groups.get(0).groupOwner());
+            Assertions.assertEquals("friends", groups.get(0).name());
+            Assertions.assertEquals(1, groups.get(0).members().size());
+            assertUserEquals(User.of(OTHER_UUID, "Steve"), groups.get(0).members().get(0));
+            Assertions.assertTrue(groups.get(1).members().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Test claim delta payload round trip")
+        public void testClaimDeltaRoundTrip() {
+            final Region removed = Region.from(Region.Point.at(-100, -50), Region.Point.at(20, 75));
+            final ClaimDelta delta = roundTrip(Payload.claimDelta(new ClaimDelta(
+                    World.of("world", OTHER_UUID), List.of(removed), List.of("{\"region\":{}}"),
+                    Map.of(USER_UUID, "William278"), 300
+            ))).getClaimDelta().orElseThrow();
+
+            Assertions.assertEquals("world", delta.world().getName());
+            Assertions.assertEquals(OTHER_UUID, delta.world().getUuid());
+            Assertions.assertEquals(List.of(removed), delta.removed());
+            Assertions.assertEquals(List.of("{\"region\":{}}"), delta.claims());
+            Assertions.assertEquals(Map.of(USER_UUID, "William278"), delta.users());
+            Assertions.assertEquals(300, delta.version());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Plugin Message Frame Tests")
+    public class FrameTests {
+
+        @Test
+        @DisplayName("Test valid frame is read")
+        public void testValidFrame() {
+            final PluginMessageBroker.Frame frame = PluginMessageBroker.Frame.read(
+                    writeFrame(99L, 1, 3, new byte[]{1, 2, 3})
+            );
+            Assertions.assertEquals(99L, frame.messageId());
+            Assertions.assertEquals(1, frame.index());
+            Assertions.assertEquals(3, frame.count());
+            Assertions.assertArrayEquals(new byte[]{1, 2, 3}, frame.chunk());
+        }
+
+        @Test
+        @DisplayName("Test frames with invalid headers are rejected")
+        public void testInvalidFrames() {
+            Assertions.assertThrows(IllegalStateException.class, () -> PluginMessageBroker.Frame.read(
+                    writeFrame(1L, 0, 0, new byte[0])
+            ));
+            Assertions.assertThrows(IllegalStateException.class, () -> PluginMessageBroker.Frame.read(
+                    writeFrame(1L, 3, 3, new byte[0])
+            ));
+            Assertions.assertThrows(IllegalStateException.class, () -> PluginMessageBroker.Frame.read(
+                    writeFrame(1L, -1, 3, new byte[0])
+            ));
+            Assertions.assertThrows(IllegalStateException.class, () -> PluginMessageBroker.Frame.read(
+                    writeFrame(1L, 0, PluginMessageBroker.MAX_FRAMES + 1, new byte[0])
+            ));
+        }
+
+        @Test
+        @DisplayName("Test frames with invalid chunk lengths are rejected")
+        public void testInvalidChunkLength() {
+            final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+            output.writeLong(1L);
+            MessageCodec.writeVarInt(output, 0);
+            MessageCodec.writeVarInt(output, 1);
+            MessageCodec.writeVarInt(output, Integer.MAX_VALUE);
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> PluginMessageBroker.Frame.read(output.toByteArray()));
+
+            final ByteArrayDataOutput truncated = ByteStreams.newDataOutput();
+            truncated.writeLong(1L);
+            MessageCodec.writeVarInt(truncated, 0);
+            MessageCodec.writeVarInt(truncated, 1);
+            MessageCodec.writeVarInt(truncated, 8);
+            truncated.write(new byte[]{1, 2});
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> PluginMessageBroker.Frame.read(truncated.toByteArray()));
+        }
+
+        private static byte[] writeFrame(long messageId, int index, int count, byte[] chunk) {
+            final ByteArrayDataOutput output = ByteStreams.newDataOutput();
+            output.writeLong(messageId);
+            MessageCodec.writeVarInt(output, index);
+            MessageCodec.writeVarInt(output, count);
+            MessageCodec.writeVarInt(output, chunk.length);
+            output.write(chunk);
+            return output.toByteArray();
+        }
+
+    }
+
+    @Test
+    @DisplayName("Test malformed messages are rejected")
+    public void testMalformedMessage() {
+        Assertions.assertThrows(IllegalStateException.class, () -> MessageCodec.decode(new byte[]{(byte) 0x7F}));
+        Assertions.assertThrows(IllegalStateException.class, () -> MessageCodec.decode(new byte[]{
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x01
+        }));
+    }
+
+    private static Message roundTrip(Message message, long sequence) {
+        final MessageSequencer sequencer = new MessageSequencer();
+        for (long i = 0; i < sequence; i++) {
+            sequencer.next();
+        }
+        message.stamp("Sender", "server-1", sequencer);
+        return MessageCodec.decode(MessageCodec.encode(message));
+    }
+
+    private static Payload roundTrip(Payload payload) {
+        return roundTrip(Message.builder()
+                .type(Message.MessageType.UPDATE_USER_LIST)
+                .payload(payload)
+                .build(), 0).getPayload();
+    }
+
+    private static void assertUserEquals(User expected, User actual) {
+        Assertions.assertEquals(expected.getUuid(), actual.getUuid());
+        Assertions.assertEquals(expected.getName(), actual.getName());
+    }
+
+}
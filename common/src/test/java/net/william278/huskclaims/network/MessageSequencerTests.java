@@ -0,0 +1,137 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@DisplayName("Message Sequencer Tests")
+public class MessageSequencerTests {
+
+    private static final String SOURCE = "server-1";
+
+    @Test
+    @DisplayName("Test outbound sequences are consecutive")
+    public void testOutboundSequences() {
+        final MessageSequencer sequencer = new MessageSequencer();
+        Assertions.assertEquals(1, sequencer.next());
+        Assertions.assertEquals(2, sequencer.next());
+        Assertions.assertEquals(3, sequencer.next());
+    }
+
+    @Test
+    @DisplayName("Test duplicate messages are rejected")
+    public void testDuplicates() {
+        final MessageSequencer sender = new MessageSequencer();
+        final MessageSequencer receiver = new MessageSequencer();
+        final Message message = stamp(message(), sender);
+
+        Assertions.assertTrue(receiver.accept(message));
+        Assertions.assertFalse(receiver.accept(message));
+        Assertions.assertFalse(receiver.accept(message));
+    }
+
+    @Test
+    @DisplayName("Test reordered messages are each accepted exactly once")
+    public void testReordered() {
+        final MessageSequencer sender = new MessageSequencer();
+        final MessageSequencer receiver = new MessageSequencer();
+        final List<Message> messages = stampAll(5, sender);
+
+        for (int index : new int[]{2, 0, 1, 4, 3}) {
+            Assertions.assertTrue(receiver.accept(messages.get(index)), "Message " + index + " was rejected");
+        }
+        for (Message message : messages) {
+            Assertions.assertFalse(receiver.accept(message));
+        }
+    }
+
+    @Test
+    @DisplayName("Test messages older than the window are rejected as stale")
+    public void testStale() {
+        final MessageSequencer sender = new MessageSequencer();
+        final MessageSequencer receiver = new MessageSequencer();
+        final List<Message> messages = stampAll(MessageSequencer.WINDOW_SIZE + 1, sender);
+
+        Assertions.assertTrue(receiver.accept(messages.get(messages.size() - 1)));
+        Assertions.assertTrue(receiver.accept(messages.get(1)));
+        Assertions.assertFalse(receiver.accept(messages.get(0)));
+    }
+
+    @Test
+    @DisplayName("Test a new session from the same server restarts its sequence")
+    public void testSessionReset() {
+        final MessageSequencer receiver = new MessageSequencer();
+        final MessageSequencer first = new MessageSequencer();
+        stampAll(10, first).forEach(message -> Assertions.assertTrue(receiver.accept(message)));
+
+        final MessageSequencer restarted = new MessageSequencer();
+        Assertions.assertNotEquals(first.getSession(), restarted.getSession());
+        final Message message = stamp(message(), restarted);
+        Assertions.assertEquals(1, message.getSequence());
+        Assertions.assertTrue(receiver.accept(message));
+        Assertions.assertFalse(receiver.accept(message));
+    }
+
+    @Test
+    @DisplayName("Test sequences from different servers are tracked separately")
+    public void testSources() {
+        final MessageSequencer receiver = new MessageSequencer();
+        final Message first = message();
+        first.stamp("Sender", SOURCE, new MessageSequencer());
+        final Message second = message();
+        second.stamp("Sender", "server-2", new MessageSequencer());
+
+        Assertions.assertEquals(first.getSequence(), second.getSequence());
+        Assertions.assertTrue(receiver.accept(first));
+        Assertions.assertTrue(receiver.accept(second));
+    }
+
+    @NotNull
+    private static List<Message> stampAll(int count, @NotNull MessageSequencer sender) {
+        final List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(stamp(message(), sender));
+        }
+        return messages;
+    }
+
+    @NotNull
+    private static Message stamp(@NotNull Message message, @NotNull MessageSequencer sender) {
+        message.stamp("Sender", SOURCE, sender);
+        return message;
+    }
+
+    @NotNull
+    private static Message message() {
+        return Message.builder()
+                .type(Message.MessageType.INVALIDATE_USER_CACHE)
+                .payload(Payload.uuid(UUID.randomUUID()))
+                .build();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.network;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+@DisplayName("Version Tracker Tests")
+public class VersionTrackerTests {
+
+    @Test
+    @DisplayName("Test next versions always increase, even within the same millisecond")
+    public void testNextIncreases() {
+        final VersionTracker<UUID> tracker = new VersionTracker<>();
+        final UUID key = UUID.randomUUID();
+        long last = tracker.next(key);
+        for (int i = 0; i < 10_000; i++) {
+            final long next = tracker.next(key);
+            Assertions.assertTrue(next > last, "Version " + next + " did not exceed " + last);
+            last = next;
+        }
+    }
+
+    @Test
+    @DisplayName("Test next versions are based on the current time")
+    public void testNextIsTimeBased() {
+        final VersionTracker<UUID> tracker = new VersionTracker<>();
+        final long before = System.currentTimeMillis();
+        Assertions.assertTrue(tracker.next(UUID.randomUUID()) >= before);
+    }
+
+    @Test
+    @DisplayName("Test only versions newer than the last seen are accepted")
+    public void testAcceptNewer() {
+        final VersionTracker<UUID> tracker = new VersionTracker<>();
+        final UUID key = UUID.randomUUID();
+        Assertions.assertTrue(tracker.accept(key, 100));
+        Assertions.assertFalse(tracker.accept(key, 100));
+        Assertions.assertFalse(tracker.accept(key, 99));
+        Assertions.assertTrue(tracker.accept(key, 101));
+        Assertions.assertFalse(tracker.accept(key, 100));
+    }
+
+    @Test
+    @DisplayName("Test keys are versioned independently")
+    public void testKeysIndependent() {
+        final VersionTracker<UUID> tracker = new VersionTracker<>();
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        Assertions.assertTrue(tracker.accept(first, 100));
+        Assertions.assertTrue(tracker.accept(second, 50));
+        Assertions.assertFalse(tracker.accept(first, 50));
+    }
+
+    @Test
+    @DisplayName("Test the next version exceeds versions accepted from other servers")
+    public void testNextExceedsAccepted() {
+        final VersionTracker<UUID> tracker = new VersionTracker<>();
+        final UUID key = UUID.randomUUID();
+        final long future = System.currentTimeMillis() + 60_000;
+        Assertions.assertTrue(tracker.accept(key, future));
+        Assertions.assertEquals(future + 1, tracker.next(key));
+
+        // A server receiving our change then accepts it over the one it sent
+        final VersionTracker<UUID> other = new VersionTracker<>();
+        Assertions.assertTrue(other.accept(key, future));
+        Assertions.assertTrue(other.accept(key, future + 1));
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import net.william278.huskclaims.claim.Region;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@DisplayName("Chunk Section Tests")
+public class ChunkSectionsTests {
+
+    private static final int SURFACE_Y = 64;
+
+    @ParameterizedTest(name = "({0}, {1}, {2}) and ({3}, {4}, {5}): {6}")
+    @DisplayName("Test blocks share a section key only if they are in the same chunk section")
+    @CsvSource({
+            "0, 0, 0, 15, 15, 15, true",
+            "0, 0, 0, 16, 0, 0, false",
+            "0, 0, 0, 0, 16, 0, false",
+            "0, 0, 0, 0, 0, 16, false",
+            "-1, 0, 0, 0, 0, 0, false",
+            "-1, -1, -1, -16, -16, -16, true",
+            "0, -1, 0, 0, 0, 0, false",
+            "-30000000, 319, 30000000, -29999985, 304, 30000015, true"
+    })
+    public void testSectionKeys(int x1, int y1, int z1, int x2, int y2, int z2, boolean same) {
+        Assertions.assertEquals(same, ChunkSections.getKey(x1, y1, z1) == ChunkSections.getKey(x2, y2, z2));
+    }
+
+    @Test
+    @DisplayName("Test grouping keeps the order blocks were given in")
+    public void testGroupKeepsOrder() {
+        final List<int[]> blocks = List.of(
+                new int[]{0, 0, 0}, new int[]{16, 0, 0}, new int[]{1, 0, 0}, new int[]{17, 0, 0}, new int[]{2, 0, 0}
+        );
+        final List<List<int[]>> sections = new ArrayList<>(ChunkSections.group(blocks, ChunkSectionsTests::getKey));
+        Assertions.assertEquals(2, sections.size());
+        Assertions.assertEquals(List.of(blocks.get(0), blocks.get(2), blocks.get(4)), sections.get(0));
+        Assertions.assertEquals(List.of(blocks.get(1), blocks.get(3)), sections.get(1));
+    }
+
+    @Test
+    @DisplayName("Test batching a claim outline sends one packet per chunk section instead of one per block")
+    public void testOutlinePacketsPerSection() {
+        // A 160x160 claim spans a 10x10 grid of chunks; its outline passes through the 36 chunks on the grid's edge
+        final Region region = Region.from(Region.Point.at(0, 0), Region.Point.at(159, 159));
+        final List<int[]> blocks = region.getHighlightPoints(false, false, false).keySet().stream()
+                .map(point -> new int[]{point.getBlockX(), SURFACE_Y, point.getBlockZ()})
+                .toList();
+
+        final int unbatchedPackets = blocks.size();
+        final int batchedPackets = ChunkSections.group(blocks, ChunkSectionsTests::getKey).size();
+        Assertions.assertEquals(72, unbatchedPackets);
+        Assertions.assertEquals(36, batchedPackets);
+        assertOneSectionPerPacket(ChunkSections.group(blocks, ChunkSectionsTests::getKey));
+    }
+
+    @Test
+    @DisplayName("Test batching an outline over uneven terrain sends one packet per section at each height")
+    public void testUnevenOutlinePacketsPerSection() {
+        // Raise the half of the claim where x >= 80 into the section above
+        final Region region = Region.from(Region.Point.at(0, 0), Region.Point.at(159, 159));
+        final List<int[]> blocks = region.getHighlightPoints(false, false, false).keySet().stream()
+                .map(point -> new int[]{point.getBlockX(), point.getBlockX() >= 80 ? SURFACE_Y + 16 : SURFACE_Y,
+                        point.getBlockZ()})
+                .toList();
+
+        final Collection<List<int[]>> sections = ChunkSections.group(blocks, ChunkSectionsTests::getKey);
+        Assertions.assertEquals(72, blocks.size());
+        Assertions.assertEquals(36, sections.size());
+        assertOneSectionPerPacket(sections);
+
+        // Outline blocks in the same chunk at two heights need a packet per height
+        final List<int[]> stepped = new ArrayList<>(blocks);
+        stepped.add(new int[]{0, SURFACE_Y + 16, 1});
+        Assertions.assertEquals(37, ChunkSections.group(stepped, ChunkSectionsTests::getKey).size());
+    }
+
+    private static void assertOneSectionPerPacket(Collection<List<int[]>> packets) {
+        for (List<int[]> packet : packets) {
+            final long key = getKey(packet.get(0));
+            Assertions.assertTrue(packet.stream().allMatch(block -> getKey(block) == key));
+        }
+    }
+
+    private static long getKey(int[] block) {
+        return ChunkSections.getKey(block[0], block[1], block[2]);
+    }
+
+}
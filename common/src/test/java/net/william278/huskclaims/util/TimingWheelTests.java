@@ -0,0 +1,130 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@DisplayName("Timing Wheel Tests")
+public class TimingWheelTests {
+
+    private static final int SIZE = 8;
+
+    @ParameterizedTest(name = "Delay: {0}")
+    @DisplayName("Test items expire after exactly their delay")
+    @ValueSource(longs = {1, 2, SIZE - 1, SIZE, SIZE + 1, SIZE * 2, SIZE * 3 + 5})
+    public void testExpiresAfterDelay(long delay) {
+        final TimingWheel<String> wheel = new TimingWheel<>(SIZE);
+        wheel.schedule("item", delay);
+        for (long tick = 1; tick < delay; tick++) {
+            Assertions.assertTrue(wheel.advance().isEmpty(), "Expired early, on tick " + tick);
+        }
+        Assertions.assertEquals(List.of("item"), wheel.advance());
+        for (int tick = 0; tick < SIZE * 2; tick++) {
+            Assertions.assertTrue(wheel.advance().isEmpty());
+        }
+    }
+
+    @ParameterizedTest(name = "Delay: {0}")
+    @DisplayName("Test items scheduled after the cursor has wrapped expire after their delay")
+    @ValueSource(longs = {1, SIZE - 3, SIZE, SIZE + 4, SIZE * 2 + 1})
+    public void testExpiresAfterWrap(long delay) {
+        final TimingWheel<String> wheel = new TimingWheel<>(SIZE);
+        for (int tick = 0; tick < SIZE + 5; tick++) {
+            wheel.advance();
+        }
+        wheel.schedule("item", delay);
+        for (long tick = 1; tick < delay; tick++) {
+            Assertions.assertTrue(wheel.advance().isEmpty(), "Expired early, on tick " + tick);
+        }
+        Assertions.assertEquals(List.of("item"), wheel.advance());
+    }
+
+    @Test
+    @DisplayName("Test items in the same slot expire on their own rounds")
+    public void testSharedSlot() {
+        final TimingWheel<String> wheel = new TimingWheel<>(SIZE);
+        wheel.schedule("first", 3);
+        wheel.schedule("second", 3 + SIZE);
+        wheel.schedule("third", 3 + SIZE * 2);
+
+        for (int tick = 1; tick <= SIZE * 3; tick++) {
+            final List<String> expired = wheel.advance();
+            switch (tick) {
+                case 3 -> Assertions.assertEquals(List.of("first"), expired);
+                case 3 + SIZE -> Assertions.assertEquals(List.of("second"), expired);
+                case 3 + SIZE * 2 -> Assertions.assertEquals(List.of("third"), expired);
+                default -> Assertions.assertTrue(expired.isEmpty(), "Unexpected expiry on tick " + tick);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test items with no delay expire on the next tick")
+    public void testNoDelay() {
+        final TimingWheel<String> wheel = new TimingWheel<>(SIZE);
+        wheel.schedule("zero", 0);
+        wheel.schedule("negative", -4);
+        Assertions.assertEquals(List.of("zero", "negative"), wheel.advance());
+    }
+
+    @Test
+    @DisplayName("Test items scheduled while the wheel advances each expire exactly once")
+    public void testConcurrentSchedule() throws InterruptedException {
+        final TimingWheel<Integer> wheel = new TimingWheel<>(SIZE);
+        final int items = 20_000;
+        final Thread scheduler = new Thread(() -> {
+            for (int i = 0; i < items; i++) {
+                wheel.schedule(i, i % 2 == 0 ? SIZE : SIZE * 2);
+            }
+        });
+
+        final Set<Integer> expired = ConcurrentHashMap.newKeySet();
+        scheduler.start();
+        while (scheduler.isAlive()) {
+            wheel.advance().forEach(item -> Assertions.assertTrue(expired.add(item), "Expired twice: " + item));
+        }
+        scheduler.join();
+        for (int tick = 0; tick < SIZE * 2; tick++) {
+            wheel.advance().forEach(item -> Assertions.assertTrue(expired.add(item), "Expired twice: " + item));
+        }
+        Assertions.assertEquals(items, expired.size());
+    }
+
+    @Test
+    @DisplayName("Test clearing the wheel removes scheduled items")
+    public void testClear() {
+        final TimingWheel<String> wheel = new TimingWheel<>(SIZE);
+        wheel.schedule("item", 2);
+        wheel.clear();
+        for (int tick = 0; tick < SIZE * 2; tick++) {
+            Assertions.assertTrue(wheel.advance().isEmpty());
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package net.william278.huskclaims.util;
+
+import net.william278.huskclaims.user.User;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@DisplayName("User Index Tests")
+public class UserIndexTests {
+
+    private static final String LOCAL = "server-1";
+    private static final String REMOTE = "server-2";
+
+    @ParameterizedTest(name = "Prefix: \"{0}\"")
+    @DisplayName("Test prefix search returns matching names case-insensitively, in alphabetical order")
+    @CsvSource(value = {
+            "'', Alex;alice;Bob;bobby;Charlie",
+            "a, Alex;alice",
+            "AL, Alex;alice",
+            "ali, alice",
+            "bob, Bob;bobby",
+            "bobby, bobby",
+            "bobbyx, ''",
+            "c, Charlie",
+            "z, ''"
+    })
+    public void testPrefixSearch(String prefix, String expected) {
+        final UserIndex index = index("Bob", "alice", "Charlie", "Alex", "bobby");
+        Assertions.assertEquals(names(expected), index.getNames(prefix, Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Test prefix search stops at the limit")
+    public void testPrefixSearchLimit() {
+        final UserIndex index = index("Bob", "alice", "Charlie", "Alex", "bobby");
+        Assertions.assertEquals(List.of("Alex"), index.getNames("a", 1));
+        Assertions.assertEquals(List.of("Alex", "alice", "Bob"), index.getNames("", 3));
+        Assertions.assertTrue(index.getNames("", 0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test a user is only removed by the server that owns them")
+    public void testRemoveOwned() {
+        final UserIndex index = new UserIndex();
+        final User user = User.of(UUID.randomUUID(), "Alice");
+        index.put(LOCAL, user);
+        index.put(REMOTE, user);
+        index.remove(LOCAL, user);
+        Assertions.assertEquals(List.of("Alice"), index.getNames("al", 10));
+        index.remove(REMOTE, user);
+        Assertions.assertTrue(index.getNames("al", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test remote user list updates replace previous lists without moving local users")
+    public void testUpdate() {
+        final UserIndex index = new UserIndex();
+        final User local = User.of(UUID.randomUUID(), "Alice");
+        final User left = User.of(UUID.randomUUID(), "Bob");
+        final User stayed = User.of(UUID.randomUUID(), "Charlie");
+        index.put(LOCAL, local);
+
+        index.update(REMOTE, null, List.of(left, stayed, local), LOCAL);
+        Assertions.assertEquals(List.of("Alice", "Bob", "Charlie"), index.getNames("", 10));
+
+        // A stale remote list still containing a local user does not remove them when the remote list changes
+        index.update(REMOTE, List.of(left, stayed, local), List.of(stayed), LOCAL);
+        Assertions.assertEquals(List.of("Alice", "Charlie"), index.getNames("", 10));
+    }
+
+    private static UserIndex index(String... names) {
+        final UserIndex index = new UserIndex();
+        for (String name : names) {
+            index.put(LOCAL, User.of(UUID.randomUUID(), name));
+        }
+        return index;
+    }
+
+    private static List<String> names(String joined) {
+        return joined.isEmpty() ? List.of() : Arrays.asList(joined.split(";"));
+    }
+
+}
@@ -23,12 +23,15 @@ import lombok.NoArgsConstructor;
 import net.kyori.adventure.audience.Audience;
 import net.william278.huskclaims.highlighter.BlockHighlighter;
 import net.william278.huskclaims.highlighter.GlowHighlighter;
+import net.william278.huskclaims.highlighter.PacketGlowHighlighter;
 import net.william278.huskclaims.position.Position;
 import net.william278.huskclaims.user.BukkitUser;
 import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.util.BlockChanges;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -41,6 +44,12 @@ public class PaperHuskClaims extends BukkitHuskClaims {
         ((BukkitUser) user).getBukkitPlayer().sendMultiBlockChange(Adapter.adapt(blocks));
     }
 
+    @Override
+    @SuppressWarnings("UnstableApiUsage")
+    public void sendBlockUpdates(@NotNull OnlineUser user, @NotNull List<Position> positions) {
+        ((BukkitUser) user).getBukkitPlayer().sendMultiBlockChange(BlockChanges.getCurrentBlocks(positions));
+    }
+
     @Override
     @NotNull
     public Audience getAudience(@NotNull UUID user) {
@@ -50,7 +59,9 @@ public class PaperHuskClaims extends BukkitHuskClaims {
 
     @Override
     public void loadClaimHighlighter() {
-        setHighlighter(new GlowHighlighter(this));
+        setHighlighter(getServer().getPluginManager().isPluginEnabled("ProtocolLib")
+                ? new PacketGlowHighlighter(this)
+                : new GlowHighlighter(this));
     }
 
 }
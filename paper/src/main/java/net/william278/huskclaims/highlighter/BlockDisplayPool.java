@@ -0,0 +1,186 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.highlighter;
+
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.PaperHuskClaims;
+import net.william278.huskclaims.util.Task;
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player pool of the {@link BlockDisplay} entities used by the {@link GlowHighlighter}.
+ * <p>
+ * Released displays are hidden from their player and kept, then repositioned and recolored when the player next
+ * highlights something, instead of being removed and respawned. Displays idle for longer than
+ * {@link #IDLE_TIMEOUT_MILLIS} are removed periodically. All methods must be called on the main thread.
+ *
+ * @since 1.0
+ */
+public class BlockDisplayPool {
+
+    /**
+     * The max number of displays a player can have active at once
+     */
+    public static final int MAX_ACTIVE_DISPLAYS = 1024;
+    private static final int MAX_IDLE_DISPLAYS = 256;
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long RECLAIM_INTERVAL_TICKS = 20 * 10;
+
+    private final PaperHuskClaims plugin;
+    private final Map<UUID, PlayerPool> pools = Maps.newHashMap();
+    private final Task.Repeating reclaimTask;
+
+    public BlockDisplayPool(@NotNull PaperHuskClaims plugin) {
+        this.plugin = plugin;
+        this.reclaimTask = plugin.getRepeatingTask(() -> plugin.runSync(this::reclaim), RECLAIM_INTERVAL_TICKS);
+        this.reclaimTask.run();
+    }
+
+    /**
+     * Get a display showing a block to a player, reusing an idle display if possible
+     *
+     * @param player   the player to show the display to
+     * @param location the location of the display
+     * @param block    the block to display
+     * @param color    the glow color of the display
+     * @return the display, or {@code null} if the player has {@link #MAX_ACTIVE_DISPLAYS} active displays
+     * @since 1.0
+     */
+    @Nullable
+    public BlockDisplay acquire(@NotNull Player player, @NotNull Location location, @NotNull BlockData block,
+                                @NotNull Color color) {
+        final PlayerPool pool = pools.computeIfAbsent(player.getUniqueId(), uuid -> new PlayerPool());
+        if (pool.active >= MAX_ACTIVE_DISPLAYS) {
+            return null;
+        }
+
+        BlockDisplay display = null;
+        Idle idle;
+        while (display == null && (idle = pool.idle.pollFirst()) != null) {
+            if (idle.display.isValid() && idle.display.getWorld().equals(location.getWorld())) {
+                display = idle.display;
+                display.teleport(location);
+            } else {
+                idle.display.remove();
+            }
+        }
+        if (display == null) {
+            display = spawn(location);
+        }
+
+        display.setBlock(block);
+        display.setGlowColorOverride(color);
+        player.showEntity(plugin, display);
+        pool.active++;
+        return display;
+    }
+
+    /**
+     * Release a player's displays back to their pool
+     *
+     * @param player   the UUID of the player the displays were shown to
+     * @param displays the displays to release
+     * @since 1.0
+     */
+    public void release(@NotNull UUID player, @NotNull Collection<BlockDisplay> displays) {
+        final PlayerPool pool = pools.get(player);
+        final Player online = Bukkit.getPlayer(player);
+        final long now = System.currentTimeMillis();
+        for (BlockDisplay display : displays) {
+            if (pool != null) {
+                pool.active = Math.max(0, pool.active - 1);
+            }
+            if (pool == null || online == null || !display.isValid() || pool.idle.size() >= MAX_IDLE_DISPLAYS) {
+                display.remove();
+                continue;
+            }
+            online.hideEntity(plugin, display);
+            pool.idle.addFirst(new Idle(display, now));
+        }
+    }
+
+    // Remove displays that have been idle too long, and the pools of players who have left
+    private void reclaim() {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<UUID, PlayerPool>> iterator = pools.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<UUID, PlayerPool> entry = iterator.next();
+            final PlayerPool pool = entry.getValue();
+            final boolean online = Bukkit.getPlayer(entry.getKey()) != null;
+            Idle oldest;
+            while ((oldest = pool.idle.peekLast()) != null
+                   && (!online || now - oldest.since > IDLE_TIMEOUT_MILLIS)) {
+                pool.idle.pollLast().display.remove();
+            }
+            if (!online && pool.active == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all idle displays and stop reclaiming
+     *
+     * @since 1.0
+     */
+    public void close() {
+        reclaimTask.cancel();
+        pools.values().forEach(pool -> pool.idle.forEach(idle -> idle.display.remove()));
+        pools.clear();
+    }
+
+    @NotNull
+    private static BlockDisplay spawn(@NotNull Location location) {
+        return location.getWorld().spawn(location, BlockDisplay.class, display -> {
+            display.setGravity(false);
+            display.setGlowing(true);
+            display.setInvulnerable(true);
+            display.setSilent(true);
+            display.setPersistent(false);
+            display.setCustomNameVisible(false);
+            display.setVisibleByDefault(false);
+        });
+    }
+
+    // A player's idle displays, most recently released first, and their count of active displays
+    private static final class PlayerPool {
+        private final Deque<Idle> idle = new ArrayDeque<>();
+        private int active;
+    }
+
+    private record Idle(@NotNull BlockDisplay display, long since) {
+    }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.highlighter;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.william278.huskclaims.HuskClaims;
+import net.william278.huskclaims.PaperHuskClaims;
+import net.william278.huskclaims.claim.ClaimWorld;
+import net.william278.huskclaims.claim.Region;
+import net.william278.huskclaims.position.Position;
+import net.william278.huskclaims.position.World;
+import net.william278.huskclaims.user.OnlineUser;
+import net.william278.huskclaims.util.BlockDataBlock;
+import net.william278.huskclaims.util.BlockProvider;
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Base for highlighters that show each highlighted point to the player as a glowing block display, hiding the real
+ * block with a barrier
+ *
+ * @param <D> the type of handle to a shown display
+ * @since 1.0
+ */
+public abstract class DisplayHighlighter<D> implements Highlighter {
+
+    private static final BlockDataBlock BARRIER = new BlockDataBlock(Material.BARRIER.createBlockData());
+
+    protected final PaperHuskClaims plugin;
+    private final ConcurrentMap<UUID, Map<Position, HighlightedBlock<D>>> activeHighlights;
+    private final HighlightViews views;
+    private final Map<Highlightable.HighlightType, Color> colors = new EnumMap<>(Highlightable.HighlightType.class);
+
+    protected DisplayHighlighter(@NotNull HuskClaims plugin) {
+        this.plugin = (PaperHuskClaims) plugin;
+        this.activeHighlights = Maps.newConcurrentMap();
+        this.views = new HighlightViews(plugin, this::stopExpired);
+        for (Highlightable.HighlightType type : Highlightable.HighlightType.values()) {
+            colors.put(type, Color.fromRGB(plugin.getSettings().getClaims().getBlockHighlighterColor(type).getRgb()));
+        }
+    }
+
+    /**
+     * Show a glowing block display to a player. Called on the main thread.
+     *
+     * @param player   the player
+     * @param location the location of the display
+     * @param block    the block to display
+     * @param color    the glow color
+     * @return a handle to the display, or {@code null} if it could not be shown
+     * @since 1.0
+     */
+    @Nullable
+    protected abstract D show(@NotNull Player player, @NotNull Location location, @NotNull BlockData block,
+                              @NotNull Color color);
+
+    /**
+     * Stop showing block displays to a player. Called on the main thread.
+     *
+     * @param player   the UUID of the player
+     * @param displays handles to the displays
+     * @since 1.0
+     */
+    protected abstract void hide(@NotNull UUID player, @NotNull List<D> displays);
+
+    /**
+     * Stop all active highlights, for when the plugin is disabled. Called on the main thread.
+     *
+     * @since 1.0
+     */
+    @Override
+    public void close() {
+        views.close();
+        List.copyOf(activeHighlights.keySet()).forEach(
+                uuid -> removeHighlights(uuid, plugin.getOnlineUser(uuid).orElse(null))
+        );
+    }
+
+    public void startHighlighting(@NotNull OnlineUser user, @NotNull World world,
+                                  @NotNull Collection<? extends Highlightable> toHighlight, boolean showOverlap) {
+
+        plugin.runSync(() -> {
+            final Optional<ClaimWorld> optionalClaimWorld = plugin.getClaimWorld(world);
+            final Player player = Bukkit.getPlayer(user.getUuid());
+            if (optionalClaimWorld.isEmpty() || player == null) {
+                stopHighlighting(user);
+                return;
+            }
+
+            // Capture the points and chunk data to highlight on the main thread, then find surfaces off it
+            final ClaimWorld claimWorld = optionalClaimWorld.get();
+            final int userY = (int) user.getPosition().getY();
+            final HighlightViews.View view = views.start(user, world, toHighlight, showOverlap);
+            final Region bounds = views.getBounds(view);
+            final List<Map.Entry<Map<Region.Point, Highlightable.HighlightType>,
+                    Supplier<Map<Position, BlockProvider.MaterialBlock>>>> captured = Lists.newArrayList();
+            for (Highlightable highlight : toHighlight) {
+                final Map<Region.Point, Highlightable.HighlightType> points = highlight
+                        .getHighlightPoints(claimWorld, showOverlap, bounds);
+                captured.add(Map.entry(points, plugin.captureSurfaceBlocksAt(points.keySet(), world, userY)));
+            }
+
+            plugin.runAsync(() -> {
+                final Map<Position, Highlightable.HighlightType> typeMap = Maps.newHashMap();
+                captured.forEach(entry -> entry.getValue().get().keySet()
+                        .forEach(pos -> typeMap.put(pos, Highlightable.getTypeAt(entry.getKey(), pos))));
+
+                // Show the highlights back on the main thread, unless the view has since been replaced or stopped
+                plugin.runSync(() -> {
+                    final Player online = Bukkit.getPlayer(user.getUuid());
+                    if (online != null && views.isCurrent(user, view)) {
+                        updateHighlights(user, online, typeMap);
+                    }
+                });
+            });
+        });
+    }
+
+    // Only hide displays for points that are no longer highlighted, and only show displays for new or changed points.
+    // Displays are hidden before new ones are shown, so pooled displays are reused and freed up under the display cap
+    private void updateHighlights(@NotNull OnlineUser user, @NotNull Player player,
+                                  @NotNull Map<Position, Highlightable.HighlightType> typeMap) {
+        final Map<Position, HighlightedBlock<D>> previous = Optional
+                .ofNullable(activeHighlights.get(user.getUuid())).orElse(Map.of());
+        final Map<Position, HighlightedBlock<D>> highlighted = Maps.newHashMapWithExpectedSize(typeMap.size());
+        final List<Position> reverts = Lists.newArrayList();
+        final List<D> hidden = Lists.newArrayList();
+        previous.forEach((pos, block) -> {
+            if (block.type() != typeMap.get(pos)) {
+                if (!typeMap.containsKey(pos)) {
+                    reverts.add(pos);
+                }
+                hidden.add(block.display());
+            }
+        });
+        if (!hidden.isEmpty()) {
+            hide(user.getUuid(), hidden);
+        }
+
+        final HighlightBlocks highlightBlocks = plugin.getHighlightBlocks();
+        final org.bukkit.World bukkitWorld = player.getWorld();
+        final Map<Position, BlockProvider.MaterialBlock> barriers = Maps.newHashMap();
+        typeMap.forEach((pos, type) -> {
+            final HighlightedBlock<D> shown = previous.get(pos);
+            if (shown != null && shown.type() == type) {
+                highlighted.put(pos, shown);
+                return;
+            }
+            final BlockProvider.MaterialBlock block = highlightBlocks.get(type);
+            final D display = show(
+                    player, new Location(bukkitWorld, pos.getX(), pos.getY(), pos.getZ()),
+                    ((BlockDataBlock) block).getData(), colors.get(type)
+            );
+            if (display == null) {
+                // Leave the point unhighlighted, so it is shown by a later update if a display becomes free
+                if (shown != null) {
+                    reverts.add(pos);
+                }
+                return;
+            }
+            highlighted.put(pos, new HighlightedBlock<>(type, display));
+            if (shown == null) {
+                barriers.put(pos, BARRIER);
+            }
+        });
+
+        activeHighlights.put(user.getUuid(), highlighted);
+        if (!reverts.isEmpty()) {
+            plugin.sendBlockUpdates(user, reverts);
+        }
+        if (!barriers.isEmpty()) {
+            plugin.sendBlockUpdates(user, barriers);
+        }
+    }
+
+    @Override
+    public void stopHighlighting(@NotNull OnlineUser user) {
+        views.stop(user.getUuid());
+        removeHighlights(user.getUuid(), user);
+    }
+
+    // Stop an expired view, hiding the displays of a user even if they have since gone offline
+    private void stopExpired(@NotNull UUID uuid) {
+        views.stop(uuid);
+        removeHighlights(uuid, plugin.getOnlineUser(uuid).orElse(null));
+    }
+
+    // Hide a user's displays, reverting the highlighted blocks if they are still online
+    private void removeHighlights(@NotNull UUID uuid, @Nullable OnlineUser user) {
+        final Map<Position, HighlightedBlock<D>> blocks = activeHighlights.remove(uuid);
+        if (blocks == null || blocks.isEmpty()) {
+            return;
+        }
+        if (user != null) {
+            plugin.sendBlockUpdates(user, List.copyOf(blocks.keySet()));
+        }
+
+        final List<D> displays = blocks.values().stream().map(HighlightedBlock::display).toList();
+        if (Bukkit.isPrimaryThread()) {
+            hide(uuid, displays);
+        } else {
+            plugin.runSync(() -> hide(uuid, displays));
+        }
+    }
+
+    @Override
+    public void onUserMove(@NotNull OnlineUser user, @NotNull Position position) {
+        views.getMovedView(user, position).ifPresent(view -> startHighlighting(
+                user, view.world(), view.highlightables(), view.showOverlap()
+        ));
+    }
+
+    private record HighlightedBlock<D>(@NotNull Highlightable.HighlightType type, @NotNull D display) {
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of HuskClaims, licensed under the Apache License 2.0.
+ *
+ *  Copyright (c) William278 <will27528@gmail.com>
+ *  Copyright (c) contributors
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package net.william278.huskclaims.highlighter;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.ProtocolLibrary;
+import com.comphenix.protocol.ProtocolManager;
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.utility.MinecraftVersion;
+import com.comphenix.protocol.wrappers.WrappedBlockData;
+import com.comphenix.protocol.wrappers.WrappedDataValue;
+import com.comphenix.protocol.wrappers.WrappedDataWatcher;
+import net.william278.huskclaims.HuskClaims;
+import org.bukkit.Bukkit;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Highlighter that shows glowing block displays which exist only on the viewing player's client, by sending display
+ * entity spawn, metadata and destroy packets through ProtocolLib. No entity is created on the server.
+ * <p>
+ * Used in place of the {@link GlowHighlighter} when ProtocolLib is installed.
+ *
+ * @since 1.0
+ */
+public class PacketGlowHighlighter extends DisplayHighlighter<Integer> {
+
+    // Entity IDs count down from the max, away from the IDs the server counts up from zero
+    private static final AtomicInteger NEXT_ENTITY_ID = new AtomicInteger(Integer.MAX_VALUE);
+    private static final byte GLOWING_FLAG = 0x40;
+    private static final int SHARED_FLAGS_INDEX = 0;
+
+    private final ProtocolManager protocol;
+    private final int glowColorIndex;
+    private final int blockStateIndex;
+
+    public PacketGlowHighlighter(@NotNull HuskClaims plugin) {
+        super(plugin);
+        this.protocol = ProtocolLibrary.getProtocolManager();
+
+        // 1.20.2 added a display metadata field before the glow color override and block state
+        final boolean shifted = MinecraftVersion.getCurrentVersion().isAtLeast(new MinecraftVersion(1, 20, 2));
+        this.glowColorIndex = shifted ? 22 : 21;
+        this.blockStateIndex = shifted ? 23 : 22;
+    }
+
+    @Nullable
+    @Override
+    protected Integer show(@NotNull Player player, @NotNull Location location, @NotNull BlockData block,
+                           @NotNull Color color) {
+        final int entityId = NEXT_ENTITY_ID.getAndDecrement();
+
+        final PacketContainer spawn = protocol.createPacket(PacketType.Play.Server.SPAWN_ENTITY);
+        spawn.getIntegers().write(0, entityId);
+        spawn.getUUIDs().write(0, UUID.randomUUID());
+        spawn.getEntityTypeModifier().write(0, EntityType.BLOCK_DISPLAY);
+        spawn.getDoubles()
+                .write(0, location.getX())
+                .write(1, location.getY())
+                .write(2, location.getZ());
+
+        final PacketContainer metadata = protocol.createPacket(PacketType.Play.Server.ENTITY_METADATA);
+        metadata.getIntegers().write(0, entityId);
+        metadata.getDataValueCollectionModifier().write(0, List.of(
+                new WrappedDataValue(SHARED_FLAGS_INDEX, WrappedDataWatcher.Registry.get(Byte.class), GLOWING_FLAG),
+                new WrappedDataValue(glowColorIndex, WrappedDataWatcher.Registry.get(Integer.class), color.asRGB()),
+                new WrappedDataValue(blockStateIndex, WrappedDataWatcher.Registry.getBlockDataSerializer(false),
+                        WrappedBlockData.createData(block).getHandle())
+        ));
+
+        protocol.sendServerPacket(player, spawn);
+        protocol.sendServerPacket(player, metadata);
+        return entityId;
+    }
+
+    @Override
+    protected void hide(@NotNull UUID player, @NotNull List<Integer> displays) {
+        final Player online = Bukkit.getPlayer(player);
+        if (online == null || displays.isEmpty()) {
+            return;
+        }
+        final PacketContainer destroy = protocol.createPacket(PacketType.Play.Server.ENTITY_DESTROY);
+        destroy.getIntLists().write(0, displays);
+        protocol.sendServerPacket(online, destroy);
+    }
+
+}